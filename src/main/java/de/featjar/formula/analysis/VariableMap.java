@@ -21,7 +21,6 @@
 package de.featjar.formula.analysis;
 
 import de.featjar.base.data.IntegerList;
-import de.featjar.base.data.Maps;
 import de.featjar.base.data.Pair;
 import de.featjar.base.data.Problem;
 import de.featjar.base.data.RangeMap;
@@ -45,12 +44,19 @@ import de.featjar.formula.analysis.value.ValueSolution;
 import de.featjar.formula.analysis.value.ValueSolutionList;
 import de.featjar.formula.structure.formula.IFormula;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Maps variable names to indices and vice versa. Used to link a literal index
@@ -61,6 +67,8 @@ import java.util.stream.Collectors;
  * @author Elias Kuiter
  */
 public class VariableMap extends RangeMap<String> {
+    private static final int CHUNK_SIZE = 1024;
+
     public VariableMap() {}
 
     protected VariableMap(IValueRepresentation valueRepresentation) {
@@ -115,30 +123,54 @@ public class VariableMap extends RangeMap<String> {
         return String.format("VariableMap[%s]", print());
     }
 
+    /**
+     * Converts a value assignment, skipping non-Boolean values and unmapped variables with a warning.
+     * The constructor receives the literals in the order of the value assignment as an array,
+     * which it may keep without copying.
+     *
+     * @param <T> the type of the boolean assignment
+     * @param valueAssignment the value assignment
+     * @param constructor the constructor for the boolean assignment
+     * @return the boolean assignment and all problems that occurred during conversion
+     */
     protected <T extends ABooleanAssignment> Result<T> toBoolean(
-            AValueAssignment valueAssignment, Function<List<Integer>, T> constructor) {
-        List<Integer> integers = new ArrayList<>();
+            AValueAssignment valueAssignment, Function<int[], T> constructor) {
         List<Problem> problems = new ArrayList<>();
-        for (Map.Entry<String, Object> variableValuePair :
-                valueAssignment.getAll().entrySet()) {
+        T booleanAssignment = toBoolean(valueAssignment, this::getIndex, constructor, problems);
+        return Result.of(booleanAssignment, problems);
+    }
+
+    private int getIndex(String variable) {
+        Result<Integer> index = get(variable);
+        return index.isPresent() ? index.get() : 0;
+    }
+
+    private static <T extends ABooleanAssignment> T toBoolean(
+            AValueAssignment valueAssignment,
+            ToIntFunction<String> indexFunction,
+            Function<int[], T> constructor,
+            List<Problem> problems) {
+        Map<String, Object> variableValuePairs = valueAssignment.getAll();
+        int[] integers = new int[variableValuePairs.size()];
+        int size = 0;
+        for (Map.Entry<String, Object> variableValuePair : variableValuePairs.entrySet()) {
             if (!(variableValuePair.getValue() instanceof Boolean))
                 problems.add(new Problem(
                         "tried to set value " + variableValuePair.getValue() + ", which is not Boolean",
                         Problem.Severity.WARNING));
             else {
                 String variable = variableValuePair.getKey();
-                Boolean value = (Boolean) variableValuePair.getValue();
-                Result<Integer> index = get(variable);
-                if (index.isEmpty())
+                int index = indexFunction.applyAsInt(variable);
+                if (index == 0)
                     problems.add(new Problem(
                             "tried to reference variable " + variable + ", which is not mapped to an index",
                             Problem.Severity.WARNING));
                 else {
-                    integers.add(value ? index.get() : -index.get());
+                    integers[size++] = (Boolean) variableValuePair.getValue() ? index : -index;
                 }
             }
         }
-        return Result.of(constructor.apply(integers), problems);
+        return constructor.apply(size == integers.length ? integers : Arrays.copyOf(integers, size));
     }
 
     public Result<BooleanAssignment> toBoolean(ValueAssignment valueAssignment) {
@@ -149,20 +181,45 @@ public class VariableMap extends RangeMap<String> {
         return toBoolean(valueClause, BooleanClause::new);
     }
 
+    /**
+     * {@return the boolean solution for the given value solution}
+     * The solution has one entry per index up to {@link #maxIndex()},
+     * so unassigned variables and indices without variable are set to 0.
+     *
+     * @param valueSolution the value solution
+     */
     public Result<BooleanSolution> toBoolean(ValueSolution valueSolution) {
-        return toBoolean(valueSolution, BooleanSolution::new);
+        return toBoolean(valueSolution, this::newBooleanSolution);
+    }
+
+    private BooleanSolution newBooleanSolution(int[] integers) {
+        return new BooleanSolution(Math.max(0, maxIndex()), integers);
     }
 
+    /**
+     * Converts all assignments of a list, resolving all variable names only once.
+     * Large lists are converted in parallel chunks, but the order of assignments and problems is preserved.
+     *
+     * @param <T> the type of the boolean assignment list
+     * @param <U> the type of the boolean assignments
+     * @param valueAssignmentList the value assignment list
+     * @param booleanAssignmentList the empty boolean assignment list to fill
+     * @param constructor the constructor for boolean assignments
+     * @return the filled boolean assignment list and all problems that occurred during conversion
+     */
     protected <T extends ABooleanAssignmentList<U>, U extends ABooleanAssignment> Result<T> toBoolean(
-            AValueAssignmentList<?> valueAssignmentList,
-            T booleanAssignmentList,
-            Function<List<Integer>, U> constructor) {
-        List<Problem> problems = new ArrayList<>();
-        for (AValueAssignment valueAssignment : valueAssignmentList.getAll()) {
-            Result<U> booleanAssignment = toBoolean(valueAssignment, constructor);
-            problems.addAll(booleanAssignment.getProblems());
-            if (booleanAssignment.isPresent()) booleanAssignmentList.add(booleanAssignment.get());
+            AValueAssignmentList<?> valueAssignmentList, T booleanAssignmentList, Function<int[], U> constructor) {
+        HashMap<String, Integer> indexTable = new HashMap<>(2 * indexToObject.size());
+        for (int i = 0; i < indexToObject.size(); i++) {
+            String variable = indexToObject.get(i);
+            if (variable != null) indexTable.put(variable, i);
         }
+        ToIntFunction<String> indexFunction = variable -> indexTable.getOrDefault(variable, 0);
+        List<Problem> problems = convert(
+                valueAssignmentList.getAll(),
+                booleanAssignmentList::add,
+                (AValueAssignment valueAssignment, List<Problem> chunkProblems) ->
+                        toBoolean(valueAssignment, indexFunction, constructor, chunkProblems));
         return Result.of(booleanAssignmentList, problems);
     }
 
@@ -175,26 +232,50 @@ public class VariableMap extends RangeMap<String> {
                 valueClauseList, new BooleanClauseList(valueClauseList.getVariableCount()), BooleanClause::new);
     }
 
+    /**
+     * {@return the boolean solution list for the given value solution list}
+     * As for {@link #toBoolean(ValueSolution)}, each solution has one entry per index up to {@link #maxIndex()}.
+     *
+     * @param valueSolutionList the value solution list
+     */
     public Result<BooleanSolutionList> toBoolean(ValueSolutionList valueSolutionList) {
-        return toBoolean(valueSolutionList, new BooleanSolutionList(), BooleanSolution::new);
+        return toBoolean(valueSolutionList, new BooleanSolutionList(), this::newBooleanSolution);
     }
 
     protected <T extends AValueAssignment> Result<T> toValue(
             ABooleanAssignment booleanAssignment, Function<LinkedHashMap<String, Object>, T> constructor) {
-        LinkedHashMap<String, Object> variableValuePairs = Maps.empty();
         List<Problem> problems = new ArrayList<>();
-        for (int integer : booleanAssignment.get()) {
+        T valueAssignment = toValue(
+                booleanAssignment,
+                index -> isValidIndex(index) ? indexToObject.get(index) : null,
+                constructor,
+                problems);
+        return Result.of(valueAssignment, problems);
+    }
+
+    private static <T extends AValueAssignment> T toValue(
+            ABooleanAssignment booleanAssignment,
+            IntFunction<String> variableFunction,
+            Function<LinkedHashMap<String, Object>, T> constructor,
+            List<Problem> problems) {
+        int[] integers = booleanAssignment.get();
+        LinkedHashMap<String, Object> variableValuePairs = new LinkedHashMap<>(getCapacity(integers.length));
+        for (int integer : integers) {
             int index = Math.abs(integer);
-            Result<String> variable = get(index);
-            if (variable.isEmpty())
+            String variable = variableFunction.apply(index);
+            if (variable == null)
                 problems.add(new Problem(
                         "tried to reference index " + index + ", which is not mapped to a variable",
                         Problem.Severity.WARNING));
             else {
-                variableValuePairs.put(variable.get(), integer > 0);
+                variableValuePairs.put(variable, integer > 0);
             }
         }
-        return Result.of(constructor.apply(variableValuePairs), problems);
+        return constructor.apply(variableValuePairs);
+    }
+
+    private static int getCapacity(int size) {
+        return (int) (size / 0.75f) + 1;
     }
 
     public Result<ValueAssignment> toValue(BooleanAssignment booleanAssignment) {
@@ -209,16 +290,28 @@ public class VariableMap extends RangeMap<String> {
         return toValue(booleanSolution, ValueSolution::new);
     }
 
+    /**
+     * Converts all assignments of a list, resolving all variable indices only once.
+     * Large lists are converted in parallel chunks, but the order of assignments and problems is preserved.
+     *
+     * @param <T> the type of the value assignment list
+     * @param <U> the type of the value assignments
+     * @param booleanAssignmentList the boolean assignment list
+     * @param valueAssignmentList the empty value assignment list to fill
+     * @param constructor the constructor for value assignments
+     * @return the filled value assignment list and all problems that occurred during conversion
+     */
     protected <T extends AValueAssignmentList<U>, U extends AValueAssignment> Result<T> toValue(
             ABooleanAssignmentList<?> booleanAssignmentList,
             T valueAssignmentList,
             Function<LinkedHashMap<String, Object>, U> constructor) {
-        List<Problem> problems = new ArrayList<>();
-        for (ABooleanAssignment booleanAssignment : booleanAssignmentList.getAll()) {
-            Result<U> valueAssignment = toValue(booleanAssignment, constructor);
-            problems.addAll(valueAssignment.getProblems());
-            if (valueAssignment.isPresent()) valueAssignmentList.add(valueAssignment.get());
-        }
+        String[] variableTable = indexToObject.toArray(new String[0]);
+        IntFunction<String> variableFunction = index -> index < variableTable.length ? variableTable[index] : null;
+        List<Problem> problems = convert(
+                booleanAssignmentList.getAll(),
+                valueAssignmentList::add,
+                (ABooleanAssignment booleanAssignment, List<Problem> chunkProblems) ->
+                        toValue(booleanAssignment, variableFunction, constructor, chunkProblems));
         return Result.of(valueAssignmentList, problems);
     }
 
@@ -236,11 +329,7 @@ public class VariableMap extends RangeMap<String> {
 
     protected static <T extends AValueAssignment> Result<T> toAnonymousValue(
             ABooleanAssignment booleanAssignment, Function<LinkedHashMap<String, Object>, T> constructor) {
-        LinkedHashMap<String, Object> variableValuePairs = Maps.empty();
-        for (int integer : booleanAssignment.get()) {
-            variableValuePairs.put(String.valueOf(Math.abs(integer)), integer > 0);
-        }
-        return Result.of(constructor.apply(variableValuePairs));
+        return Result.of(toValue(booleanAssignment, String::valueOf, constructor, new ArrayList<>()));
     }
 
     public static Result<ValueAssignment> toAnonymousValue(BooleanAssignment booleanAssignment) {
@@ -259,12 +348,11 @@ public class VariableMap extends RangeMap<String> {
             ABooleanAssignmentList<?> booleanAssignmentList,
             T valueAssignmentList,
             Function<LinkedHashMap<String, Object>, U> constructor) {
-        List<Problem> problems = new ArrayList<>();
-        for (ABooleanAssignment booleanAssignment : booleanAssignmentList.getAll()) {
-            Result<U> valueAssignment = toAnonymousValue(booleanAssignment, constructor);
-            problems.addAll(valueAssignment.getProblems());
-            if (valueAssignment.isPresent()) valueAssignmentList.add(valueAssignment.get());
-        }
+        List<Problem> problems = convert(
+                booleanAssignmentList.getAll(),
+                valueAssignmentList::add,
+                (ABooleanAssignment booleanAssignment, List<Problem> chunkProblems) ->
+                        toValue(booleanAssignment, String::valueOf, constructor, chunkProblems));
         return Result.of(valueAssignmentList, problems);
     }
 
@@ -280,4 +368,33 @@ public class VariableMap extends RangeMap<String> {
     public static Result<ValueSolutionList> toAnonymousValue(BooleanSolutionList booleanSolutionList) {
         return toAnonymousValue(booleanSolutionList, new ValueSolutionList(), ValueSolution::new);
     }
+
+    /**
+     * Converts all given assignments in chunks, which are processed in parallel if there is more than one.
+     * Each chunk collects its own problems, which are concatenated in order afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    private static <S, T> List<Problem> convert(
+            List<? extends S> sources, Consumer<T> targetConsumer, BiFunction<S, List<Problem>, T> converter) {
+        Object[] sourceArray = sources.toArray();
+        Object[] targetArray = new Object[sourceArray.length];
+        int chunkCount = (sourceArray.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream chunks = IntStream.range(0, chunkCount);
+        if (chunkCount > 1) chunks = chunks.parallel();
+        List<List<Problem>> chunkProblems = chunks.mapToObj(chunk -> {
+                    List<Problem> problems = new ArrayList<>(0);
+                    int end = Math.min(sourceArray.length, (chunk + 1) * CHUNK_SIZE);
+                    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                        targetArray[i] = converter.apply((S) sourceArray[i], problems);
+                    }
+                    return problems;
+                })
+                .collect(Collectors.toList());
+        for (Object target : targetArray) {
+            targetConsumer.accept((T) target);
+        }
+        List<Problem> problems = new ArrayList<>();
+        chunkProblems.forEach(problems::addAll);
+        return problems;
+    }
 }
@@ -24,7 +24,6 @@ import de.featjar.base.data.IntegerList;
 import de.featjar.base.data.Maps;
 import de.featjar.base.data.Problem;
 import de.featjar.base.data.Result;
-import de.featjar.base.data.Sets;
 import de.featjar.formula.analysis.IAssignment;
 import de.featjar.formula.analysis.ISolver;
 import de.featjar.formula.analysis.RuntimeContradictionException;
@@ -33,7 +32,6 @@ import de.featjar.formula.analysis.value.ValueAssignment;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.stream.IntStream;
 
 /**
@@ -53,51 +51,53 @@ import java.util.stream.IntStream;
 public abstract class ABooleanAssignment extends IntegerList
         implements IAssignment<Integer, Boolean>, IBooleanRepresentation {
 
+    private static final int CORE_MARK = 1;
+    private static final int CLAUSE_MARK = 2;
+
     public static int[] unitPropagation(BooleanClause clause, BooleanAssignment core) {
         final int[] literals = clause.get();
-        final LinkedHashSet<Integer> literalSet = new LinkedHashSet<>(literals.length << 1);
+        final int[] coreLiterals = core.get();
+        final LiteralMarker marker = LiteralMarker.get(
+                Math.max(LiteralMarker.maxVariable(literals), LiteralMarker.maxVariable(coreLiterals)));
+        for (int literal : coreLiterals) {
+            marker.mark(literal, CORE_MARK);
+        }
 
+        final int[] literalArray = marker.getBuffer(literals.length);
+        int size = 0;
         for (int var : literals) {
-            if (core.indexOf(var) >= 0) {
+            if (marker.getMark(var) == CORE_MARK) {
                 return null;
-            } else if (core.indexOf(-var) < 0) {
-                if (literalSet.contains(-var)) {
+            } else {
+                final int negatedMark = marker.getMark(-var);
+                if (negatedMark == CLAUSE_MARK) {
                     return null;
-                } else {
-                    literalSet.add(var);
+                } else if (negatedMark != CORE_MARK && !marker.isMarked(var)) {
+                    marker.mark(var, CLAUSE_MARK);
+                    literalArray[size++] = var;
                 }
             }
         }
-        if (literalSet.isEmpty()) {
+        if (size == 0) {
             throw new RuntimeContradictionException();
         }
-        final int[] literalArray = new int[literalSet.size()];
-        int i = 0;
-        for (final int lit : literalSet) {
-            literalArray[i++] = lit;
-        }
-        return literalArray;
+        return Arrays.copyOf(literalArray, size);
     }
 
     public static int[] simplify(int[] literals) {
-        final LinkedHashSet<Integer> integerSet = Sets.empty();
+        final LiteralMarker marker = LiteralMarker.get(LiteralMarker.maxVariable(literals));
+        final int[] newArray = marker.getBuffer(literals.length);
+        int size = 0;
         for (final int integer : literals) {
-            if (integer != 0 && integerSet.contains(-integer)) {
+            if (integer != 0 && marker.isMarked(-integer)) {
                 // If this assignment is a contradiction or tautology, it can be simplified.
                 return new int[] {};
-            } else {
-                integerSet.add(integer);
+            } else if (!marker.isMarked(integer)) {
+                marker.mark(integer);
+                newArray[size++] = integer;
             }
         }
-        if (integerSet.size() == literals.length) {
-            return Arrays.copyOf(literals, literals.length);
-        }
-        int[] newArray = new int[integerSet.size()];
-        int i = 0;
-        for (final int lit : integerSet) {
-            newArray[i++] = lit;
-        }
-        return newArray;
+        return Arrays.copyOf(newArray, size);
     }
 
     public static Result<int[]> adapt(
@@ -132,6 +132,20 @@ public abstract class ABooleanAssignment extends IntegerList
         super(booleanAssignment);
     }
 
+    /**
+     * Overwrites all elements of this assignment in place.
+     * Used for bulk operations that must not allocate new assignments.
+     *
+     * @param integers the new elements, at least as long as this assignment, or the elements of this assignment
+     */
+    void overwrite(int[] integers) {
+        assert integers.length >= elements.length;
+        if (integers != elements) {
+            System.arraycopy(integers, 0, elements, 0, elements.length);
+        }
+        hashCodeValid = false;
+    }
+
     public final int[] simplify() {
         return simplify(elements);
     }
@@ -144,10 +158,12 @@ public abstract class ABooleanAssignment extends IntegerList
         if (variable < 0) {
             throw new IllegalArgumentException(String.format("%d is negative", variable));
         }
-        return IntStream.range(0, elements.length)
-                .filter(i -> Math.abs(elements[i]) == variable)
-                .findFirst()
-                .orElse(-1);
+        for (int i = 0; i < elements.length; i++) {
+            if (Math.abs(elements[i]) == variable) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public int[] indicesOfVariable(int variable) {
@@ -181,30 +197,19 @@ public abstract class ABooleanAssignment extends IntegerList
      * @param integers the integers
      */
     public final int[] retainAllVariables(int... integers) {
-        boolean[] intersectionMarker = new boolean[elements.length];
+        final LiteralMarker marker = markVariables(integers);
+        final int[] newArray = marker.getBuffer(elements.length);
         int count = 0;
-        for (int integer : integers) {
-            final int[] indices = indicesOfVariable(integer);
-            for (int i = 0; i < indices.length; i++) {
-                int index = indices[i];
-                if (index >= 0 && !intersectionMarker[index]) {
-                    count++;
-                    intersectionMarker[index] = true;
-                }
-            }
-        }
-
-        int[] newArray = new int[count];
-        int j = 0;
-        for (int i = 0; i < elements.length; i++) {
-            if (intersectionMarker[i]) {
-                newArray[j++] = elements[i];
+        for (int element : elements) {
+            if (marker.isVariableMarked(element)) {
+                newArray[count++] = element;
             }
         }
+        final int[] result = Arrays.copyOf(newArray, count);
         assert Arrays.stream(elements)
-                .allMatch(e -> Arrays.stream(newArray).anyMatch(i -> i == e)
+                .allMatch(e -> Arrays.stream(result).anyMatch(i -> i == e)
                         == Arrays.stream(integers).anyMatch(i -> i == Math.abs(e)));
-        return newArray;
+        return result;
     }
 
     /**
@@ -213,30 +218,33 @@ public abstract class ABooleanAssignment extends IntegerList
      * @param integers the integers
      */
     public final int[] removeAllVariables(int... integers) {
-        boolean[] intersectionMarker = new boolean[elements.length];
+        final LiteralMarker marker = markVariables(integers);
+        final int[] newArray = marker.getBuffer(elements.length);
         int count = 0;
-        for (int integer : integers) {
-            final int[] indices = indicesOfVariable(integer);
-            for (int i = 0; i < indices.length; i++) {
-                int index = indices[i];
-                if (index >= 0 && !intersectionMarker[index]) {
-                    count++;
-                    intersectionMarker[index] = true;
-                }
+        for (int element : elements) {
+            if (!marker.isVariableMarked(element)) {
+                newArray[count++] = element;
             }
         }
+        final int[] result = Arrays.copyOf(newArray, count);
+        assert Arrays.stream(elements)
+                .allMatch(e -> Arrays.stream(result).anyMatch(i -> i == e)
+                        ^ Arrays.stream(integers).anyMatch(i -> i == Math.abs(e)));
+        return result;
+    }
 
-        int[] newArray = new int[elements.length - count];
-        int j = 0;
-        for (int i = 0; i < elements.length; i++) {
-            if (!intersectionMarker[i]) {
-                newArray[j++] = elements[i];
+    private LiteralMarker markVariables(int... variables) {
+        final LiteralMarker marker = LiteralMarker.get(LiteralMarker.maxVariable(elements));
+        final int maxVariable = marker.getMaxVariable();
+        for (int variable : variables) {
+            if (variable < 0) {
+                throw new IllegalArgumentException(String.format("%d is negative", variable));
+            }
+            if (variable <= maxVariable) {
+                marker.markVariable(variable);
             }
         }
-        assert Arrays.stream(elements)
-                .allMatch(e -> Arrays.stream(newArray).anyMatch(i -> i == e)
-                        ^ Arrays.stream(integers).anyMatch(i -> i == Math.abs(e)));
-        return newArray;
+        return marker;
     }
 
     public ABooleanAssignment addAll(ABooleanAssignment integers) {
@@ -52,6 +52,16 @@ public abstract class ABooleanAssignmentList<T extends ABooleanAssignment>
         this.assignments = new ArrayList<>(assignments);
     }
 
+    /**
+     * Creates an assignment list that is optionally backed by the given list.
+     *
+     * @param assignments the assignments
+     * @param copy whether to copy the given list
+     */
+    protected ABooleanAssignmentList(List<T> assignments, boolean copy) {
+        this.assignments = copy ? new ArrayList<>(assignments) : assignments;
+    }
+
     public ABooleanAssignmentList(Stream<? extends T> assignments) {
         this.assignments = assignments.collect(Collectors.toCollection(ArrayList::new));
     }
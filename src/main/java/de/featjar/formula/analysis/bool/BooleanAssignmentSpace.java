@@ -22,7 +22,11 @@ package de.featjar.formula.analysis.bool;
 
 import de.featjar.formula.analysis.AAssignmentSpace;
 import de.featjar.formula.analysis.VariableMap;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
 /**
  * Combines multiple groups of lists of {@link ABooleanAssignment assignments}
@@ -32,9 +36,14 @@ import java.util.List;
  */
 public class BooleanAssignmentSpace extends AAssignmentSpace<ABooleanAssignment> {
 
+    private final AtomicReferenceArray<BooleanClauseList> clauseListViews;
+    private final AtomicReferenceArray<BooleanSolutionList> solutionListViews;
+
     public BooleanAssignmentSpace(
             VariableMap variableMap, List<? extends List<? extends ABooleanAssignment>> assignment) {
         super(variableMap, assignment);
+        clauseListViews = new AtomicReferenceArray<>(assignmentGroups.size());
+        solutionListViews = new AtomicReferenceArray<>(assignmentGroups.size());
     }
 
     public BooleanClauseList toClauseList() {
@@ -58,4 +67,90 @@ public class BooleanAssignmentSpace extends AAssignmentSpace<ABooleanAssignment>
         group.stream().map(ABooleanAssignment::toSolution).forEach(list::add);
         return list;
     }
+
+    public BooleanClauseList getClauseListView() {
+        return getClauseListView(0);
+    }
+
+    public BooleanSolutionList getSolutionListView() {
+        return getSolutionListView(0);
+    }
+
+    /**
+     * {@return a read-only clause list view of the given group}
+     * In contrast to {@link #toClauseList(int)}, the group is not copied.
+     * Each assignment is converted on its first access and clauses are shared with the group.
+     * The view is cached, so repeated calls are cheap, but the group must not be modified afterwards.
+     * The view also keeps the number of variables the variable map had when the view was created.
+     * Concurrent calls return the same view.
+     *
+     * @param groupIndex the index of the group
+     */
+    public BooleanClauseList getClauseListView(int groupIndex) {
+        final BooleanClauseList view = clauseListViews.get(groupIndex);
+        if (view != null) {
+            return view;
+        }
+        final BooleanClauseList newView = new BooleanClauseList(
+                new ConvertedGroup<>(assignmentGroups.get(groupIndex), ABooleanAssignment::toClause),
+                variableMap.getVariableCount(),
+                false);
+        return clauseListViews.compareAndSet(groupIndex, null, newView)
+                ? newView
+                : clauseListViews.get(groupIndex);
+    }
+
+    /**
+     * {@return a read-only solution list view of the given group}
+     * In contrast to {@link #toSolutionList(int)}, the group is not copied.
+     * Each assignment is converted on its first access and solutions are shared with the group.
+     * The view is cached, so repeated calls are cheap, but the group must not be modified afterwards.
+     * Concurrent calls return the same view.
+     *
+     * @param groupIndex the index of the group
+     */
+    public BooleanSolutionList getSolutionListView(int groupIndex) {
+        final BooleanSolutionList view = solutionListViews.get(groupIndex);
+        if (view != null) {
+            return view;
+        }
+        final BooleanSolutionList newView = new BooleanSolutionList(
+                new ConvertedGroup<>(assignmentGroups.get(groupIndex), ABooleanAssignment::toSolution), false);
+        return solutionListViews.compareAndSet(groupIndex, null, newView)
+                ? newView
+                : solutionListViews.get(groupIndex);
+    }
+
+    /**
+     * Read-only list that converts the assignments of a group lazily and remembers the results.
+     */
+    private static final class ConvertedGroup<T extends ABooleanAssignment> extends AbstractList<T>
+            implements RandomAccess {
+        private final List<? extends ABooleanAssignment> group;
+        private final Function<ABooleanAssignment, T> converter;
+        private final AtomicReferenceArray<T> convertedAssignments;
+
+        private ConvertedGroup(List<? extends ABooleanAssignment> group, Function<ABooleanAssignment, T> converter) {
+            this.group = group;
+            this.converter = converter;
+            convertedAssignments = new AtomicReferenceArray<>(group.size());
+        }
+
+        @Override
+        public T get(int index) {
+            final T assignment = convertedAssignments.get(index);
+            if (assignment != null) {
+                return assignment;
+            }
+            final T newAssignment = converter.apply(group.get(index));
+            return convertedAssignments.compareAndSet(index, null, newAssignment)
+                    ? newAssignment
+                    : convertedAssignments.get(index);
+        }
+
+        @Override
+        public int size() {
+            return convertedAssignments.length();
+        }
+    }
 }
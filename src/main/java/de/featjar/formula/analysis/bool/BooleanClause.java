@@ -73,6 +73,12 @@ public class BooleanClause extends ABooleanAssignment implements IClause<Integer
         Arrays.sort(elements);
     }
 
+    @Override
+    void overwrite(int[] integers) {
+        super.overwrite(integers);
+        sort();
+    }
+
     @Override
     public int[] getNonZeroValues() {
         assert Arrays.stream(elements).noneMatch(a -> a == 0) : "contains zero: " + Arrays.toString(elements);
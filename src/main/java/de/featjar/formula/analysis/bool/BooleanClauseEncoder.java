@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.connective.Reference;
+import de.featjar.formula.structure.formula.predicate.False;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.formula.predicate.True;
+import de.featjar.formula.transformer.TseitinTransformer;
+import de.featjar.formula.visitor.ConnectiveSimplifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Encodes formulas as {@link BooleanClause clauses} in conjunctive normal form.
+ * Negations are passed down as a polarity, and each top-level clause is transformed either distributively or
+ * by introducing auxiliary variables.
+ * Variables that are not yet contained in the variable map are added to it, so an encoder can be fed
+ * with one formula after another (e.g., the constraints of a large feature model) while its variable map grows.
+ * Within a formula, equal subformulas with equal polarity share the same auxiliary variable.
+ *
+ * @author Sebastian Krieter
+ */
+public class BooleanClauseEncoder {
+    /**
+     * Literals standing for constant subformulas.
+     * Clauses are represented as sorted arrays of literals without duplicates.
+     */
+    private static final int TRUE = Integer.MAX_VALUE;
+    private static final int FALSE = -TRUE;
+
+    private final VariableMap variableMap;
+    private final boolean isPlaistedGreenbaum;
+    private final int maximumNumberOfLiterals;
+    private final List<int[]> clauses = new ArrayList<>();
+    private final List<int[]> definitions = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private final HashMap<IFormula, Integer>[] auxiliaryVariables = new HashMap[] {new HashMap<>(), new HashMap<>()};
+
+    private int currentAuxiliaryVariableIndex = 0;
+    private int currentNumberOfLiterals;
+
+    /**
+     * Creates a new clause encoder.
+     *
+     * @param variableMap the variable map, which is extended by new and auxiliary variables
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param maximumNumberOfLiterals the maximum number of literals available for distributive transformation
+     *                                of each top-level clause
+     */
+    public BooleanClauseEncoder(VariableMap variableMap, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        this.variableMap = variableMap;
+        this.isPlaistedGreenbaum = isPlaistedGreenbaum;
+        this.maximumNumberOfLiterals = maximumNumberOfLiterals;
+    }
+
+    /**
+     * {@return this encoder's variable map}
+     */
+    public VariableMap getVariableMap() {
+        return variableMap;
+    }
+
+    /**
+     * {@return clauses in conjunctive normal form for the given formula}
+     * The clauses for the formula itself are followed by the definitions of its auxiliary variables.
+     * If the formula cannot be transformed, variables encountered so far remain in the variable map.
+     *
+     * @param formula the formula
+     */
+    public Result<List<BooleanClause>> encode(IFormula formula) {
+        if (formula instanceof Reference) {
+            formula = ((Reference) formula).getExpression();
+        }
+        try {
+            transformConjunction(formula, false);
+            final List<BooleanClause> booleanClauses = new ArrayList<>(clauses.size() + definitions.size());
+            clauses.forEach(clause -> booleanClauses.add(new BooleanClause(clause, false)));
+            definitions.forEach(clause -> booleanClauses.add(new BooleanClause(clause, false)));
+            return Result.of(booleanClauses);
+        } catch (UnsupportedFormulaException e) {
+            return Result.empty(new Problem(e));
+        } finally {
+            clauses.clear();
+            definitions.clear();
+            auxiliaryVariables[0].clear();
+            auxiliaryVariables[1].clear();
+        }
+    }
+
+    private void transformConjunction(IFormula formula, boolean isNegated) throws UnsupportedFormulaException {
+        // uses explicit stacks, as formulas may be nested too deeply for recursion
+        final ArrayDeque<IFormula> formulas = new ArrayDeque<>();
+        final ArrayDeque<Boolean> polarities = new ArrayDeque<>();
+        formulas.push(formula);
+        polarities.push(isNegated);
+        while (!formulas.isEmpty()) {
+            formula = formulas.pop();
+            isNegated = polarities.pop();
+            while (formula instanceof Not) {
+                formula = (IFormula) ((Not) formula).getExpression();
+                isNegated = !isNegated;
+            }
+            if (isNegated ? formula instanceof Or : formula instanceof And) {
+                final List<? extends IExpression> children = formula.getChildren();
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    formulas.push((IFormula) children.get(i));
+                    polarities.push(isNegated);
+                }
+            } else if (!(formula instanceof Literal || formula instanceof True || formula instanceof False)
+                    && !(formula instanceof And || formula instanceof Or)) {
+                formulas.push(expand(formula));
+                polarities.push(isNegated);
+            } else {
+                transformClause(formula, isNegated);
+            }
+        }
+    }
+
+    private void transformClause(IFormula formula, boolean isNegated) throws UnsupportedFormulaException {
+        if (maximumNumberOfLiterals > 0) {
+            currentNumberOfLiterals = 0;
+            try {
+                clauses.addAll(distribute(formula, isNegated));
+                return;
+            } catch (CancelledException e) {
+                // fall back to introducing auxiliary variables
+            }
+        }
+        final int[] literals;
+        if (isNegated ? formula instanceof And : formula instanceof Or) {
+            literals = encodeChildren(formula, isNegated, false);
+        } else {
+            literals = new int[] {encode(formula, isNegated)};
+        }
+        if (literals.length == 1 && literals[0] == TRUE) {
+            return;
+        } else if (literals.length == 1 && literals[0] == FALSE) {
+            clauses.add(new int[0]);
+        } else {
+            clauses.add(sort(literals));
+        }
+    }
+
+    private List<int[]> distribute(IFormula formula, boolean isNegated)
+            throws UnsupportedFormulaException, CancelledException {
+        final ArrayDeque<DistributionFrame> stack = new ArrayDeque<>();
+        List<int[]> result = distribute(formula, isNegated, stack);
+        while (!stack.isEmpty()) {
+            final DistributionFrame frame = stack.peek();
+            if (result != null) {
+                if (frame.isConjunction) {
+                    frame.newClauses.addAll(result);
+                } else {
+                    multiply(frame, result);
+                }
+            }
+            if (frame.index < frame.children.size()) {
+                result = distribute((IFormula) frame.children.get(frame.index++), frame.isNegated, stack);
+            } else {
+                stack.pop();
+                result = frame.newClauses;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@return the clauses for the given formula if it is constant or a literal,
+     * or {@code null} if a frame for a connective has been pushed}
+     */
+    private List<int[]> distribute(IFormula formula, boolean isNegated, ArrayDeque<DistributionFrame> stack)
+            throws UnsupportedFormulaException {
+        while (true) {
+            while (formula instanceof Not) {
+                formula = (IFormula) ((Not) formula).getExpression();
+                isNegated = !isNegated;
+            }
+            if (formula instanceof Literal) {
+                return List.of(new int[] {getLiteral((Literal) formula, isNegated)});
+            } else if (formula instanceof True || formula instanceof False) {
+                return (formula instanceof True) != isNegated ? List.of() : List.of(new int[0]);
+            } else if (formula instanceof And || formula instanceof Or) {
+                stack.push(new DistributionFrame(formula, isNegated));
+                return null;
+            }
+            formula = expand(formula);
+        }
+    }
+
+    private void multiply(DistributionFrame frame, List<int[]> childClauses) throws CancelledException {
+        final List<int[]> productClauses = new ArrayList<>(frame.newClauses.size() * childClauses.size());
+        for (int[] clause : frame.newClauses) {
+            for (int[] childClause : childClauses) {
+                final int[] productClause = merge(clause, childClause);
+                if (productClause != null) {
+                    currentNumberOfLiterals += productClause.length;
+                    if (currentNumberOfLiterals > maximumNumberOfLiterals) {
+                        throw new CancelledException();
+                    }
+                    productClauses.add(productClause);
+                }
+            }
+        }
+        frame.newClauses.clear();
+        frame.newClauses.addAll(productClauses);
+        if (frame.newClauses.isEmpty()) {
+            // the disjunction is a tautology, so its remaining children are skipped
+            frame.index = frame.children.size();
+        }
+    }
+
+    private int encode(IFormula formula, boolean isNegated) throws UnsupportedFormulaException {
+        final ArrayDeque<EncodingFrame> stack = new ArrayDeque<>();
+        final int literal = encode(formula, isNegated, stack);
+        return literal != 0 ? literal : encode(stack)[0];
+    }
+
+    /**
+     * {@return the literals of the given connective's children, with constants folded}
+     * Returns a single {@link #TRUE} or {@link #FALSE} if the connective is constant.
+     */
+    private int[] encodeChildren(IFormula formula, boolean isNegated, boolean isAnd)
+            throws UnsupportedFormulaException {
+        final ArrayDeque<EncodingFrame> stack = new ArrayDeque<>();
+        stack.push(new EncodingFrame(formula, isNegated, isAnd, false));
+        return encode(stack);
+    }
+
+    /**
+     * {@return the literal for the given formula if it is constant, a literal, or already encoded,
+     * or 0 if a frame for a connective has been pushed}
+     */
+    private int encode(IFormula formula, boolean isNegated, ArrayDeque<EncodingFrame> stack)
+            throws UnsupportedFormulaException {
+        while (true) {
+            while (formula instanceof Not) {
+                formula = (IFormula) ((Not) formula).getExpression();
+                isNegated = !isNegated;
+            }
+            if (formula instanceof Literal) {
+                return getLiteral((Literal) formula, isNegated);
+            } else if (formula instanceof True || formula instanceof False) {
+                return (formula instanceof True) != isNegated ? TRUE : FALSE;
+            } else if (formula instanceof And || formula instanceof Or) {
+                final Integer auxiliaryVariable = auxiliaryVariables[isNegated ? 1 : 0].get(formula);
+                if (auxiliaryVariable != null) {
+                    return auxiliaryVariable;
+                }
+                final boolean isAnd = isNegated ? formula instanceof Or : formula instanceof And;
+                stack.push(new EncodingFrame(formula, isNegated, isAnd, true));
+                return 0;
+            }
+            formula = expand(formula);
+        }
+    }
+
+    /**
+     * {@return the literals of the bottom frame, or its single defined literal}
+     * Processes the given frames until the stack is empty.
+     */
+    private int[] encode(ArrayDeque<EncodingFrame> stack) throws UnsupportedFormulaException {
+        int literal = 0;
+        while (true) {
+            final EncodingFrame frame = stack.peek();
+            if (literal != 0) {
+                frame.add(literal);
+            }
+            if (frame.index < frame.children.size()) {
+                literal = encode((IFormula) frame.children.get(frame.index++), frame.isNegated, stack);
+            } else {
+                stack.pop();
+                final int[] literals = frame.fold();
+                if (!frame.isDefined) {
+                    return literals;
+                }
+                literal = define(frame, literals);
+                if (stack.isEmpty()) {
+                    return new int[] {literal};
+                }
+            }
+        }
+    }
+
+    private int define(EncodingFrame frame, int[] literals) {
+        final int literal;
+        if (literals.length == 1) {
+            literal = literals[0];
+        } else {
+            literal = newAuxiliaryVariable();
+            if (frame.isAnd) {
+                for (int childLiteral : literals) {
+                    definitions.add(sort(new int[] {-literal, childLiteral}));
+                }
+                if (!isPlaistedGreenbaum) {
+                    definitions.add(sort(negateAndAppend(literals, literal)));
+                }
+            } else {
+                if (!isPlaistedGreenbaum) {
+                    for (int childLiteral : literals) {
+                        definitions.add(sort(new int[] {literal, -childLiteral}));
+                    }
+                }
+                final int[] clause = Arrays.copyOf(literals, literals.length + 1);
+                clause[literals.length] = -literal;
+                definitions.add(sort(clause));
+            }
+        }
+        auxiliaryVariables[frame.isNegated ? 1 : 0].put(frame.formula, literal);
+        return literal;
+    }
+
+    private int getLiteral(Literal literal, boolean isNegated) {
+        final String name = literal.getExpression().getName();
+        final Result<Integer> variable = variableMap.get(name);
+        final int index = variable.isPresent() ? variable.get() : addVariable(name);
+        return literal.isPositive() != isNegated ? index : -index;
+    }
+
+    private int newAuxiliaryVariable() {
+        String name;
+        do {
+            name = TseitinTransformer.AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex);
+        } while (variableMap.has(name));
+        return addVariable(name);
+    }
+
+    private int addVariable(String name) {
+        final int index = variableMap.maxIndex() + 1;
+        variableMap.add(index, name);
+        return index;
+    }
+
+    private static IFormula expand(IFormula formula) throws UnsupportedFormulaException {
+        final IFormula expandedFormula = ConnectiveSimplifier.expand(formula);
+        if (expandedFormula == null) {
+            throw new UnsupportedFormulaException(formula);
+        }
+        return expandedFormula;
+    }
+
+    private static int[] negateAndAppend(int[] literals, int literal) {
+        final int[] clause = new int[literals.length + 1];
+        for (int i = 0; i < literals.length; i++) {
+            clause[i] = -literals[i];
+        }
+        clause[literals.length] = literal;
+        return clause;
+    }
+
+    private static int[] sort(int[] literals) {
+        Arrays.sort(literals);
+        return literals;
+    }
+
+    /**
+     * {@return the union of two sorted clauses, or {@code null} if it is a tautology}
+     */
+    private static int[] merge(int[] clause1, int[] clause2) {
+        final int[] clause = new int[clause1.length + clause2.length];
+        int i = 0, j = 0, size = 0;
+        while (i < clause1.length || j < clause2.length) {
+            final int literal;
+            if (j == clause2.length || (i < clause1.length && clause1[i] <= clause2[j])) {
+                literal = clause1[i++];
+            } else {
+                literal = clause2[j++];
+            }
+            if (size == 0 || clause[size - 1] != literal) {
+                clause[size++] = literal;
+            }
+        }
+        for (int k = 0; k < size && clause[k] < 0; k++) {
+            if (Arrays.binarySearch(clause, 0, size, -clause[k]) >= 0) {
+                return null;
+            }
+        }
+        return size == clause.length ? clause : Arrays.copyOf(clause, size);
+    }
+
+    /**
+     * A connective whose children are currently distributed.
+     */
+    private static final class DistributionFrame {
+        private final List<? extends IExpression> children;
+        private final List<int[]> newClauses = new ArrayList<>();
+        private final boolean isNegated;
+        private final boolean isConjunction;
+        private int index;
+
+        private DistributionFrame(IFormula formula, boolean isNegated) {
+            this.children = formula.getChildren();
+            this.isNegated = isNegated;
+            this.isConjunction = isNegated ? formula instanceof Or : formula instanceof And;
+            if (!isConjunction) {
+                newClauses.add(new int[0]);
+            }
+        }
+    }
+
+    /**
+     * A connective whose children are currently encoded.
+     */
+    private static final class EncodingFrame {
+        private final IFormula formula;
+        private final List<? extends IExpression> children;
+        private final boolean isNegated;
+        private final boolean isAnd;
+        private final boolean isDefined;
+        private final int dominant;
+        private int[] literals;
+        private int size;
+        private int index;
+
+        /**
+         * Creates a new encoding frame.
+         *
+         * @param isDefined whether the connective is defined by an auxiliary variable once it is encoded
+         */
+        private EncodingFrame(IFormula formula, boolean isNegated, boolean isAnd, boolean isDefined) {
+            this.formula = formula;
+            this.children = formula.getChildren();
+            this.isNegated = isNegated;
+            this.isAnd = isAnd;
+            this.isDefined = isDefined;
+            this.dominant = isAnd ? FALSE : TRUE;
+            this.literals = new int[children.size()];
+        }
+
+        private void add(int literal) {
+            if (literal == dominant) {
+                // the connective is constant, so its remaining children are skipped
+                literals = new int[] {dominant};
+                size = -1;
+                index = children.size();
+            } else if (literal != -dominant) {
+                literals[size++] = literal;
+            }
+        }
+
+        private int[] fold() {
+            if (size < 0) {
+                return literals;
+            }
+            literals = Arrays.copyOf(literals, size);
+            Arrays.sort(literals);
+            size = 0;
+            for (int i = 0; i < literals.length; i++) {
+                if (i == 0 || literals[i] != literals[i - 1]) {
+                    if (Arrays.binarySearch(literals, -literals[i]) >= 0) {
+                        // complementary literals
+                        return new int[] {dominant};
+                    }
+                    literals[size++] = literals[i];
+                }
+            }
+            return size == 0 ? new int[] {-dominant} : Arrays.copyOf(literals, size);
+        }
+    }
+
+    /**
+     * Thrown to show that a formula cannot be transformed into conjunctive normal form.
+     */
+    private static class UnsupportedFormulaException extends Exception {
+        private static final long serialVersionUID = -6217430964016924713L;
+
+        private UnsupportedFormulaException(IExpression expression) {
+            super("cannot transform " + expression.getName() + " into conjunctive normal form");
+        }
+    }
+
+    /**
+     * Thrown to cancel a distributive transformation.
+     */
+    private static class CancelledException extends Exception {
+        private static final long serialVersionUID = 4372093316521390648L;
+
+        private CancelledException() {
+            super(null, null, false, false);
+        }
+    }
+}
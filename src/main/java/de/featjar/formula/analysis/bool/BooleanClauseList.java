@@ -27,7 +27,6 @@ import de.featjar.formula.analysis.VariableMap;
 import de.featjar.formula.analysis.value.ValueClauseList;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -63,6 +62,11 @@ public class BooleanClauseList extends ABooleanAssignmentList<BooleanClause> {
         this.variableCount = variableCount;
     }
 
+    BooleanClauseList(List<BooleanClause> assignments, int variableCount, boolean copy) {
+        super(assignments, copy);
+        this.variableCount = variableCount;
+    }
+
     public BooleanClauseList(BooleanClauseList other) {
         super(other);
         this.variableCount = other.variableCount;
@@ -81,12 +85,9 @@ public class BooleanClauseList extends ABooleanAssignmentList<BooleanClause> {
     }
 
     public BooleanClauseList adapt(VariableMap oldVariables, VariableMap newVariables) {
-        List<BooleanClause> adaptedAssignments = new ArrayList<>();
-        for (BooleanClause oldClause : assignments) {
-            adaptedAssignments.add(new BooleanClause(
-                    oldClause.adapt(oldVariables, newVariables).orElseThrow()));
-        }
-        return new BooleanClauseList(adaptedAssignments, newVariables.getVariableCount());
+        return VariableRemapping.of(oldVariables, newVariables)
+                .apply(this, false)
+                .orElseThrow();
     }
 
     @Override
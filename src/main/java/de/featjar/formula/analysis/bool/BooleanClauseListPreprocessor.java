@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simplifies a {@link BooleanClauseList} in the style of SatELite.
+ * Applies unit propagation, pure literal elimination, subsumption, self-subsuming resolution,
+ * and bounded variable elimination until no more changes occur.
+ * The resulting clause list is equisatisfiable to the original clause list and uses the same variable indices.
+ * Solutions of the resulting clause list can be extended to solutions of the original clause list
+ * with the {@link ModelReconstructionStack} returned by {@link #getReconstructionStack()}.
+ * An unsatisfiable clause list is simplified to a clause list containing only the empty clause.
+ *
+ * @author Sebastian Krieter
+ */
+public class BooleanClauseListPreprocessor {
+
+    /**
+     * Maximum length of resolvents created during variable elimination.
+     */
+    public static final int RESOLVENT_LENGTH_LIMIT = 20;
+
+    private static final int MAXIMUM_ROUNDS = 100;
+    private static final int SUBSUMES = Integer.MIN_VALUE;
+    private static final int NONE = 0;
+
+    private final int variableCount;
+    private final boolean isEliminatingVariables;
+    private final List<int[]> clauses = new ArrayList<>();
+    private long[] signatures = new long[16];
+    private final LiteralOccurrenceIndex occurrences;
+    private final int[] values;
+    private final boolean[] eliminated;
+    private final ModelReconstructionStack reconstructionStack;
+
+    private final IntQueue unitQueue = new IntQueue();
+    private final IntQueue subsumptionQueue = new IntQueue();
+    private boolean[] inSubsumptionQueue = new boolean[16];
+
+    private boolean isUnsatisfiable;
+    private long modificationCount;
+
+    /**
+     * Creates a preprocessor for the given clause list.
+     *
+     * @param clauseList the clause list, which is not modified
+     * @param isEliminatingVariables whether to apply bounded variable elimination
+     */
+    public BooleanClauseListPreprocessor(BooleanClauseList clauseList, boolean isEliminatingVariables) {
+        this.isEliminatingVariables = isEliminatingVariables;
+        int maxVariable = clauseList.getVariableCount();
+        for (BooleanClause clause : clauseList.getAll()) {
+            maxVariable = Math.max(maxVariable, LiteralMarker.maxVariable(clause.get()));
+        }
+        variableCount = maxVariable;
+        occurrences = new LiteralOccurrenceIndex(variableCount);
+        values = new int[variableCount + 1];
+        eliminated = new boolean[variableCount + 1];
+        reconstructionStack = new ModelReconstructionStack(variableCount);
+        for (BooleanClause clause : clauseList.getAll()) {
+            addClause(clause.get());
+        }
+    }
+
+    /**
+     * Applies all simplifications until a fixpoint is reached.
+     *
+     * @return this preprocessor
+     */
+    public BooleanClauseListPreprocessor preprocess() {
+        propagate();
+        for (int round = 0; round < MAXIMUM_ROUNDS && !isUnsatisfiable; round++) {
+            final long lastModificationCount = modificationCount;
+            subsume();
+            eliminatePureLiterals();
+            if (isEliminatingVariables) {
+                eliminateVariables();
+            }
+            if (lastModificationCount == modificationCount) {
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * {@return the current clause list}
+     */
+    public BooleanClauseList getClauseList() {
+        final BooleanClauseList clauseList = new BooleanClauseList(variableCount);
+        if (isUnsatisfiable) {
+            clauseList.add(new BooleanClause());
+        } else {
+            for (int[] clause : clauses) {
+                if (clause != null) {
+                    clauseList.add(new BooleanClause(clause, false));
+                }
+            }
+        }
+        return clauseList;
+    }
+
+    /**
+     * {@return the stack for extending solutions of the current clause list to solutions of the original clause list}
+     */
+    public ModelReconstructionStack getReconstructionStack() {
+        return reconstructionStack;
+    }
+
+    /**
+     * {@return whether the clause list was found to be unsatisfiable}
+     */
+    public boolean isUnsatisfiable() {
+        return isUnsatisfiable;
+    }
+
+    private void addClause(int[] literals) {
+        final LiteralMarker marker = LiteralMarker.get(variableCount);
+        final int[] buffer = marker.getBuffer(literals.length);
+        int size = 0;
+        for (int literal : literals) {
+            final int value = values[Math.abs(literal)];
+            if (value == literal || marker.isMarked(-literal)) {
+                // clause is satisfied or tautological
+                return;
+            } else if (value == 0 && !marker.isMarked(literal)) {
+                marker.mark(literal);
+                buffer[size++] = literal;
+            }
+        }
+        if (size == 0) {
+            isUnsatisfiable = true;
+        } else if (size == 1) {
+            unitQueue.add(buffer[0]);
+        } else {
+            final int[] clause = Arrays.copyOf(buffer, size);
+            Arrays.sort(clause);
+            final int clauseIndex = clauses.size();
+            clauses.add(clause);
+            if (clauseIndex >= signatures.length) {
+                signatures = Arrays.copyOf(signatures, clauseIndex << 1);
+                inSubsumptionQueue = Arrays.copyOf(inSubsumptionQueue, clauseIndex << 1);
+            }
+            signatures[clauseIndex] = computeSignature(clause);
+            occurrences.add(clauseIndex, clause);
+            enqueueForSubsumption(clauseIndex);
+        }
+        modificationCount++;
+    }
+
+    private void removeClause(int clauseIndex) {
+        occurrences.remove(clauseIndex, clauses.get(clauseIndex));
+        clauses.set(clauseIndex, null);
+        modificationCount++;
+    }
+
+    private void strengthenClause(int clauseIndex, int literal) {
+        final int[] clause = clauses.get(clauseIndex);
+        if (clause.length == 2) {
+            removeClause(clauseIndex);
+            unitQueue.add(clause[0] == literal ? clause[1] : clause[0]);
+        } else {
+            final int[] newClause = new int[clause.length - 1];
+            for (int i = 0, j = 0; i < clause.length; i++) {
+                if (clause[i] != literal) {
+                    newClause[j++] = clause[i];
+                }
+            }
+            occurrences.remove(clauseIndex, literal);
+            clauses.set(clauseIndex, newClause);
+            signatures[clauseIndex] = computeSignature(newClause);
+            enqueueForSubsumption(clauseIndex);
+            modificationCount++;
+        }
+    }
+
+    private void enqueueForSubsumption(int clauseIndex) {
+        if (!inSubsumptionQueue[clauseIndex]) {
+            inSubsumptionQueue[clauseIndex] = true;
+            subsumptionQueue.add(clauseIndex);
+        }
+    }
+
+    private void propagate() {
+        while (!isUnsatisfiable && !unitQueue.isEmpty()) {
+            final int literal = unitQueue.poll();
+            final int variable = Math.abs(literal);
+            if (values[variable] == literal) {
+                continue;
+            } else if (values[variable] == -literal) {
+                isUnsatisfiable = true;
+                return;
+            }
+            values[variable] = literal;
+            reconstructionStack.push(literal, literal);
+            modificationCount++;
+            for (int clauseIndex : occurrences.copyOccurrences(literal)) {
+                removeClause(clauseIndex);
+            }
+            for (int clauseIndex : occurrences.copyOccurrences(-literal)) {
+                strengthenClause(clauseIndex, -literal);
+            }
+        }
+    }
+
+    private void subsume() {
+        while (!isUnsatisfiable && !subsumptionQueue.isEmpty()) {
+            final int clauseIndex = subsumptionQueue.poll();
+            inSubsumptionQueue[clauseIndex] = false;
+            final int[] clause = clauses.get(clauseIndex);
+            if (clause != null) {
+                subsume(clauseIndex, clause);
+                propagate();
+            }
+        }
+    }
+
+    private void subsume(int clauseIndex, int[] clause) {
+        int bestLiteral = clause[0];
+        int bestCount = Integer.MAX_VALUE;
+        for (int literal : clause) {
+            final int count = occurrences.getOccurrenceCount(literal) + occurrences.getOccurrenceCount(-literal);
+            if (count < bestCount) {
+                bestCount = count;
+                bestLiteral = literal;
+            }
+        }
+        final long signature = signatures[clauseIndex];
+        for (int literal : new int[] {bestLiteral, -bestLiteral}) {
+            for (int candidateIndex : occurrences.copyOccurrences(literal)) {
+                final int[] candidate = clauses.get(candidateIndex);
+                if (candidateIndex == clauseIndex
+                        || candidate == null
+                        || clauses.get(clauseIndex) != clause
+                        || candidate.length < clause.length
+                        || (signature & ~signatures[candidateIndex]) != 0) {
+                    continue;
+                }
+                final int result = subsumes(clause, candidate);
+                if (result == SUBSUMES) {
+                    removeClause(candidateIndex);
+                } else if (result != NONE) {
+                    // self-subsuming resolution
+                    strengthenClause(candidateIndex, -result);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@return {@link #SUBSUMES} if the first clause is a subset of the second clause,
+     * a literal {@code l} if the first clause without {@code l} and with {@code -l} is a subset of the second clause,
+     * or {@link #NONE} otherwise}
+     */
+    private static int subsumes(int[] clause, int[] candidate) {
+        int flippedLiteral = SUBSUMES;
+        for (int literal : clause) {
+            if (Arrays.binarySearch(candidate, literal) < 0) {
+                if (flippedLiteral == SUBSUMES && Arrays.binarySearch(candidate, -literal) >= 0) {
+                    flippedLiteral = literal;
+                } else {
+                    return NONE;
+                }
+            }
+        }
+        return flippedLiteral;
+    }
+
+    private static long computeSignature(int[] clause) {
+        long signature = 0;
+        for (int literal : clause) {
+            signature |= 1L << (Math.abs(literal) & 63);
+        }
+        return signature;
+    }
+
+    private void eliminatePureLiterals() {
+        for (int variable = 1; variable <= variableCount && !isUnsatisfiable; variable++) {
+            if (values[variable] != 0 || eliminated[variable]) {
+                continue;
+            }
+            final int positiveCount = occurrences.getOccurrenceCount(variable);
+            final int negativeCount = occurrences.getOccurrenceCount(-variable);
+            if (positiveCount > 0 && negativeCount == 0) {
+                eliminatePureLiteral(variable);
+            } else if (negativeCount > 0 && positiveCount == 0) {
+                eliminatePureLiteral(-variable);
+            }
+        }
+    }
+
+    private void eliminatePureLiteral(int literal) {
+        eliminated[Math.abs(literal)] = true;
+        reconstructionStack.push(literal, literal);
+        for (int clauseIndex : occurrences.copyOccurrences(literal)) {
+            removeClause(clauseIndex);
+        }
+    }
+
+    private void eliminateVariables() {
+        final Integer[] candidates = new Integer[variableCount];
+        Arrays.setAll(candidates, i -> i + 1);
+        Arrays.sort(candidates, (a, b) -> Long.compare(getEliminationCost(a), getEliminationCost(b)));
+        for (int variable : candidates) {
+            if (isUnsatisfiable) {
+                return;
+            }
+            if (values[variable] == 0 && !eliminated[variable]) {
+                eliminateVariable(variable);
+                propagate();
+                subsume();
+            }
+        }
+    }
+
+    private long getEliminationCost(int variable) {
+        return (long) occurrences.getOccurrenceCount(variable) * occurrences.getOccurrenceCount(-variable);
+    }
+
+    private void eliminateVariable(int variable) {
+        final int[] positiveClauses = occurrences.copyOccurrences(variable);
+        final int[] negativeClauses = occurrences.copyOccurrences(-variable);
+        if (positiveClauses.length == 0 || negativeClauses.length == 0) {
+            return;
+        }
+        final int limit = positiveClauses.length + negativeClauses.length;
+        final List<int[]> resolvents = new ArrayList<>(limit);
+        for (int positiveClause : positiveClauses) {
+            final int[] clause = clauses.get(positiveClause);
+            final LiteralMarker marker = LiteralMarker.get(variableCount);
+            for (int literal : clause) {
+                marker.mark(literal);
+            }
+            for (int negativeClause : negativeClauses) {
+                final int[] resolvent = resolve(clause, clauses.get(negativeClause), variable, marker);
+                if (resolvent != null) {
+                    if (resolvents.size() == limit || resolvent.length > RESOLVENT_LENGTH_LIMIT) {
+                        return;
+                    }
+                    resolvents.add(resolvent);
+                }
+            }
+        }
+
+        eliminated[variable] = true;
+        final boolean storePositive = positiveClauses.length <= negativeClauses.length;
+        final int storedLiteral = storePositive ? variable : -variable;
+        for (int clauseIndex : storePositive ? positiveClauses : negativeClauses) {
+            reconstructionStack.push(storedLiteral, clauses.get(clauseIndex));
+        }
+        reconstructionStack.push(-storedLiteral, -storedLiteral);
+        for (int clauseIndex : positiveClauses) {
+            removeClause(clauseIndex);
+        }
+        for (int clauseIndex : negativeClauses) {
+            removeClause(clauseIndex);
+        }
+        for (int[] resolvent : resolvents) {
+            addClause(resolvent);
+        }
+    }
+
+    /**
+     * {@return the resolvent of the given clauses on the given variable, or null if it is tautological}
+     * Requires that exactly the literals of the positive clause are marked.
+     */
+    private static int[] resolve(int[] positiveClause, int[] negativeClause, int variable, LiteralMarker marker) {
+        final int[] resolvent = new int[positiveClause.length + negativeClause.length - 2];
+        int size = 0;
+        for (int literal : positiveClause) {
+            if (literal != variable) {
+                resolvent[size++] = literal;
+            }
+        }
+        for (int literal : negativeClause) {
+            if (literal != -variable) {
+                if (marker.isMarked(-literal)) {
+                    return null;
+                } else if (!marker.isMarked(literal)) {
+                    resolvent[size++] = literal;
+                }
+            }
+        }
+        final int[] sortedResolvent = Arrays.copyOf(resolvent, size);
+        Arrays.sort(sortedResolvent);
+        return sortedResolvent;
+    }
+
+    private static final class IntQueue {
+        private int[] elements = new int[16];
+        private int head;
+        private int tail;
+
+        void add(int element) {
+            if (tail == elements.length) {
+                if (head > 0) {
+                    System.arraycopy(elements, head, elements, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                if (tail == elements.length) {
+                    elements = Arrays.copyOf(elements, elements.length << 1);
+                }
+            }
+            elements[tail++] = element;
+        }
+
+        int poll() {
+            return elements[head++];
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+    }
+}
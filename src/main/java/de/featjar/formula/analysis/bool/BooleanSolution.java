@@ -93,13 +93,29 @@ public class BooleanSolution extends ABooleanAssignment implements ISolution<Int
     }
 
     public int countConflicts(int... integers) {
-        return (int) Arrays.stream(integers)
-                .filter(integer -> indexOf(-integer) >= 0)
-                .count();
+        int count = 0;
+        for (int integer : integers) {
+            if (indexOf(-integer) >= 0) {
+                count++;
+            }
+        }
+        return count;
     }
 
     public boolean conflictsWith(int... integers) {
-        return Arrays.stream(integers).anyMatch(integer -> indexOf(-integer) >= 0);
+        for (int integer : integers) {
+            if (indexOf(-integer) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return a {@link PackedBooleanSolution} with the same literals as this solution}
+     */
+    public PackedBooleanSolution toPacked() {
+        return PackedBooleanSolution.of(this);
     }
 
     public static int[] removeConflicts(int[] integers1, int[] integers2) {
@@ -26,6 +26,7 @@ import de.featjar.formula.analysis.VariableMap;
 import de.featjar.formula.analysis.value.ValueSolutionList;
 import de.featjar.formula.structure.formula.IFormula;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A list of Boolean solutions.
@@ -49,10 +50,25 @@ public class BooleanSolutionList extends ABooleanAssignmentList<BooleanSolution>
         super(assignments);
     }
 
+    BooleanSolutionList(List<BooleanSolution> assignments, boolean copy) {
+        super(assignments, copy);
+    }
+
     public BooleanSolutionList(BooleanSolutionList other) {
         super(other);
     }
 
+    /**
+     * {@return a new list containing a {@link PackedBooleanSolution} for each solution in this list}
+     */
+    public BooleanSolutionList toPacked() {
+        final BooleanSolutionList packedList = new BooleanSolutionList(assignments.size());
+        for (BooleanSolution solution : assignments) {
+            packedList.add(solution.toPacked());
+        }
+        return packedList;
+    }
+
     @Override
     public Result<ValueSolutionList> toValue(VariableMap variableMap) {
         return variableMap.toValue(this);
@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.value.ValueClauseList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * A compact list of Boolean clauses.
+ * Stores the literals of all clauses consecutively in a single array and the
+ * start of each clause in a second array (i.e., in compressed sparse row format).
+ * Compared to a {@link BooleanClauseList}, this avoids one object per clause and
+ * allows iterating over all literals with a single array scan.
+ * Clauses can be accessed without copying using {@link ClauseView views}.
+ *
+ * @author Sebastian Krieter
+ */
+public class CompactBooleanClauseList implements IBooleanRepresentation {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    protected int variableCount;
+
+    private int[] literals;
+    private int[] offsets;
+    private int clauseCount;
+
+    public CompactBooleanClauseList(int variableCount) {
+        this(DEFAULT_CAPACITY, DEFAULT_CAPACITY, variableCount);
+    }
+
+    public CompactBooleanClauseList(int clauseCapacity, int literalCapacity, int variableCount) {
+        this.variableCount = variableCount;
+        literals = new int[Math.max(literalCapacity, 1)];
+        offsets = new int[Math.max(clauseCapacity, 1) + 1];
+    }
+
+    public CompactBooleanClauseList(BooleanClauseList clauseList) {
+        this(clauseList.size(), countLiterals(clauseList.getAll()), clauseList.getVariableCount());
+        for (BooleanClause clause : clauseList.getAll()) {
+            add(clause.get());
+        }
+    }
+
+    public CompactBooleanClauseList(CompactBooleanClauseList other) {
+        variableCount = other.variableCount;
+        clauseCount = other.clauseCount;
+        literals = Arrays.copyOf(other.literals, other.getLiteralCount());
+        offsets = Arrays.copyOf(other.offsets, other.clauseCount + 1);
+    }
+
+    /**
+     * {@return a compact clause list containing the clauses of the given group in the given assignment space}
+     *
+     * @param assignmentSpace the assignment space
+     * @param groupIndex the index of the group
+     */
+    public static CompactBooleanClauseList of(BooleanAssignmentSpace assignmentSpace, int groupIndex) {
+        final List<? extends ABooleanAssignment> group = assignmentSpace.getGroups().get(groupIndex);
+        final CompactBooleanClauseList clauseList = new CompactBooleanClauseList(
+                group.size(),
+                countLiterals(group),
+                assignmentSpace.getVariableMap().getVariableCount());
+        for (ABooleanAssignment assignment : group) {
+            clauseList.add(assignment.toClause().get());
+        }
+        return clauseList;
+    }
+
+    private static int countLiterals(List<? extends ABooleanAssignment> assignments) {
+        int count = 0;
+        for (ABooleanAssignment assignment : assignments) {
+            count += assignment.size();
+        }
+        return count;
+    }
+
+    /**
+     * Appends a clause with the given literals.
+     *
+     * @param clause the literals of the clause
+     */
+    public void add(int... clause) {
+        final int start = offsets[clauseCount];
+        final int end = start + clause.length;
+        if (end > literals.length) {
+            literals = Arrays.copyOf(literals, Math.max(end, literals.length + (literals.length >> 1)));
+        }
+        if (clauseCount + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length + (offsets.length >> 1) + 1);
+        }
+        System.arraycopy(clause, 0, literals, start, clause.length);
+        offsets[++clauseCount] = end;
+    }
+
+    /**
+     * Appends the given clause.
+     *
+     * @param clause the clause
+     */
+    public void add(BooleanClause clause) {
+        add(clause.get());
+    }
+
+    /**
+     * Removes all clauses.
+     */
+    public void clear() {
+        clauseCount = 0;
+    }
+
+    /**
+     * Shrinks the underlying arrays to the current number of clauses and literals.
+     */
+    public void trimToSize() {
+        literals = Arrays.copyOf(literals, Math.max(getLiteralCount(), 1));
+        offsets = Arrays.copyOf(offsets, clauseCount + 1);
+    }
+
+    public int size() {
+        return clauseCount;
+    }
+
+    public boolean isEmpty() {
+        return clauseCount == 0;
+    }
+
+    public void setVariableCount(int variableCount) {
+        this.variableCount = variableCount;
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * {@return the total number of literals in all clauses}
+     */
+    public int getLiteralCount() {
+        return offsets[clauseCount];
+    }
+
+    /**
+     * {@return the array holding the literals of all clauses}
+     * Only the first {@link #getLiteralCount()} entries are valid and the array must not be modified.
+     */
+    public int[] getLiterals() {
+        return literals;
+    }
+
+    /**
+     * {@return the array holding the start of each clause in {@link #getLiterals()}}
+     * Clause {@code i} ranges from {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive).
+     * Only the first {@link #size()} + 1 entries are valid and the array must not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int getClauseStart(int clauseIndex) {
+        checkIndex(clauseIndex);
+        return offsets[clauseIndex];
+    }
+
+    public int getClauseEnd(int clauseIndex) {
+        checkIndex(clauseIndex);
+        return offsets[clauseIndex + 1];
+    }
+
+    public int getClauseLength(int clauseIndex) {
+        checkIndex(clauseIndex);
+        return offsets[clauseIndex + 1] - offsets[clauseIndex];
+    }
+
+    /**
+     * {@return the literal at the given position in the given clause}
+     *
+     * @param clauseIndex the index of the clause
+     * @param literalIndex the index of the literal within the clause
+     */
+    public int getLiteral(int clauseIndex, int literalIndex) {
+        checkIndex(clauseIndex);
+        final int index = offsets[clauseIndex] + literalIndex;
+        if (literalIndex < 0 || index >= offsets[clauseIndex + 1]) {
+            throw new IndexOutOfBoundsException(literalIndex);
+        }
+        return literals[index];
+    }
+
+    /**
+     * {@return a copy of the literals of the given clause}
+     *
+     * @param clauseIndex the index of the clause
+     */
+    public int[] copyClause(int clauseIndex) {
+        checkIndex(clauseIndex);
+        return Arrays.copyOfRange(literals, offsets[clauseIndex], offsets[clauseIndex + 1]);
+    }
+
+    public Result<BooleanClause> get(int clauseIndex) {
+        if (clauseIndex < 0 || clauseIndex >= clauseCount) return Result.empty();
+        return Result.of(new BooleanClause(copyClause(clauseIndex)));
+    }
+
+    /**
+     * {@return a view on the given clause}
+     *
+     * @param clauseIndex the index of the clause
+     */
+    public ClauseView view(int clauseIndex) {
+        checkIndex(clauseIndex);
+        return new ClauseView(clauseIndex);
+    }
+
+    /**
+     * {@return a view that is positioned before the first clause and can be moved with {@link ClauseView#next()}}
+     */
+    public ClauseView cursor() {
+        return new ClauseView(-1);
+    }
+
+    /**
+     * Passes each literal of each clause to the given consumer, in order.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachLiteral(IntConsumer consumer) {
+        final int literalCount = getLiteralCount();
+        for (int i = 0; i < literalCount; i++) {
+            consumer.accept(literals[i]);
+        }
+    }
+
+    private void checkIndex(int clauseIndex) {
+        if (clauseIndex < 0 || clauseIndex >= clauseCount) {
+            throw new IndexOutOfBoundsException(clauseIndex);
+        }
+    }
+
+    public BooleanClauseList toClauseList() {
+        final BooleanClauseList clauseList = new BooleanClauseList(clauseCount, variableCount);
+        for (int i = 0; i < clauseCount; i++) {
+            clauseList.add(new BooleanClause(copyClause(i)));
+        }
+        return clauseList;
+    }
+
+    public BooleanAssignmentSpace toAssignmentSpace(VariableMap variableMap) {
+        return new BooleanAssignmentSpace(variableMap, List.of(toClauseList().getAll()));
+    }
+
+    @Override
+    public Result<ValueClauseList> toValue(VariableMap variableMap) {
+        return variableMap.toValue(toClauseList());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactBooleanClauseList that = (CompactBooleanClauseList) o;
+        return variableCount == that.variableCount
+                && Arrays.equals(offsets, 0, clauseCount + 1, that.offsets, 0, that.clauseCount + 1)
+                && Arrays.equals(literals, 0, getLiteralCount(), that.literals, 0, that.getLiteralCount());
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = variableCount;
+        for (int i = 0; i <= clauseCount; i++) {
+            hash = 31 * hash + offsets[i];
+        }
+        final int literalCount = getLiteralCount();
+        for (int i = 0; i < literalCount; i++) {
+            hash = 31 * hash + literals[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final List<String> clauses = new ArrayList<>(Math.min(clauseCount, 100));
+        for (int i = 0; i < clauseCount && i < 100; i++) {
+            clauses.add(Arrays.toString(copyClause(i)));
+        }
+        return String.format(
+                "CompactBooleanClauseList[%s%s]", String.join(", ", clauses), clauseCount > 100 ? ", ..." : "");
+    }
+
+    /**
+     * A view on a single clause that does not copy its literals.
+     * A view can be moved to another clause, so a single instance suffices to iterate over all clauses.
+     * Views are only valid until the list is modified.
+     */
+    public final class ClauseView {
+        private int clauseIndex;
+        private int start;
+        private int end;
+
+        private ClauseView(int clauseIndex) {
+            moveTo(clauseIndex);
+        }
+
+        /**
+         * Moves this view to the given clause.
+         *
+         * @param clauseIndex the index of the clause, or -1 to move before the first clause
+         * @return this view
+         */
+        public ClauseView moveTo(int clauseIndex) {
+            if (clauseIndex < 0) {
+                this.clauseIndex = -1;
+                start = 0;
+                end = 0;
+            } else {
+                checkIndex(clauseIndex);
+                this.clauseIndex = clauseIndex;
+                start = offsets[clauseIndex];
+                end = offsets[clauseIndex + 1];
+            }
+            return this;
+        }
+
+        /**
+         * Moves this view to the next clause.
+         *
+         * @return whether there is a next clause
+         */
+        public boolean next() {
+            if (clauseIndex + 1 >= clauseCount) {
+                return false;
+            }
+            clauseIndex++;
+            start = offsets[clauseIndex];
+            end = offsets[clauseIndex + 1];
+            return true;
+        }
+
+        public int getIndex() {
+            return clauseIndex;
+        }
+
+        /**
+         * {@return the position of this clause's first literal in {@link CompactBooleanClauseList#getLiterals()}}
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * {@return the position after this clause's last literal in {@link CompactBooleanClauseList#getLiterals()}}
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        public int size() {
+            return end - start;
+        }
+
+        public int get(int literalIndex) {
+            if (literalIndex < 0 || start + literalIndex >= end) {
+                throw new IndexOutOfBoundsException(literalIndex);
+            }
+            return literals[start + literalIndex];
+        }
+
+        public boolean contains(int literal) {
+            for (int i = start; i < end; i++) {
+                if (literals[i] == literal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOfRange(literals, start, end);
+        }
+
+        public BooleanClause toClause() {
+            return new BooleanClause(toArray());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ClauseView[%d: %s]", clauseIndex, Arrays.toString(toArray()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.computation.AComputation;
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.base.tree.structure.ITree;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.transformer.ComputeCNFFormula;
+import java.util.List;
+
+/**
+ * Transforms a formula into a {@link BooleanClauseList} in conjunctive normal form.
+ * In contrast to chaining {@link de.featjar.formula.transformer.ComputeNNFFormula}, {@link ComputeCNFFormula},
+ * and {@link ComputeBooleanClauseList}, the formula is traversed only once and clauses are emitted as integers,
+ * so neither the negation normal form nor the conjunctive normal form is created as a formula.
+ * Clauses are created by a {@link BooleanClauseEncoder}, which appends auxiliary variables to the variable map.
+ *
+ * @author Sebastian Krieter
+ */
+public class ComputeCNFBooleanClauseList extends AComputation<Pair<BooleanClauseList, VariableMap>> {
+    public static final Dependency<IFormula> FORMULA = Dependency.newDependency(IFormula.class);
+    /**
+     * Determines whether this computation uses the Plaisted-Greenbaum optimization.
+     */
+    public static final Dependency<Boolean> IS_PLAISTED_GREENBAUM = Dependency.newDependency(Boolean.class);
+    /**
+     * Determines the maximum number of literals available for distributive transformation of each top-level clause.
+     */
+    public static final Dependency<Integer> MAXIMUM_NUMBER_OF_LITERALS = Dependency.newDependency(Integer.class);
+
+    /**
+     * Creates a new clause list computation.
+     *
+     * @param formula the input formula computation
+     */
+    public ComputeCNFBooleanClauseList(IComputation<IFormula> formula) {
+        super(
+                formula, //
+                Computations.of(Boolean.FALSE), //
+                Computations.of(Integer.MAX_VALUE));
+    }
+
+    protected ComputeCNFBooleanClauseList(ComputeCNFBooleanClauseList other) {
+        super(other);
+    }
+
+    /**
+     * Sets whether this computation introduces auxiliary variables.
+     *
+     * @param tseitin whether this computation introduces auxiliary variables
+     */
+    public void setTseitin(IComputation<Boolean> tseitin) {
+        setDependencyComputation(
+                MAXIMUM_NUMBER_OF_LITERALS,
+                tseitin.mapResult(ComputeCNFBooleanClauseList.class, "setTseitin", b -> b ? 0 : Integer.MAX_VALUE));
+    }
+
+    @Override
+    public Result<Pair<BooleanClauseList, VariableMap>> compute(List<Object> dependencyList, Progress progress) {
+        return toBooleanClauseList(
+                FORMULA.get(dependencyList),
+                IS_PLAISTED_GREENBAUM.get(dependencyList),
+                MAXIMUM_NUMBER_OF_LITERALS.get(dependencyList));
+    }
+
+    @Override
+    public ITree<IComputation<?>> cloneNode() {
+        return new ComputeCNFBooleanClauseList(this);
+    }
+
+    /**
+     * {@return a clause list in conjunctive normal form for the given formula and its variable map}
+     * The variable map contains the formula's variables, followed by all auxiliary variables.
+     *
+     * @param formula the formula
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param maximumNumberOfLiterals the maximum number of literals available for distributive transformation
+     *                                of each top-level clause
+     */
+    public static Result<Pair<BooleanClauseList, VariableMap>> toBooleanClauseList(
+            IFormula formula, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        final VariableMap variableMap = VariableMap.of(formula);
+        return new BooleanClauseEncoder(variableMap, isPlaistedGreenbaum, maximumNumberOfLiterals)
+                .encode(formula)
+                .map(clauses -> new Pair<>(
+                        new BooleanClauseList(clauses, variableMap.getVariableCount()), variableMap));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.computation.AComputation;
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import java.util.List;
+
+/**
+ * Simplifies a {@link BooleanClauseList} with a {@link BooleanClauseListPreprocessor}.
+ * Computes the simplified clause list, which uses the same variable indices as the original one,
+ * together with a {@link ModelReconstructionStack} that extends its solutions to solutions of the original clause list.
+ *
+ * @author Sebastian Krieter
+ */
+public class ComputePreprocessedClauseList extends AComputation<Pair<BooleanClauseList, ModelReconstructionStack>> {
+    public static final Dependency<BooleanClauseList> BOOLEAN_CLAUSE_LIST =
+            Dependency.newDependency(BooleanClauseList.class);
+
+    /**
+     * Determines whether this computation applies bounded variable elimination.
+     * Turning it off does not preserve all variables, as unit propagation and pure literal elimination
+     * still remove variables from the simplified clause list (e.g., x is core in (x | y) & (x | -y), but is removed).
+     * Thus, analyses that inspect single variables (e.g., core and dead variables) must consider the
+     * reconstruction stack in either case.
+     */
+    public static final Dependency<Boolean> IS_ELIMINATING_VARIABLES = Dependency.newDependency(Boolean.class);
+
+    public ComputePreprocessedClauseList(IComputation<BooleanClauseList> clauseList) {
+        super(clauseList, Computations.of(Boolean.TRUE));
+    }
+
+    protected ComputePreprocessedClauseList(ComputePreprocessedClauseList other) {
+        super(other);
+    }
+
+    @Override
+    public Result<Pair<BooleanClauseList, ModelReconstructionStack>> compute(
+            List<Object> dependencyList, Progress progress) {
+        final BooleanClauseListPreprocessor preprocessor = new BooleanClauseListPreprocessor(
+                        BOOLEAN_CLAUSE_LIST.get(dependencyList), IS_ELIMINATING_VARIABLES.get(dependencyList))
+                .preprocess();
+        return Result.of(new Pair<>(preprocessor.getClauseList(), preprocessor.getReconstructionStack()));
+    }
+}
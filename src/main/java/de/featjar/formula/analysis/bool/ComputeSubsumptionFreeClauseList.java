@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.computation.AComputation;
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Result;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Removes duplicate and subsumed clauses from a {@link BooleanClauseList}.
+ * A clause is subsumed if another clause contains a subset of its literals.
+ * Uses backward subsumption: for each clause, only the clauses containing its least occurring literal are
+ * candidates, and most candidates are rejected by comparing 64-bit literal signatures before their literals.
+ * The remaining clauses keep their original order, so the result does not depend on parallel execution.
+ *
+ * @author Sebastian Krieter
+ */
+public class ComputeSubsumptionFreeClauseList extends AComputation<BooleanClauseList> {
+    public static final Dependency<BooleanClauseList> BOOLEAN_CLAUSE_LIST =
+            Dependency.newDependency(BooleanClauseList.class);
+
+    /**
+     * Determines whether candidate clauses are checked in parallel.
+     */
+    public static final Dependency<Boolean> IS_PARALLEL = Dependency.newDependency(Boolean.class);
+
+    public ComputeSubsumptionFreeClauseList(IComputation<BooleanClauseList> clauseList) {
+        super(clauseList, Computations.of(Boolean.FALSE));
+    }
+
+    protected ComputeSubsumptionFreeClauseList(ComputeSubsumptionFreeClauseList other) {
+        super(other);
+    }
+
+    @Override
+    public Result<BooleanClauseList> compute(List<Object> dependencyList, Progress progress) {
+        return Result.of(
+                removeSubsumedClauses(BOOLEAN_CLAUSE_LIST.get(dependencyList), IS_PARALLEL.get(dependencyList)));
+    }
+
+    /**
+     * {@return a new clause list without duplicate and subsumed clauses}
+     *
+     * @param clauseList the clause list
+     * @param isParallel whether candidate clauses are checked in parallel
+     */
+    public static BooleanClauseList removeSubsumedClauses(BooleanClauseList clauseList, boolean isParallel) {
+        final List<BooleanClause> clauses = clauseList.getAll();
+        final int clauseCount = clauses.size();
+        final boolean[] removed = new boolean[clauseCount];
+
+        final Integer[] order = new Integer[clauseCount];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> clauses.get(i).size())
+                .thenComparing((i, j) -> Arrays.compare(clauses.get(i).get(), clauses.get(j).get())));
+        for (int i = 1; i < clauseCount; i++) {
+            if (Arrays.equals(clauses.get(order[i - 1]).get(), clauses.get(order[i]).get())) {
+                removed[order[i]] = true;
+            }
+        }
+
+        if (clauseCount > 0 && clauses.get(order[0]).isEmpty()) {
+            // The empty clause subsumes all other clauses.
+            Arrays.fill(removed, true);
+            removed[order[0]] = false;
+        } else {
+            final long[] signatures = new long[clauseCount];
+            for (int i = 0; i < clauseCount; i++) {
+                signatures[i] = computeSignature(clauses.get(i).get());
+            }
+            final LiteralOccurrenceIndex occurrences = new LiteralOccurrenceIndex(clauseList);
+            // In parallel, removed is read and written without synchronization, which is benign:
+            // entries only ever change from false to true, and a clause is only marked if it has a proper subset.
+            // A stale false merely causes redundant checks, and every clause with a proper subset is still marked
+            // by a minimal subset, which is never marked itself. Thus, the result does not depend on the order.
+            // Completing the stream's terminal operation makes all writes visible to this thread.
+            IntStream indices = IntStream.range(0, clauseCount);
+            if (isParallel) {
+                indices = indices.parallel();
+            }
+            indices.forEach(i -> {
+                if (!removed[i]) {
+                    removeSupersets(i, clauses, signatures, occurrences, removed);
+                }
+            });
+        }
+
+        final BooleanClauseList reducedClauseList = new BooleanClauseList(clauseCount, clauseList.getVariableCount());
+        for (int i = 0; i < clauseCount; i++) {
+            if (!removed[i]) {
+                reducedClauseList.add(clauses.get(i));
+            }
+        }
+        return reducedClauseList;
+    }
+
+    private static void removeSupersets(
+            int clauseIndex,
+            List<BooleanClause> clauses,
+            long[] signatures,
+            LiteralOccurrenceIndex occurrences,
+            boolean[] removed) {
+        final int[] literals = clauses.get(clauseIndex).get();
+        final long signature = signatures[clauseIndex];
+        final int literal = occurrences.getLeastOccurringLiteral(literals);
+        final int[] candidates = occurrences.getOccurrences(literal);
+        final int candidateCount = occurrences.getOccurrenceCount(literal);
+        for (int k = 0; k < candidateCount; k++) {
+            final int candidate = candidates[k];
+            if (candidate != clauseIndex
+                    && !removed[candidate]
+                    && (signature & ~signatures[candidate]) == 0
+                    && isSubset(literals, clauses.get(candidate).get())) {
+                // Duplicates were already removed, so this is a proper subset.
+                removed[candidate] = true;
+            }
+        }
+    }
+
+    /**
+     * {@return a 64-bit signature of the given literals}
+     * If the literals of one clause are a subset of another clause's literals,
+     * the bits set in its signature are also a subset of the other clause's signature.
+     *
+     * @param literals the literals
+     */
+    public static long computeSignature(int... literals) {
+        long signature = 0;
+        for (int literal : literals) {
+            signature |= 1L << ((literal < 0 ? (-literal << 1) + 1 : literal << 1) & 63);
+        }
+        return signature;
+    }
+
+    private static boolean isSubset(int[] sortedSubset, int[] sortedSuperset) {
+        if (sortedSubset.length > sortedSuperset.length) {
+            return false;
+        }
+        int j = 0;
+        for (int literal : sortedSubset) {
+            while (j < sortedSuperset.length && sortedSuperset[j] < literal) {
+                j++;
+            }
+            if (j == sortedSuperset.length || sortedSuperset[j] != literal) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+}
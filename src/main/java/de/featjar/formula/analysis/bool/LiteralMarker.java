@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.Arrays;
+
+/**
+ * A reusable workspace for marking literals and variables.
+ * Each thread owns one marker, which is obtained with {@link #get(int)}.
+ * Every call to {@link #get(int)} starts a new round, in which all previous marks are considered removed.
+ * This is implemented by stamping marks with a round counter, so clearing is free and no garbage is produced.
+ * A marker must only be used by one operation at a time, so operations using it must not call each other.
+ *
+ * @author Sebastian Krieter
+ */
+public final class LiteralMarker {
+
+    /**
+     * The largest tag that can be attached to a mark.
+     */
+    public static final int MAX_TAG = 3;
+
+    private static final int ROUND_STEP = MAX_TAG + 1;
+
+    private static final ThreadLocal<LiteralMarker> MARKERS = ThreadLocal.withInitial(LiteralMarker::new);
+
+    private int[] marks = new int[0];
+    private int[] buffer = new int[0];
+    private int round;
+
+    private LiteralMarker() {}
+
+    /**
+     * {@return the marker of the current thread, with all marks removed}
+     *
+     * @param maxVariable the largest variable index that will be marked
+     */
+    public static LiteralMarker get(int maxVariable) {
+        final LiteralMarker marker = MARKERS.get();
+        marker.reset(maxVariable);
+        return marker;
+    }
+
+    /**
+     * {@return the largest variable index occurring in the given literals}
+     *
+     * @param literals the literals
+     */
+    public static int maxVariable(int... literals) {
+        int max = 0;
+        for (int literal : literals) {
+            final int variable = Math.abs(literal);
+            if (variable > max) {
+                max = variable;
+            }
+        }
+        return max;
+    }
+
+    private void reset(int maxVariable) {
+        final int size = (maxVariable + 1) << 1;
+        if (marks.length < size) {
+            marks = new int[Math.max(size, marks.length << 1)];
+            round = 0;
+        } else if (round > Integer.MAX_VALUE - (ROUND_STEP << 1)) {
+            Arrays.fill(marks, 0);
+            round = 0;
+        }
+        round += ROUND_STEP;
+    }
+
+    private static int index(int literal) {
+        return literal < 0 ? (-literal << 1) + 1 : literal << 1;
+    }
+
+    /**
+     * {@return the largest variable index that can be marked in the current round}
+     */
+    public int getMaxVariable() {
+        return (marks.length >> 1) - 1;
+    }
+
+    /**
+     * Marks the given literal with the tag 1.
+     *
+     * @param literal the literal
+     */
+    public void mark(int literal) {
+        marks[index(literal)] = round + 1;
+    }
+
+    /**
+     * Marks the given literal with the given tag, replacing any previous tag.
+     *
+     * @param literal the literal
+     * @param tag the tag, between 1 and {@link #MAX_TAG}
+     */
+    public void mark(int literal, int tag) {
+        assert tag > 0 && tag <= MAX_TAG;
+        marks[index(literal)] = round + tag;
+    }
+
+    /**
+     * Removes the mark of the given literal.
+     *
+     * @param literal the literal
+     */
+    public void unmark(int literal) {
+        marks[index(literal)] = 0;
+    }
+
+    /**
+     * {@return the tag of the given literal, or 0 if it is not marked in this round}
+     *
+     * @param literal the literal
+     */
+    public int getMark(int literal) {
+        final int mark = marks[index(literal)] - round;
+        return mark > 0 ? mark : 0;
+    }
+
+    /**
+     * {@return whether the given literal is marked in this round}
+     *
+     * @param literal the literal
+     */
+    public boolean isMarked(int literal) {
+        return marks[index(literal)] > round;
+    }
+
+    /**
+     * Marks the given variable, independent of its sign.
+     *
+     * @param variable the variable
+     */
+    public void markVariable(int variable) {
+        mark(Math.abs(variable));
+    }
+
+    /**
+     * {@return whether the given variable is marked in this round, independent of its sign}
+     *
+     * @param variable the variable
+     */
+    public boolean isVariableMarked(int variable) {
+        return isMarked(Math.abs(variable));
+    }
+
+    /**
+     * {@return a scratch array with at least the given length}
+     * Its contents are unspecified and it is reused by subsequent operations on this thread.
+     *
+     * @param length the minimum length
+     */
+    public int[] getBuffer(int length) {
+        if (buffer.length < length) {
+            buffer = new int[Math.max(length, buffer.length << 1)];
+        }
+        return buffer;
+    }
+}
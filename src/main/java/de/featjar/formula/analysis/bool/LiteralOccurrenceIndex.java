@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * An index from each literal to the clauses it occurs in.
+ * Clauses are identified by their index in a clause list, which is
+ * usually the list the index was built from.
+ * Occurrences are stored in primitive arrays, so they can be queried without allocation.
+ * The index can be updated incrementally when clauses are added or removed;
+ * however, it does not renumber clauses, so removing a clause should be
+ * accompanied by replacing it in the clause list (e.g., with an empty clause)
+ * instead of shifting subsequent clauses.
+ *
+ * @author Sebastian Krieter
+ */
+public class LiteralOccurrenceIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private int[][] occurrences;
+    private int[] counts;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param variableCount the number of variables, can be exceeded later
+     */
+    public LiteralOccurrenceIndex(int variableCount) {
+        occurrences = new int[(variableCount + 1) << 1][];
+        Arrays.fill(occurrences, EMPTY);
+        counts = new int[occurrences.length];
+    }
+
+    /**
+     * Creates an index for all clauses in the given list.
+     *
+     * @param clauseList the clause list
+     */
+    public LiteralOccurrenceIndex(BooleanClauseList clauseList) {
+        this(clauseList.getAll(), clauseList.getVariableCount());
+    }
+
+    /**
+     * Creates an index for all clauses in the given list.
+     *
+     * @param clauseList the clause list
+     */
+    public LiteralOccurrenceIndex(CompactBooleanClauseList clauseList) {
+        this(maxVariable(clauseList.getLiterals(), clauseList.getLiteralCount(), clauseList.getVariableCount()));
+        final int[] literals = clauseList.getLiterals();
+        final int[] offsets = clauseList.getOffsets();
+        final int clauseCount = clauseList.size();
+        for (int i = 0; i < offsets[clauseCount]; i++) {
+            counts[index(literals[i])]++;
+        }
+        allocate();
+        for (int clauseIndex = 0; clauseIndex < clauseCount; clauseIndex++) {
+            for (int i = offsets[clauseIndex]; i < offsets[clauseIndex + 1]; i++) {
+                append(index(literals[i]), clauseIndex);
+            }
+        }
+    }
+
+    /**
+     * Creates an index for all assignments in the given list, interpreting them as clauses.
+     *
+     * @param clauses the clauses
+     * @param variableCount the number of variables, can be exceeded by the clauses
+     */
+    public LiteralOccurrenceIndex(List<? extends ABooleanAssignment> clauses, int variableCount) {
+        this(maxVariable(clauses, variableCount));
+        for (ABooleanAssignment clause : clauses) {
+            for (int literal : clause.get()) {
+                counts[index(literal)]++;
+            }
+        }
+        allocate();
+        int clauseIndex = 0;
+        for (ABooleanAssignment clause : clauses) {
+            for (int literal : clause.get()) {
+                append(index(literal), clauseIndex);
+            }
+            clauseIndex++;
+        }
+    }
+
+    /**
+     * {@return an index for the clauses in the given group of the given assignment space}
+     *
+     * @param assignmentSpace the assignment space
+     * @param groupIndex the index of the group
+     */
+    public static LiteralOccurrenceIndex of(BooleanAssignmentSpace assignmentSpace, int groupIndex) {
+        return new LiteralOccurrenceIndex(
+                assignmentSpace.getGroups().get(groupIndex),
+                assignmentSpace.getVariableMap().getVariableCount());
+    }
+
+    private static int maxVariable(List<? extends ABooleanAssignment> clauses, int variableCount) {
+        int max = variableCount;
+        for (ABooleanAssignment clause : clauses) {
+            max = Math.max(max, LiteralMarker.maxVariable(clause.get()));
+        }
+        return max;
+    }
+
+    private static int maxVariable(int[] literals, int length, int variableCount) {
+        int max = variableCount;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, Math.abs(literals[i]));
+        }
+        return max;
+    }
+
+    private static int index(int literal) {
+        return literal < 0 ? (-literal << 1) + 1 : literal << 1;
+    }
+
+    private void allocate() {
+        for (int i = 0; i < counts.length; i++) {
+            occurrences[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+            counts[i] = 0;
+        }
+    }
+
+    private void append(int literalIndex, int clauseIndex) {
+        int[] list = occurrences[literalIndex];
+        final int count = counts[literalIndex];
+        if (count == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, count + (count >> 1)));
+            occurrences[literalIndex] = list;
+        }
+        list[count] = clauseIndex;
+        counts[literalIndex] = count + 1;
+    }
+
+    private void ensureVariable(int variable) {
+        final int size = (variable + 1) << 1;
+        if (size > occurrences.length) {
+            final int oldSize = occurrences.length;
+            final int newSize = Math.max(size, oldSize + (oldSize >> 1));
+            occurrences = Arrays.copyOf(occurrences, newSize);
+            Arrays.fill(occurrences, oldSize, newSize, EMPTY);
+            counts = Arrays.copyOf(counts, newSize);
+        }
+    }
+
+    /**
+     * {@return the largest variable that can currently be queried without growing the index}
+     */
+    public int getMaxVariable() {
+        return (occurrences.length >> 1) - 1;
+    }
+
+    /**
+     * Adds all literals of the given clause.
+     *
+     * @param clauseIndex the index of the clause
+     * @param literals the literals of the clause
+     */
+    public void add(int clauseIndex, int... literals) {
+        for (int literal : literals) {
+            ensureVariable(Math.abs(literal));
+            append(index(literal), clauseIndex);
+        }
+    }
+
+    /**
+     * Removes all literals of the given clause.
+     * Does not preserve the order of the remaining occurrences.
+     *
+     * @param clauseIndex the index of the clause
+     * @param literals the literals of the clause
+     */
+    public void remove(int clauseIndex, int... literals) {
+        for (int literal : literals) {
+            remove(clauseIndex, literal);
+        }
+    }
+
+    /**
+     * Removes a single occurrence of the given literal in the given clause.
+     * Does not preserve the order of the remaining occurrences.
+     *
+     * @param clauseIndex the index of the clause
+     * @param literal the literal
+     * @return whether the occurrence was found
+     */
+    public boolean remove(int clauseIndex, int literal) {
+        final int literalIndex = index(literal);
+        if (literalIndex >= occurrences.length) {
+            return false;
+        }
+        final int[] list = occurrences[literalIndex];
+        final int count = counts[literalIndex];
+        for (int i = 0; i < count; i++) {
+            if (list[i] == clauseIndex) {
+                list[i] = list[count - 1];
+                counts[literalIndex] = count - 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the number of clauses the given literal occurs in}
+     *
+     * @param literal the literal
+     */
+    public int getOccurrenceCount(int literal) {
+        final int literalIndex = index(literal);
+        return literalIndex < counts.length ? counts[literalIndex] : 0;
+    }
+
+    /**
+     * {@return the indices of the clauses the given literal occurs in}
+     * Only the first {@link #getOccurrenceCount(int)} entries are valid and
+     * the array must not be modified. It is only valid until the index is modified.
+     *
+     * @param literal the literal
+     */
+    public int[] getOccurrences(int literal) {
+        final int literalIndex = index(literal);
+        return literalIndex < occurrences.length ? occurrences[literalIndex] : EMPTY;
+    }
+
+    /**
+     * {@return a copy of the indices of the clauses the given literal occurs in}
+     *
+     * @param literal the literal
+     */
+    public int[] copyOccurrences(int literal) {
+        return Arrays.copyOf(getOccurrences(literal), getOccurrenceCount(literal));
+    }
+
+    /**
+     * Passes the index of each clause the given literal occurs in to the given consumer.
+     * The index must not be modified by the consumer.
+     *
+     * @param literal the literal
+     * @param consumer the consumer
+     */
+    public void forEachOccurrence(int literal, IntConsumer consumer) {
+        final int[] list = getOccurrences(literal);
+        final int count = getOccurrenceCount(literal);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(list[i]);
+        }
+    }
+
+    /**
+     * {@return the literal with the fewest occurrences among the given literals, or 0 if there are none}
+     *
+     * @param literals the literals
+     */
+    public int getLeastOccurringLiteral(int... literals) {
+        int minLiteral = 0;
+        int minCount = Integer.MAX_VALUE;
+        for (int literal : literals) {
+            final int count = getOccurrenceCount(literal);
+            if (count < minCount) {
+                minCount = count;
+                minLiteral = literal;
+            }
+        }
+        return minLiteral;
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.IAssignmentList;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.value.ValueSolutionList;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list of Boolean solutions that is stored in a memory-mapped file instead of the heap.
+ * Each solution is stored as a fixed-width row of two bitsets (assigned and selected variables),
+ * as in {@link PackedBooleanSolution}, so that solution {@code i} can be accessed directly.
+ * Solutions are only materialized when they are accessed.
+ * This list supports reading and appending solutions, but not removing them.
+ * Solutions can be read concurrently, but appending must not happen concurrently with any other access.
+ * The file is mapped in chunks of at most 1 GiB, which grow geometrically as solutions are appended,
+ * so it is at most twice as large as needed and never truncated, as a mapped file cannot be truncated
+ * on every platform.
+ *
+ * @author Sebastian Krieter
+ */
+public class MappedBooleanSolutionList
+        implements IAssignmentList<BooleanSolution>, IBooleanRepresentation, AutoCloseable {
+
+    private static final int MAGIC_NUMBER = 0x464A534C;
+    private static final int HEADER_SIZE = 16;
+    private static final int SIZE_POSITION = 8;
+    private static final long MAXIMUM_CHUNK_SIZE = 1L << 30;
+    private static final int MINIMUM_CHUNK_ROWS = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private final int variableCount;
+    private final int wordCount;
+    private final int rowSize;
+    private final int rowsPerChunk;
+    private int size;
+
+    private MappedBooleanSolutionList(FileChannel channel, int variableCount, int size) throws IOException {
+        this.channel = channel;
+        this.variableCount = variableCount;
+        this.size = size;
+        wordCount = PackedBooleanSolution.wordCount(variableCount);
+        final long longRowSize = 2L * Long.BYTES * wordCount;
+        if (longRowSize > MAXIMUM_CHUNK_SIZE) {
+            throw new IllegalArgumentException(String.format("Too many variables (%d)", variableCount));
+        }
+        rowSize = (int) longRowSize;
+        rowsPerChunk = rowSize == 0 ? Integer.MAX_VALUE : (int) (MAXIMUM_CHUNK_SIZE / rowSize);
+        header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Creates a new, empty solution list in the given file, replacing any existing content.
+     *
+     * @param file the file
+     * @param variableCount the number of variables of each solution
+     * @return the new solution list
+     * @throws IOException if the file cannot be created
+     */
+    public static MappedBooleanSolutionList create(Path file, int variableCount) throws IOException {
+        final FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final MappedBooleanSolutionList list = new MappedBooleanSolutionList(channel, variableCount, 0);
+            list.header.putInt(0, MAGIC_NUMBER);
+            list.header.putInt(4, variableCount);
+            list.header.putLong(SIZE_POSITION, 0);
+            return list;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing solution list from the given file.
+     *
+     * @param file the file
+     * @return the solution list
+     * @throws IOException if the file cannot be read or was not created by {@link #create(Path, int)}
+     */
+    public static MappedBooleanSolutionList open(Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Missing header in " + file);
+            }
+            final MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC_NUMBER) {
+                throw new IOException("Unknown file format of " + file);
+            }
+            final int variableCount = header.getInt(4);
+            final long size = header.getLong(SIZE_POSITION);
+            if (variableCount < 0 || size < 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid header in " + file);
+            }
+            final MappedBooleanSolutionList list = new MappedBooleanSolutionList(channel, variableCount, (int) size);
+            if (channel.size() < HEADER_SIZE + size * list.rowSize) {
+                throw new IOException("Missing solutions in " + file);
+            }
+            return list;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private MappedByteBuffer getChunk(int index) {
+        final int chunkIndex = index / rowsPerChunk;
+        final MappedByteBuffer[] currentChunks = chunks;
+        if (chunkIndex < currentChunks.length) {
+            final MappedByteBuffer chunk = currentChunks[chunkIndex];
+            if (chunk != null && (long) (index % rowsPerChunk + 1) * rowSize <= chunk.capacity()) {
+                return chunk;
+            }
+        }
+        return mapChunk(chunkIndex, index % rowsPerChunk);
+    }
+
+    private synchronized MappedByteBuffer mapChunk(int chunkIndex, int row) {
+        final MappedByteBuffer[] currentChunks = Arrays.copyOf(chunks, Math.max(chunks.length, chunkIndex + 1));
+        final MappedByteBuffer chunk = currentChunks[chunkIndex];
+        final long oldRows = chunk == null ? 0 : chunk.capacity() / Math.max(rowSize, 1);
+        if (chunk != null && (long) (row + 1) * rowSize <= chunk.capacity()) {
+            return chunk;
+        }
+        final long rows = Math.min(rowsPerChunk, Math.max(Math.max(row + 1L, 2 * oldRows), MINIMUM_CHUNK_ROWS));
+        final long position = HEADER_SIZE + (long) chunkIndex * rowsPerChunk * rowSize;
+        try {
+            final MappedByteBuffer newChunk = channel.map(MapMode.READ_WRITE, position, rows * rowSize);
+            newChunk.order(ByteOrder.LITTLE_ENDIAN);
+            currentChunks[chunkIndex] = newChunk;
+            chunks = currentChunks;
+            return newChunk;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * Copies the bitsets of the given solution into the given arrays without further allocation.
+     * Both arrays must have at least {@link PackedBooleanSolution#wordCount(int)} elements.
+     *
+     * @param index the index of the solution
+     * @param assigned the array for the bitset of assigned variables
+     * @param selected the array for the bitset of selected variables
+     */
+    public void read(int index, long[] assigned, long[] selected) {
+        checkIndex(index);
+        final MappedByteBuffer chunk = getChunk(index);
+        int position = (index % rowsPerChunk) * rowSize;
+        for (int i = 0; i < wordCount; i++, position += Long.BYTES) {
+            assigned[i] = chunk.getLong(position);
+        }
+        for (int i = 0; i < wordCount; i++, position += Long.BYTES) {
+            selected[i] = chunk.getLong(position);
+        }
+    }
+
+    /**
+     * {@return the literal of the given variable in the given solution, or 0 if the variable is unassigned}
+     *
+     * @param index the index of the solution
+     * @param variable the variable
+     */
+    public int getLiteral(int index, int variable) {
+        checkIndex(index);
+        if (variable < 1 || variable > variableCount) {
+            return 0;
+        }
+        final MappedByteBuffer chunk = getChunk(index);
+        final int word = (variable - 1) >>> 6;
+        final int position = (index % rowsPerChunk) * rowSize + word * Long.BYTES;
+        final long mask = 1L << (variable - 1);
+        if ((chunk.getLong(position) & mask) == 0) {
+            return 0;
+        }
+        return (chunk.getLong(position + wordCount * Long.BYTES) & mask) != 0 ? variable : -variable;
+    }
+
+    /**
+     * {@return whether the given solution contains all given literals}
+     * Reads directly from the file without materializing the solution.
+     *
+     * @param index the index of the solution
+     * @param literals the literals
+     */
+    public boolean containsAll(int index, int... literals) {
+        for (int literal : literals) {
+            if (literal == 0 || getLiteral(index, Math.abs(literal)) != literal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@return the solution at the given index}
+     *
+     * @param index the index
+     */
+    public PackedBooleanSolution getSolution(int index) {
+        final long[] assigned = new long[wordCount];
+        final long[] selected = new long[wordCount];
+        read(index, assigned, selected);
+        return new PackedBooleanSolution(variableCount, assigned, selected);
+    }
+
+    @Override
+    public Result<BooleanSolution> get(int index) {
+        if (index < 0 || index >= size) return Result.empty();
+        return Result.of(getSolution(index));
+    }
+
+    /**
+     * Appends a solution given by its bitsets.
+     *
+     * @param assigned the bitset of assigned variables
+     * @param selected the bitset of selected variables
+     */
+    public void add(long[] assigned, long[] selected) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many solutions");
+        }
+        final MappedByteBuffer chunk = getChunk(size);
+        int position = (size % rowsPerChunk) * rowSize;
+        for (int i = 0; i < wordCount; i++, position += Long.BYTES) {
+            chunk.putLong(position, i < assigned.length ? assigned[i] : 0);
+        }
+        for (int i = 0; i < wordCount; i++, position += Long.BYTES) {
+            chunk.putLong(position, i < selected.length ? selected[i] : 0);
+        }
+        header.putLong(SIZE_POSITION, ++size);
+    }
+
+    @Override
+    public void add(BooleanSolution solution) {
+        if (solution.size() > variableCount) {
+            throw new IllegalArgumentException(String.format(
+                    "Solution has more variables than this list (%d > %d)", solution.size(), variableCount));
+        }
+        final PackedBooleanSolution packedSolution = solution.toPacked();
+        add(packedSolution.getAssigned(), packedSolution.getSelected());
+    }
+
+    @Override
+    public void add(int index, BooleanSolution solution) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Solutions can only be appended");
+        }
+        add(solution);
+    }
+
+    @Override
+    public void addAll(Collection<? extends BooleanSolution> solutions) {
+        for (BooleanSolution solution : solutions) {
+            add(solution);
+        }
+    }
+
+    @Override
+    public void addAll(IAssignmentList<? extends BooleanSolution> solutions) {
+        for (BooleanSolution solution : solutions) {
+            add(solution);
+        }
+    }
+
+    @Override
+    public Result<BooleanSolution> remove(int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * {@return a read-only view of this list, which materializes each solution when it is accessed}
+     */
+    @Override
+    public List<BooleanSolution> getAll() {
+        return new SolutionView();
+    }
+
+    /**
+     * Writes all appended solutions to the file.
+     */
+    public void flush() {
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                chunk.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        chunks = new MappedByteBuffer[0];
+        channel.close();
+    }
+
+    @Override
+    public BooleanAssignmentList toAssignmentList() {
+        return toSolutionList().toAssignmentList();
+    }
+
+    @Override
+    public BooleanClauseList toClauseList(int variableCount) {
+        return toSolutionList().toClauseList(variableCount);
+    }
+
+    /**
+     * {@return a heap-based copy of this list}
+     */
+    @Override
+    public BooleanSolutionList toSolutionList() {
+        return new BooleanSolutionList(getAll());
+    }
+
+    @Override
+    public Result<ValueSolutionList> toValue(VariableMap variableMap) {
+        return variableMap.toValue(toSolutionList());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MappedBooleanSolutionList[%d solutions, %d variables]", size, variableCount);
+    }
+
+    private class SolutionView extends AbstractList<BooleanSolution> implements RandomAccess {
+        @Override
+        public BooleanSolution get(int index) {
+            return getSolution(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records clauses removed by a preprocessing step that does not preserve equivalence,
+ * such as variable elimination, so that solutions of the preprocessed clause list can be
+ * extended to solutions of the original clause list.
+ * Each entry consists of a clause and a witness literal from that clause.
+ * Entries are processed in reverse order; whenever an entry's clause is not satisfied,
+ * its witness literal is set to true.
+ *
+ * @author Sebastian Krieter
+ */
+public class ModelReconstructionStack {
+
+    private final int variableCount;
+    private final List<int[]> entries = new ArrayList<>();
+
+    public ModelReconstructionStack(int variableCount) {
+        this.variableCount = variableCount;
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * Pushes a removed clause together with its witness literal.
+     *
+     * @param witness the witness literal, which must be contained in the clause
+     * @param clause the literals of the clause
+     */
+    public void push(int witness, int... clause) {
+        final int[] entry = new int[clause.length + 1];
+        entry[0] = witness;
+        System.arraycopy(clause, 0, entry, 1, clause.length);
+        entries.add(entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * {@return a complete solution of the original clause list}
+     * Variables that are unassigned in the given solution are deselected before reconstruction.
+     *
+     * @param solution a solution of the preprocessed clause list
+     */
+    public BooleanSolution reconstruct(BooleanSolution solution) {
+        final int[] literals = new int[variableCount];
+        for (int i = 0; i < variableCount; i++) {
+            literals[i] = -(i + 1);
+        }
+        for (int literal : solution.get()) {
+            final int variable = Math.abs(literal);
+            if (literal != 0 && variable <= variableCount) {
+                literals[variable - 1] = literal;
+            }
+        }
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            final int[] entry = entries.get(i);
+            boolean satisfied = false;
+            for (int j = 1; j < entry.length; j++) {
+                final int literal = entry[j];
+                if (literals[Math.abs(literal) - 1] == literal) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                final int witness = entry[0];
+                literals[Math.abs(witness) - 1] = witness;
+            }
+        }
+        return new BooleanSolution(literals, false);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ModelReconstructionStack[");
+        for (int[] entry : entries) {
+            if (sb.length() > 25) {
+                sb.append(", ");
+            }
+            sb.append(entry[0]).append(':').append(Arrays.toString(Arrays.copyOfRange(entry, 1, entry.length)));
+        }
+        return sb.append(']').toString();
+    }
+}
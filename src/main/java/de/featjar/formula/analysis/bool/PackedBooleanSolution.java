@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import java.util.Arrays;
+
+/**
+ * A {@link BooleanSolution} that additionally stores its literals in two
+ * bitsets, one marking assigned variables and one marking selected variables.
+ * Checks for containment and conflicts are answered from these bitsets and
+ * comparisons between two packed solutions handle 64 variables per step.
+ * Like any {@link BooleanSolution}, a packed solution must not be modified
+ * after construction.
+ *
+ * @author Sebastian Krieter
+ */
+public class PackedBooleanSolution extends BooleanSolution {
+
+    private static final int WORD_SHIFT = 6;
+
+    private final long[] assigned;
+    private final long[] selected;
+
+    public PackedBooleanSolution(int... integers) {
+        this(integers, true);
+    }
+
+    public PackedBooleanSolution(int[] integers, boolean sort) {
+        super(integers, sort);
+        assigned = new long[wordCount(elements.length)];
+        selected = new long[assigned.length];
+        pack();
+    }
+
+    public PackedBooleanSolution(BooleanSolution booleanSolution) {
+        super(booleanSolution);
+        if (booleanSolution instanceof PackedBooleanSolution) {
+            assigned = ((PackedBooleanSolution) booleanSolution).assigned.clone();
+            selected = ((PackedBooleanSolution) booleanSolution).selected.clone();
+        } else {
+            assigned = new long[wordCount(elements.length)];
+            selected = new long[assigned.length];
+            pack();
+        }
+    }
+
+    /**
+     * Creates a solution from the given bitsets, which are not copied.
+     * Bit {@code i} corresponds to variable {@code i + 1} and bits beyond the variable count must not be set.
+     *
+     * @param variableCount the number of variables
+     * @param assigned the bitset of assigned variables
+     * @param selected the bitset of selected variables
+     */
+    public PackedBooleanSolution(int variableCount, long[] assigned, long[] selected) {
+        super(unpack(variableCount, assigned, selected), false);
+        assert assigned.length == wordCount(variableCount) && selected.length == assigned.length;
+        this.assigned = assigned;
+        this.selected = selected;
+    }
+
+    /**
+     * {@return a packed copy of the given solution, or the solution itself if it is already packed}
+     *
+     * @param booleanSolution the solution
+     */
+    public static PackedBooleanSolution of(BooleanSolution booleanSolution) {
+        return booleanSolution instanceof PackedBooleanSolution
+                ? (PackedBooleanSolution) booleanSolution
+                : new PackedBooleanSolution(booleanSolution);
+    }
+
+    /**
+     * {@return the number of words needed to store one bit per variable}
+     *
+     * @param variableCount the number of variables
+     */
+    public static int wordCount(int variableCount) {
+        return (variableCount + Long.SIZE - 1) >>> WORD_SHIFT;
+    }
+
+    private static int[] unpack(int variableCount, long[] assigned, long[] selected) {
+        final int[] integers = new int[variableCount];
+        for (int i = 0; i < variableCount; i++) {
+            final long mask = 1L << i;
+            if ((assigned[i >>> WORD_SHIFT] & mask) != 0) {
+                integers[i] = (selected[i >>> WORD_SHIFT] & mask) != 0 ? i + 1 : -(i + 1);
+            }
+        }
+        return integers;
+    }
+
+    private void pack() {
+        for (int i = 0; i < elements.length; i++) {
+            final int literal = elements[i];
+            if (literal != 0) {
+                final long mask = 1L << i;
+                assigned[i >>> WORD_SHIFT] |= mask;
+                if (literal > 0) {
+                    selected[i >>> WORD_SHIFT] |= mask;
+                }
+            }
+        }
+    }
+
+    @Override
+    void overwrite(int[] integers) {
+        super.overwrite(integers);
+        Arrays.fill(assigned, 0L);
+        Arrays.fill(selected, 0L);
+        pack();
+    }
+
+    /**
+     * {@return the bitset of assigned variables, where bit {@code i} corresponds to variable {@code i + 1}}
+     * The returned array must not be modified.
+     */
+    public long[] getAssigned() {
+        return assigned;
+    }
+
+    /**
+     * {@return the bitset of selected variables, where bit {@code i} corresponds to variable {@code i + 1}}
+     * The returned array must not be modified.
+     */
+    public long[] getSelected() {
+        return selected;
+    }
+
+    private int test(int literal) {
+        final int index = Math.abs(literal) - 1;
+        final int word = index >>> WORD_SHIFT;
+        if (literal == 0 || word >= assigned.length) {
+            return 0;
+        }
+        final long mask = 1L << index;
+        if ((assigned[word] & mask) == 0) {
+            return 0;
+        }
+        return ((selected[word] & mask) != 0) == (literal > 0) ? 1 : -1;
+    }
+
+    @Override
+    public boolean containsAll(int... integers) {
+        for (int integer : integers) {
+            if (test(integer) <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int countConflicts(int... integers) {
+        int count = 0;
+        for (int integer : integers) {
+            if (test(integer) < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean conflictsWith(int... integers) {
+        for (int integer : integers) {
+            if (test(integer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return whether this solution contains all literals of the given solution}
+     *
+     * @param other the other solution
+     */
+    public boolean containsAll(PackedBooleanSolution other) {
+        final int commonLength = Math.min(assigned.length, other.assigned.length);
+        for (int i = 0; i < commonLength; i++) {
+            final long otherAssigned = other.assigned[i];
+            if ((otherAssigned & ~assigned[i]) != 0 || ((selected[i] ^ other.selected[i]) & otherAssigned) != 0) {
+                return false;
+            }
+        }
+        for (int i = commonLength; i < other.assigned.length; i++) {
+            if (other.assigned[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@return the number of variables that are assigned differently in this and the given solution}
+     *
+     * @param other the other solution
+     */
+    public int countConflicts(PackedBooleanSolution other) {
+        final int commonLength = Math.min(assigned.length, other.assigned.length);
+        int count = 0;
+        for (int i = 0; i < commonLength; i++) {
+            count += Long.bitCount(assigned[i] & other.assigned[i] & (selected[i] ^ other.selected[i]));
+        }
+        return count;
+    }
+
+    /**
+     * {@return whether any variable is assigned differently in this and the given solution}
+     *
+     * @param other the other solution
+     */
+    public boolean conflictsWith(PackedBooleanSolution other) {
+        final int commonLength = Math.min(assigned.length, other.assigned.length);
+        for (int i = 0; i < commonLength; i++) {
+            if ((assigned[i] & other.assigned[i] & (selected[i] ^ other.selected[i])) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the number of variables assigned differently (including unassigned) in this and the given solution}
+     * For two complete solutions, this is their Hamming distance.
+     *
+     * @param other the other solution
+     */
+    public int countDifferences(PackedBooleanSolution other) {
+        final int commonLength = Math.min(assigned.length, other.assigned.length);
+        int count = 0;
+        for (int i = 0; i < commonLength; i++) {
+            final long bothAssigned = assigned[i] & other.assigned[i];
+            final long differentlyAssigned = assigned[i] ^ other.assigned[i];
+            count += Long.bitCount(differentlyAssigned | (bothAssigned & (selected[i] ^ other.selected[i])));
+        }
+        for (int i = commonLength; i < assigned.length; i++) {
+            count += Long.bitCount(assigned[i]);
+        }
+        for (int i = commonLength; i < other.assigned.length; i++) {
+            count += Long.bitCount(other.assigned[i]);
+        }
+        return count;
+    }
+
+    /**
+     * {@return the intersection of this and the given solution; that is, all literals contained in both solutions}
+     *
+     * @param other the other solution
+     */
+    public PackedBooleanSolution removeConflicts(PackedBooleanSolution other) {
+        final int commonLength = Math.min(assigned.length, other.assigned.length);
+        final long[] newAssigned = new long[commonLength];
+        final long[] newSelected = new long[commonLength];
+        for (int i = 0; i < commonLength; i++) {
+            newAssigned[i] = assigned[i] & other.assigned[i] & ~(selected[i] ^ other.selected[i]);
+            newSelected[i] = selected[i] & newAssigned[i];
+        }
+        return new PackedBooleanSolution(Math.min(elements.length, other.elements.length), newAssigned, newSelected);
+    }
+
+    @Override
+    public int countNonZero() {
+        int count = 0;
+        for (long word : assigned) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public int countPositives() {
+        int count = 0;
+        for (long word : selected) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public int countNegatives() {
+        return countNonZero() - countPositives();
+    }
+
+    @Override
+    public PackedBooleanSolution toSolution() {
+        return this;
+    }
+
+    @Override
+    public PackedBooleanSolution inverse() {
+        return new PackedBooleanSolution(negate(), false);
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.analysis.bool;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.base.data.Void;
+import de.featjar.formula.analysis.VariableMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+/**
+ * Translates variable indices from one {@link VariableMap} to another.
+ * The translation table is computed once, so applying it only requires a
+ * single array access per literal instead of two map lookups.
+ * Assignments, assignment lists, and assignment spaces can be translated
+ * into new objects or in place, and optionally in parallel.
+ *
+ * @author Sebastian Krieter
+ */
+public class VariableRemapping {
+
+    /**
+     * Determines how literals of variables that are missing in the new variable map are handled.
+     */
+    public enum MissingVariableHandling {
+        /**
+         * Fails the translation.
+         */
+        FAIL,
+        /**
+         * Removes the literal.
+         */
+        REMOVE
+    }
+
+    private final VariableMap oldVariableMap;
+    private final VariableMap newVariableMap;
+    private final MissingVariableHandling missingVariableHandling;
+    private final int[] newIndices;
+    private final int newMaxIndex;
+    private final int missingVariableCount;
+
+    private VariableRemapping(
+            VariableMap oldVariableMap, VariableMap newVariableMap, MissingVariableHandling missingVariableHandling) {
+        this.oldVariableMap = oldVariableMap;
+        this.newVariableMap = newVariableMap;
+        this.missingVariableHandling = missingVariableHandling;
+        newMaxIndex = Math.max(0, newVariableMap.maxIndex());
+        final int maxIndex = oldVariableMap.maxIndex();
+        newIndices = new int[maxIndex + 1];
+        int missingCount = 0;
+        for (int i = 1; i <= maxIndex; i++) {
+            final Result<String> name = oldVariableMap.get(i);
+            if (name.isPresent()) {
+                final Result<Integer> newIndex = newVariableMap.get(name.get());
+                if (newIndex.isPresent()) {
+                    newIndices[i] = newIndex.get();
+                } else {
+                    missingCount++;
+                }
+            }
+        }
+        missingVariableCount = missingCount;
+    }
+
+    /**
+     * {@return a remapping between the given variable maps that fails for missing variables}
+     *
+     * @param oldVariableMap the variable map of the assignments to translate
+     * @param newVariableMap the variable map to translate to
+     */
+    public static VariableRemapping of(VariableMap oldVariableMap, VariableMap newVariableMap) {
+        return new VariableRemapping(oldVariableMap, newVariableMap, MissingVariableHandling.FAIL);
+    }
+
+    /**
+     * {@return a remapping between the given variable maps}
+     *
+     * @param oldVariableMap the variable map of the assignments to translate
+     * @param newVariableMap the variable map to translate to
+     * @param missingVariableHandling how to handle variables missing in the new variable map
+     */
+    public static VariableRemapping of(
+            VariableMap oldVariableMap, VariableMap newVariableMap, MissingVariableHandling missingVariableHandling) {
+        return new VariableRemapping(oldVariableMap, newVariableMap, missingVariableHandling);
+    }
+
+    public VariableMap getOldVariableMap() {
+        return oldVariableMap;
+    }
+
+    public VariableMap getNewVariableMap() {
+        return newVariableMap;
+    }
+
+    /**
+     * {@return the number of variables in the old variable map that are missing in the new variable map}
+     */
+    public int getMissingVariableCount() {
+        return missingVariableCount;
+    }
+
+    /**
+     * {@return the translated literal, or 0 if its variable is missing in the new variable map}
+     *
+     * @param literal the literal
+     */
+    public int mapLiteral(int literal) {
+        final int variable = Math.abs(literal);
+        if (variable >= newIndices.length) {
+            return 0;
+        }
+        return literal < 0 ? -newIndices[variable] : newIndices[variable];
+    }
+
+    /**
+     * {@return a copy of the translation table, which maps each old variable index to its new index or 0}
+     */
+    public int[] getTable() {
+        return newIndices.clone();
+    }
+
+    /**
+     * {@return the translated literals, omitting the literals of missing variables}
+     * Ignores {@link MissingVariableHandling}; literals equal to 0 are kept.
+     *
+     * @param literals the literals
+     */
+    public int[] mapLiterals(int... literals) {
+        final int[] newLiterals = new int[literals.length];
+        int size = 0;
+        for (int literal : literals) {
+            final int newLiteral = mapLiteral(literal);
+            if (newLiteral != 0 || literal == 0) {
+                newLiterals[size++] = newLiteral;
+            }
+        }
+        return size == newLiterals.length ? newLiterals : Arrays.copyOf(newLiterals, size);
+    }
+
+    private Problem createProblem(int literal) {
+        final int variable = Math.abs(literal);
+        final Result<String> name = oldVariableMap.get(variable);
+        return name.isPresent()
+                ? new Problem("No variable named " + name.get(), Problem.Severity.ERROR)
+                : new Problem("No variable with index " + variable, Problem.Severity.ERROR);
+    }
+
+    private Optional<Problem> checkMissingVariables(
+            List<? extends List<? extends ABooleanAssignment>> groups, boolean isInPlace, boolean isParallel) {
+        if (missingVariableHandling == MissingVariableHandling.REMOVE && !isInPlace) {
+            return Optional.empty();
+        }
+        final IntStream literals = (isParallel ? groups.parallelStream() : groups.stream())
+                .flatMap(List::stream)
+                .filter(assignment -> missingVariableHandling == MissingVariableHandling.FAIL
+                        || !(assignment instanceof BooleanSolution))
+                .flatMapToInt(assignment -> IntStream.of(assignment.get()))
+                .filter(literal -> literal != 0 && mapLiteral(literal) == 0);
+        final OptionalInt missingLiteral = literals.findFirst();
+        if (missingLiteral.isEmpty()) {
+            return Optional.empty();
+        }
+        final Problem problem = createProblem(missingLiteral.getAsInt());
+        return Optional.of(
+                missingVariableHandling == MissingVariableHandling.FAIL
+                        ? problem
+                        : new Problem(
+                                problem.getMessage() + " (cannot remove literals in place)", Problem.Severity.ERROR));
+    }
+
+    /**
+     * {@return the translated assignment}
+     * Clauses stay sorted and solutions are laid out for the new variable map,
+     * such that their length is its maximum index.
+     *
+     * @param <T> the type of the assignment
+     * @param assignment the assignment
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ABooleanAssignment> Result<T> apply(T assignment) {
+        final Optional<Problem> problem = checkMissingVariables(List.of(List.of(assignment)), false, false);
+        if (problem.isPresent()) {
+            return Result.empty(problem.get());
+        }
+        return Result.of((T) map(assignment));
+    }
+
+    private ABooleanAssignment map(ABooleanAssignment assignment) {
+        if (assignment instanceof BooleanSolution) {
+            final int[] literals = new int[newMaxIndex];
+            for (int literal : assignment.get()) {
+                final int newLiteral = mapLiteral(literal);
+                if (newLiteral != 0) {
+                    literals[Math.abs(newLiteral) - 1] = newLiteral;
+                }
+            }
+            return assignment instanceof PackedBooleanSolution
+                    ? new PackedBooleanSolution(literals, false)
+                    : new BooleanSolution(literals, false);
+        } else if (assignment instanceof BooleanClause) {
+            return new BooleanClause(mapLiterals(assignment.get()));
+        } else {
+            return new BooleanAssignment(mapLiterals(assignment.get()));
+        }
+    }
+
+    private void mapInPlace(ABooleanAssignment assignment) {
+        final int[] literals = assignment.get();
+        if (assignment instanceof BooleanSolution) {
+            final int[] newLiterals = LiteralMarker.get(0).getBuffer(literals.length);
+            Arrays.fill(newLiterals, 0, literals.length, 0);
+            for (int literal : literals) {
+                final int newLiteral = mapLiteral(literal);
+                if (newLiteral != 0) {
+                    newLiterals[Math.abs(newLiteral) - 1] = newLiteral;
+                }
+            }
+            assignment.overwrite(newLiterals);
+        } else {
+            for (int i = 0; i < literals.length; i++) {
+                literals[i] = mapLiteral(literals[i]);
+            }
+            assignment.overwrite(literals);
+        }
+    }
+
+    private List<ABooleanAssignment> map(List<? extends ABooleanAssignment> assignments, boolean isParallel) {
+        final ABooleanAssignment[] newAssignments = new ABooleanAssignment[assignments.size()];
+        IntStream indices = IntStream.range(0, newAssignments.length);
+        if (isParallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> newAssignments[i] = map(assignments.get(i)));
+        return Arrays.asList(newAssignments);
+    }
+
+    /**
+     * {@return a new clause list with translated clauses}
+     *
+     * @param clauseList the clause list
+     * @param isParallel whether to translate clauses in parallel
+     */
+    public Result<BooleanClauseList> apply(BooleanClauseList clauseList, boolean isParallel) {
+        final Optional<Problem> problem = checkMissingVariables(List.of(clauseList.getAll()), false, isParallel);
+        if (problem.isPresent()) {
+            return Result.empty(problem.get());
+        }
+        return Result.of(new BooleanClauseList(map(clauseList.getAll(), isParallel), newMaxIndex));
+    }
+
+    /**
+     * {@return a new solution list with translated solutions}
+     *
+     * @param solutionList the solution list
+     * @param isParallel whether to translate solutions in parallel
+     */
+    public Result<BooleanSolutionList> apply(BooleanSolutionList solutionList, boolean isParallel) {
+        final Optional<Problem> problem = checkMissingVariables(List.of(solutionList.getAll()), false, isParallel);
+        if (problem.isPresent()) {
+            return Result.empty(problem.get());
+        }
+        final List<ABooleanAssignment> solutions = map(solutionList.getAll(), isParallel);
+        final BooleanSolutionList newSolutionList = new BooleanSolutionList(solutions.size());
+        for (ABooleanAssignment solution : solutions) {
+            newSolutionList.add((BooleanSolution) solution);
+        }
+        return Result.of(newSolutionList);
+    }
+
+    /**
+     * {@return a new assignment space with the new variable map and translated assignments}
+     *
+     * @param assignmentSpace the assignment space, which must use the old variable map
+     * @param isParallel whether to translate assignments in parallel
+     */
+    public Result<BooleanAssignmentSpace> apply(BooleanAssignmentSpace assignmentSpace, boolean isParallel) {
+        final Optional<Problem> problem = checkMissingVariables(assignmentSpace.getGroups(), false, isParallel);
+        if (problem.isPresent()) {
+            return Result.empty(problem.get());
+        }
+        final List<List<ABooleanAssignment>> groups =
+                new ArrayList<>(assignmentSpace.getGroups().size());
+        for (List<? extends ABooleanAssignment> group : assignmentSpace.getGroups()) {
+            groups.add(map(group, isParallel));
+        }
+        return Result.of(new BooleanAssignmentSpace(newVariableMap, groups));
+    }
+
+    /**
+     * Translates all assignments in the given list in place.
+     * Assignments keep their length, so literals cannot be removed from clauses
+     * and solutions must already have the length of the new variable map's maximum index.
+     * For a {@link BooleanClauseList}, the variable count is updated as well.
+     *
+     * @param assignmentList the assignment list
+     * @param isParallel whether to translate assignments in parallel
+     * @return an empty result with a problem if the assignments could not be translated without modifying them
+     */
+    public Result<Void> applyInPlace(ABooleanAssignmentList<?> assignmentList, boolean isParallel) {
+        final Result<Void> result = applyInPlace(List.of(assignmentList.getAll()), isParallel);
+        if (result.isPresent() && assignmentList instanceof BooleanClauseList) {
+            ((BooleanClauseList) assignmentList).setVariableCount(newMaxIndex);
+        }
+        return result;
+    }
+
+    /**
+     * Translates all assignments in the given assignment space in place.
+     * Assignments keep their length, so literals cannot be removed from clauses
+     * and solutions must already have the length of the new variable map's maximum index.
+     *
+     * @param assignmentSpace the assignment space, which must use the old variable map
+     * @param isParallel whether to translate assignments in parallel
+     * @return an assignment space with the new variable map that shares the translated assignments
+     */
+    public Result<BooleanAssignmentSpace> applyInPlace(BooleanAssignmentSpace assignmentSpace, boolean isParallel) {
+        return applyInPlace(assignmentSpace.getGroups(), isParallel)
+                .map(_void -> new BooleanAssignmentSpace(newVariableMap, assignmentSpace.getGroups()));
+    }
+
+    private Result<Void> applyInPlace(
+            List<? extends List<? extends ABooleanAssignment>> groups, boolean isParallel) {
+        final Optional<Problem> problem = checkMissingVariables(groups, true, isParallel);
+        if (problem.isPresent()) {
+            return Result.empty(problem.get());
+        }
+        for (List<? extends ABooleanAssignment> group : groups) {
+            for (ABooleanAssignment assignment : group) {
+                if (assignment instanceof BooleanSolution && assignment.size() != newMaxIndex) {
+                    return Result.empty(new Problem(
+                            String.format(
+                                    "Cannot translate solution with %d variables in place to %d variables",
+                                    assignment.size(), newMaxIndex),
+                            Problem.Severity.ERROR));
+                }
+            }
+        }
+        for (List<? extends ABooleanAssignment> group : groups) {
+            (isParallel ? group.parallelStream() : group.stream()).forEach(this::mapInPlace);
+        }
+        return Result.ofVoid();
+    }
+}
@@ -20,6 +20,7 @@
  */
 package de.featjar.formula.analysis.metrics;
 
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
 import java.util.List;
 import java.util.function.DoubleSupplier;
 
@@ -55,12 +56,15 @@ public class DistanceMetrics extends AAggregatableMetrics {
     protected double[] computeValues() {
         final int size = sample.size();
         final double[] values = new double[(size * (size - 1)) >> 1];
+        final PackedBooleanSolution[] solutions = new PackedBooleanSolution[size];
+        for (int i = 0; i < size; i++) {
+            solutions[i] = sample.get(i).get().toPacked();
+        }
         int index = 0;
         for (int i = 0; i < (size - 1); i++) {
-            final int[] literals1 = sample.get(i).get().get();
+            final PackedBooleanSolution solution1 = solutions[i];
             for (int j = i + 1; j < size; j++) {
-                values[index++] =
-                        function.computeDistance(literals1, sample.get(j).get().get());
+                values[index++] = function.computeDistance(solution1, solutions[j]);
             }
         }
         return values;
@@ -20,6 +20,8 @@
  */
 package de.featjar.formula.analysis.metrics;
 
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+
 /**
  * Computes the Hamming distance between two literal arrays.
  *
@@ -36,6 +38,11 @@ public class HammingDistance implements IDistanceFunction {
         return conflicts / literals1.length;
     }
 
+    @Override
+    public double computeDistance(PackedBooleanSolution solution1, PackedBooleanSolution solution2) {
+        return (double) solution1.countDifferences(solution2) / solution1.size();
+    }
+
     @Override
     public String getName() {
         return "Hamming";
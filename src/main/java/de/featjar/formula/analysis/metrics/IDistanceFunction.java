@@ -20,6 +20,8 @@
  */
 package de.featjar.formula.analysis.metrics;
 
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+
 /**
  * Computes the distance between to literal arrays (e.g., configurations).
  *
@@ -29,5 +31,17 @@ public interface IDistanceFunction {
 
     double computeDistance(final int[] literals1, final int[] literals2);
 
+    /**
+     * Computes the distance between two packed solutions.
+     * Implementations may override this to operate on the bitsets directly.
+     *
+     * @param solution1 the first solution
+     * @param solution2 the second solution
+     * @return the distance
+     */
+    default double computeDistance(PackedBooleanSolution solution1, PackedBooleanSolution solution2) {
+        return computeDistance(solution1.get(), solution2.get());
+    }
+
     String getName();
 }
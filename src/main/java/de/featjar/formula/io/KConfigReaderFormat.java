@@ -31,6 +31,7 @@ import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.formula.connective.And;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Parses feature-model formula files created by KConfigReader.
@@ -43,34 +44,46 @@ public class KConfigReaderFormat implements IFormat<IExpression> {
     @Override
     public Result<IExpression> parse(AInputMapper inputMapper) {
         final ArrayList<Problem> problems = new ArrayList<>();
-        final ExpressionParser expressionParser = new ExpressionParser();
-        expressionParser.setSymbols(PropositionalModelSymbols.INSTANCE);
         return Result.of(
-                new And(inputMapper
-                        .get()
-                        .getLineStream()
-                        .map(String::trim)
-                        .filter(l -> !l.isEmpty())
-                        .filter(l -> !l.startsWith("#"))
-                        // "convert" non-boolean constraints into boolean constraints
-                        // TODO: parse as proper first-order formulas
-                        .map(l -> l.replace("=", "_"))
-                        .map(l -> l.replace(":", "_"))
-                        .map(l -> l.replace(".", "_"))
-                        .map(l -> l.replace(",", "_"))
-                        .map(l -> l.replace("/", "_"))
-                        .map(l -> l.replace("\\", "_"))
-                        .map(l -> l.replace(" ", "_"))
-                        .map(l -> l.replace("-", "_"))
-                        .map(l -> l.replaceAll("def\\((\\w+)\\)", "$1"))
-                        .map(expressionParser::parse)
+                new And(parseConstraints(inputMapper)
                         .peek(r -> problems.addAll(r.getProblems()))
                         .filter(Result::isPresent)
-                        .map(expressionResult -> (IFormula) expressionResult.get())
+                        .map(Result::get)
                         .collect(Collectors.toList())),
                 problems);
     }
 
+    /**
+     * {@return a lazy stream of the constraints in the given input, one per line}
+     * In contrast to {@link #parse(AInputMapper)}, constraints can be processed one at a time
+     * without holding all of them in memory.
+     *
+     * @param inputMapper the input mapper
+     */
+    public Stream<Result<IFormula>> parseConstraints(AInputMapper inputMapper) {
+        final ExpressionParser expressionParser = new ExpressionParser();
+        expressionParser.setSymbols(PropositionalModelSymbols.INSTANCE);
+        return inputMapper
+                .get()
+                .getLineStream()
+                .map(String::trim)
+                .filter(l -> !l.isEmpty())
+                .filter(l -> !l.startsWith("#"))
+                // "convert" non-boolean constraints into boolean constraints
+                // TODO: parse as proper first-order formulas
+                .map(l -> l.replace("=", "_"))
+                .map(l -> l.replace(":", "_"))
+                .map(l -> l.replace(".", "_"))
+                .map(l -> l.replace(",", "_"))
+                .map(l -> l.replace("/", "_"))
+                .map(l -> l.replace("\\", "_"))
+                .map(l -> l.replace(" ", "_"))
+                .map(l -> l.replace("-", "_"))
+                .map(l -> l.replaceAll("def\\((\\w+)\\)", "$1"))
+                .map(expressionParser::parse)
+                .map(expressionResult -> expressionResult.map(expression -> (IFormula) expression));
+    }
+
     @Override
     public boolean supportsParse() {
         return true;
@@ -20,6 +20,7 @@
  */
 package de.featjar.formula.io.binary;
 
+import de.featjar.base.data.Pair;
 import de.featjar.base.data.Problem.Severity;
 import de.featjar.base.data.Result;
 import de.featjar.base.io.binary.ABinaryFormat;
@@ -32,10 +33,14 @@ import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanAssignmentSpace;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.MappedBooleanSolutionList;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 
@@ -97,14 +102,8 @@ public class BooleanAssignmentSpaceBinaryFormat extends ABinaryFormat<BooleanAss
     public Result<BooleanAssignmentSpace> parse(AInputMapper inputMapper) {
         final InputStream inputStream = inputMapper.get().getInputStream();
         try {
-            final VariableMap variableMap = new VariableMap();
             final int maxIndex = readInt(inputStream);
-            for (int i = 1; i <= maxIndex; i++) {
-                final String name = readString(inputStream);
-                if (!name.isEmpty()) {
-                    variableMap.add(i, name);
-                }
-            }
+            final VariableMap variableMap = readVariableMap(inputStream, maxIndex);
             final int numberOfGroups = readInt(inputStream);
             final ArrayList<List<ABooleanAssignment>> groups = new ArrayList<>(numberOfGroups);
             for (int i = 0; i < numberOfGroups; i++) {
@@ -162,6 +161,103 @@ public class BooleanAssignmentSpaceBinaryFormat extends ABinaryFormat<BooleanAss
         }
     }
 
+    /**
+     * Parses the solutions of one group directly into a {@link MappedBooleanSolutionList} in the given file.
+     * Solutions are read and appended one at a time, so the group is never held in the heap as a whole.
+     * Clauses and assignments in the group are stored as (partial) solutions.
+     *
+     * @param inputMapper the input mapper
+     * @param file the file to store the solutions in
+     * @param groupIndex the index of the group to parse
+     * @return the variable map and the solution list, which must be closed by the caller
+     */
+    public Result<Pair<VariableMap, MappedBooleanSolutionList>> parseSolutions(
+            AInputMapper inputMapper, Path file, int groupIndex) {
+        final InputStream inputStream = inputMapper.get().getInputStream();
+        try {
+            final int maxIndex = readInt(inputStream);
+            final VariableMap variableMap = readVariableMap(inputStream, maxIndex);
+            final int numberOfGroups = readInt(inputStream);
+            if (groupIndex < 0 || groupIndex >= numberOfGroups) {
+                return Result.empty(new ParseProblem("No group with index " + groupIndex, Severity.ERROR, 0));
+            }
+            final int wordCount = PackedBooleanSolution.wordCount(maxIndex);
+            final long[] assigned = new long[wordCount];
+            final long[] selected = new long[wordCount];
+            final MappedBooleanSolutionList solutionList = MappedBooleanSolutionList.create(file, maxIndex);
+            try {
+                for (int i = 0; i <= groupIndex; i++) {
+                    final int numberOfAssignment = readInt(inputStream);
+                    for (int j = 0; j < numberOfAssignment; j++) {
+                        Arrays.fill(assigned, 0);
+                        Arrays.fill(selected, 0);
+                        final byte type = readByte(inputStream);
+                        switch (type) {
+                            case BooleanSolutionType:
+                                {
+                                    final byte[] bytes = readByteArray(inputStream);
+                                    for (int k = 0, bsIndex = 0; k < maxIndex; k++, bsIndex += 2) {
+                                        if (getBit(bytes, bsIndex)) {
+                                            assigned[k >>> 6] |= 1L << k;
+                                            if (getBit(bytes, bsIndex + 1)) {
+                                                selected[k >>> 6] |= 1L << k;
+                                            }
+                                        }
+                                    }
+                                }
+                                break;
+                            case BooleanClauseType:
+                            case BooleanAssignmentType:
+                                {
+                                    final int numLiterals = readInt(inputStream);
+                                    for (int k = 0; k < numLiterals; k++) {
+                                        final int l = readInt(inputStream);
+                                        final int index = Math.abs(l) - 1;
+                                        if (index >= 0 && index < maxIndex) {
+                                            assigned[index >>> 6] |= 1L << index;
+                                            if (l > 0) {
+                                                selected[index >>> 6] |= 1L << index;
+                                            }
+                                        }
+                                    }
+                                }
+                                break;
+                            default:
+                                solutionList.close();
+                                return Result.empty(new ParseProblem("Unkown type " + type, Severity.ERROR, 0));
+                        }
+                        if (i == groupIndex) {
+                            solutionList.add(assigned, selected);
+                        }
+                    }
+                }
+            } catch (final IOException | RuntimeException e) {
+                solutionList.close();
+                throw e;
+            }
+            solutionList.flush();
+            return Result.of(new Pair<>(variableMap, solutionList));
+        } catch (final IOException e) {
+            return Result.empty(e);
+        }
+    }
+
+    private VariableMap readVariableMap(InputStream inputStream, int maxIndex) throws IOException {
+        final VariableMap variableMap = new VariableMap();
+        for (int i = 1; i <= maxIndex; i++) {
+            final String name = readString(inputStream);
+            if (!name.isEmpty()) {
+                variableMap.add(i, name);
+            }
+        }
+        return variableMap;
+    }
+
+    private static boolean getBit(byte[] bytes, int index) {
+        final int byteIndex = index >>> 3;
+        return byteIndex < bytes.length && (bytes[byteIndex] & (1 << (index & 7))) != 0;
+    }
+
     @Override
     public boolean supportsSerialize() {
         return true;
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io.dimacs;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseEncoder;
+import de.featjar.formula.structure.formula.IFormula;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes formulas to a DIMACS file one after another, so that a model never has to be held in memory as a whole.
+ * Each formula is transformed into clauses by a {@link BooleanClauseEncoder}, and its clauses are immediately
+ * appended to a temporary file.
+ * When this writer is closed, the variable directory and problem description are written to the target file,
+ * followed by the contents of the temporary file.
+ * Thus, memory is bounded by the largest formula and the variable map.
+ * If clauses cannot be written, this writer fails: further formulas are rejected and the target file is not written.
+ * Constraints can be supplied one at a time by
+ * {@link de.featjar.formula.io.KConfigReaderFormat#parseConstraints(de.featjar.base.io.input.AInputMapper)} or
+ * {@link de.featjar.formula.io.xml.XMLFeatureModelFormulaFormat#setConstraintConsumer(java.util.function.Consumer)}.
+ *
+ * @author Sebastian Krieter
+ */
+public class DimacsClauseWriter implements AutoCloseable {
+    private final Path path;
+    private final Path clausePath;
+    private final BufferedWriter clauseWriter;
+    private final BooleanClauseEncoder encoder;
+    private long clauseCount;
+    private boolean isFailed;
+
+    /**
+     * Creates a new DIMACS clause writer that transforms formulas distributively.
+     *
+     * @param path the target file
+     * @throws IOException if the temporary file cannot be created
+     */
+    public DimacsClauseWriter(Path path) throws IOException {
+        this(path, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new DIMACS clause writer.
+     *
+     * @param path the target file
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param maximumNumberOfLiterals the maximum number of literals available for distributive transformation
+     *                                of each top-level clause
+     * @throws IOException if the temporary file cannot be created
+     */
+    public DimacsClauseWriter(Path path, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals)
+            throws IOException {
+        this.path = path;
+        final Path directory = path.toAbsolutePath().getParent();
+        clausePath = Files.createTempFile(directory, path.getFileName().toString(), ".clauses");
+        try {
+            clauseWriter = createClauseWriter(clausePath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(clausePath);
+            throw e;
+        }
+        encoder = new BooleanClauseEncoder(new VariableMap(), isPlaistedGreenbaum, maximumNumberOfLiterals);
+    }
+
+    /**
+     * {@return a writer for the temporary file that stores all clauses}
+     *
+     * @param clausePath the temporary file
+     * @throws IOException if the file cannot be opened
+     */
+    protected BufferedWriter createClauseWriter(Path clausePath) throws IOException {
+        return Files.newBufferedWriter(clausePath);
+    }
+
+    /**
+     * {@return the variable map of all formulas appended so far, including auxiliary variables}
+     */
+    public VariableMap getVariableMap() {
+        return encoder.getVariableMap();
+    }
+
+    /**
+     * {@return the number of clauses appended so far}
+     */
+    public long getClauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * {@return whether clauses could not be written, so that this writer cannot write the target file}
+     */
+    public boolean isFailed() {
+        return isFailed;
+    }
+
+    /**
+     * Transforms the given formula into clauses and appends them.
+     *
+     * @param formula the formula
+     * @return the number of appended clauses
+     */
+    public Result<Integer> append(IFormula formula) {
+        if (isFailed) {
+            return Result.empty(new Problem("Cannot append to failed writer for " + path, Problem.Severity.ERROR));
+        }
+        final Result<List<BooleanClause>> clauses = encoder.encode(formula);
+        if (clauses.isEmpty()) {
+            return Result.empty(clauses.getProblems());
+        }
+        try {
+            for (final BooleanClause clause : clauses.get()) {
+                for (final int l : clause.get()) {
+                    clauseWriter.write(Integer.toString(l));
+                    clauseWriter.write(' ');
+                }
+                clauseWriter.write(DimacsConstants.CLAUSE_END);
+                clauseWriter.write(System.lineSeparator());
+            }
+        } catch (final IOException e) {
+            isFailed = true;
+            return Result.empty(e);
+        }
+        clauseCount += clauses.get().size();
+        return Result.of(clauses.get().size());
+    }
+
+    /**
+     * Writes the target file and deletes the temporary file.
+     * If this writer failed, only the temporary file is deleted.
+     *
+     * @throws IOException if a file cannot be written or this writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            clauseWriter.close();
+            if (isFailed) {
+                throw new IOException("Could not write all clauses to " + path);
+            }
+            final VariableMap variableMap = encoder.getVariableMap();
+            try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+                for (final int index : variableMap.getVariableIndices()) {
+                    writer.write(DimacsConstants.COMMENT_START);
+                    writer.write(Integer.toString(index));
+                    writer.write(' ');
+                    writer.write(variableMap.get(index).get());
+                    writer.write(System.lineSeparator());
+                }
+                writer.write(DimacsConstants.PROBLEM);
+                writer.write(' ');
+                writer.write(DimacsConstants.CNF);
+                writer.write(' ');
+                writer.write(Integer.toString(Math.max(0, variableMap.maxIndex())));
+                writer.write(' ');
+                writer.write(Long.toString(clauseCount));
+                writer.write(System.lineSeparator());
+            }
+            try (OutputStream outputStream = Files.newOutputStream(path, StandardOpenOption.APPEND)) {
+                Files.copy(clausePath, outputStream);
+            }
+        } finally {
+            Files.deleteIfExists(clausePath);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import de.featjar.formula.structure.formula.connective.Or;
 import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.structure.term.value.VariableTable;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -49,6 +51,9 @@ public class FormulaDimacsParser {
     /** Maps indexes to variables. */
     private final LinkedHashMap<Integer, String> indexVariables = Maps.empty();
 
+    /** Interns the variables of parsed literals. */
+    private VariableTable variableTable = new VariableTable();
+
     /**
      * The amount of variables as declared in the problem definition. May differ
      * from the actual amount of found variables.
@@ -81,6 +86,23 @@ public class FormulaDimacsParser {
         this.readVariableDirectory = readVariableDirectory;
     }
 
+    /**
+     * {@return the variable table used to intern the variables of parsed literals}
+     */
+    public VariableTable getVariableTable() {
+        return variableTable;
+    }
+
+    /**
+     * Sets the variable table used to intern the variables of parsed literals.
+     * Can be used to share variables among several parsed formulas.
+     *
+     * @param variableTable the variable table
+     */
+    public void setVariableTable(VariableTable variableTable) {
+        this.variableTable = Objects.requireNonNull(variableTable);
+    }
+
     /**
      * Reads the input.
      *
@@ -247,7 +269,7 @@ public class FormulaDimacsParser {
             }
             final Integer key = Math.abs(index);
             String variableName = indexVariables.computeIfAbsent(key, String::valueOf);
-            literals[j] = new Literal(index > 0, variableName);
+            literals[j] = new Literal(index > 0, variableTable.get(variableName));
         }
         return new Or(literals);
     }
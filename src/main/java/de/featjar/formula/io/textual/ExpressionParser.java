@@ -33,6 +33,7 @@ import de.featjar.formula.structure.formula.connective.Not;
 import de.featjar.formula.structure.formula.connective.Or;
 import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.structure.formula.predicate.ProblemFormula;
+import de.featjar.formula.structure.term.value.VariableTable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -116,6 +117,7 @@ public class ExpressionParser {
     private ErrorHandling ignoreMissingFeatures = ErrorHandling.THROW;
     private ErrorHandling ignoreUnparseableSubExpressions = ErrorHandling.THROW;
     private List<Problem> problemList;
+    private VariableTable variableTable = new VariableTable();
 
     public Symbols getSymbols() {
         return symbols;
@@ -142,6 +144,14 @@ public class ExpressionParser {
         this.ignoreUnparseableSubExpressions = Objects.requireNonNull(ignoreUnparseableSubExpressions);
     }
 
+    public VariableTable getVariableTable() {
+        return variableTable;
+    }
+
+    public void setVariableTable(VariableTable variableTable) {
+        this.variableTable = Objects.requireNonNull(variableTable);
+    }
+
     public Result<IExpression> parse(String formulaString) {
         problemList = new ArrayList<>();
         if (formulaString == null) {
@@ -256,7 +266,7 @@ public class ExpressionParser {
             featureName = featureName
                     .replace(replacedFeatureNameMarker, featureNameMarker)
                     .replace(replacedSubExpressionMarker, subExpressionMarker);
-            return new Literal(featureName);
+            return new Literal(variableTable.get(featureName));
         }
     }
 
@@ -26,6 +26,7 @@ import de.featjar.base.io.xml.AXMLFormat;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.formula.connective.*;
 import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.VariableTable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -72,6 +73,8 @@ public abstract class AXMLFeatureModelFormat<T, U, V> extends AXMLFormat<T> {
     public static final String ABSTRACT = "abstract";
     public static final String HIDDEN = "hidden";
 
+    protected final VariableTable variableTable = new VariableTable();
+
     protected abstract U newFeatureLabel(
             String name, U parentFeatureLabel, boolean mandatory, boolean _abstract, boolean hidden)
             throws ParseException;
@@ -279,7 +282,7 @@ public abstract class AXMLFeatureModelFormat<T, U, V> extends AXMLFormat<T> {
                     nodes.add(atMostOne(parseConstraints(e.getChildNodes(), null)));
                     break;
                 case VAR:
-                    nodes.add(new Literal(e.getTextContent()));
+                    nodes.add(new Literal(variableTable.get(e.getTextContent())));
                     break;
                 default:
                     addParseProblem("Unknown constraint type: " + nodeName, e, Problem.Severity.WARNING);
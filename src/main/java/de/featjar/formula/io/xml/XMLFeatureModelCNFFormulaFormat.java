@@ -79,7 +79,9 @@ public class XMLFeatureModelCNFFormulaFormat extends XMLFeatureModelFormulaForma
     protected void addConstraint(Boolean constraintLabel, IFormula formula) throws ParseException {
         IFormula transformedExpression = async(formula)
                 .map(ComputeNNFFormula::new)
+                .set(ComputeNNFFormula.IS_IN_PLACE, Boolean.TRUE)
                 .map(ComputeCNFFormula::new)
+                .set(ComputeCNFFormula.IS_IN_PLACE, Boolean.TRUE)
                 .computeUncachedResult()
                 .orElseThrow(p -> new ParseException("failed to transform " + formula));
         super.addConstraint(constraintLabel, transformedExpression);
@@ -105,7 +105,7 @@ public class XMLFeatureModelExtraFormulaFormat extends AXMLFeatureModelExtraForm
         if(hidden || (parentFeatureLabel != null && parentFeatureLabel.getValue())) {
             hiddenVariables.add(name);
         }
-        Literal literal = new Literal(name);
+        Literal literal = new Literal(variableTable.get(name));
         if (parentFeatureLabel == null) {
             constraints.add(literal);
         } else {
@@ -31,6 +31,7 @@ import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.structure.term.value.Variable;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.w3c.dom.Document;
@@ -45,6 +46,7 @@ import org.w3c.dom.Element;
 public class XMLFeatureModelFormulaFormat extends AXMLFeatureModelFormat<IExpression, Literal, Boolean> {
     protected final LinkedHashSet<String> featureLabels = Sets.empty();
     protected final List<IFormula> constraints = new ArrayList<>();
+    protected Consumer<? super IFormula> constraintConsumer;
 
     @Override
     public XMLFeatureModelFormulaFormat getInstance() {
@@ -56,6 +58,17 @@ public class XMLFeatureModelFormulaFormat extends AXMLFeatureModelFormat<IExpres
         return "FeatureIDE";
     }
 
+    /**
+     * Sets a consumer that receives each constraint as soon as it is parsed.
+     * If set, constraints are not collected, so the parsed formula is empty
+     * and memory is not bounded by the number of constraints.
+     *
+     * @param constraintConsumer the constraint consumer, or {@code null} to collect constraints
+     */
+    public void setConstraintConsumer(Consumer<? super IFormula> constraintConsumer) {
+        this.constraintConsumer = constraintConsumer;
+    }
+
     @Override
     public boolean supportsParse() {
         return true;
@@ -98,13 +111,13 @@ public class XMLFeatureModelFormulaFormat extends AXMLFeatureModelFormat<IExpres
         } else {
             featureLabels.add(name);
         }
-        Literal literal = new Literal(name);
+        Literal literal = new Literal(variableTable.get(name));
         if (parentFeatureLabel == null) {
-            constraints.add(literal);
+            addFormula(literal);
         } else {
-            constraints.add(implies(literal, parentFeatureLabel));
+            addFormula(implies(literal, parentFeatureLabel));
             if (mandatory) {
-                constraints.add(implies(parentFeatureLabel, literal));
+                addFormula(implies(parentFeatureLabel, literal));
             }
         }
         return literal;
@@ -115,15 +128,15 @@ public class XMLFeatureModelFormulaFormat extends AXMLFeatureModelFormat<IExpres
 
     @Override
     protected void addOrGroup(Literal featureLabel, List<Literal> childFeatureLabels) {
-        constraints.add(implies(featureLabel, childFeatureLabels));
+        addFormula(implies(featureLabel, childFeatureLabels));
     }
 
     @Override
     protected void addAlternativeGroup(Literal featureLabel, List<Literal> childFeatureLabels) {
         if (childFeatureLabels.size() == 1) {
-            constraints.add(implies(featureLabel, childFeatureLabels.get(0)));
+            addFormula(implies(featureLabel, childFeatureLabels.get(0)));
         } else {
-            constraints.add(new And(implies(featureLabel, childFeatureLabels), atMostOne(childFeatureLabels)));
+            addFormula(new And(implies(featureLabel, childFeatureLabels), atMostOne(childFeatureLabels)));
         }
     }
 
@@ -137,9 +150,17 @@ public class XMLFeatureModelFormulaFormat extends AXMLFeatureModelFormat<IExpres
 
     @Override
     protected void addConstraint(Boolean constraintLabel, IFormula formula) throws ParseException {
-        constraints.add(formula);
+        addFormula(formula);
     }
 
     @Override
     protected void addConstraintMetadata(Boolean constraintLabel, Element e) {}
+
+    protected void addFormula(IFormula formula) {
+        if (constraintConsumer != null) {
+            constraintConsumer.accept(formula);
+        } else {
+            constraints.add(formula);
+        }
+    }
 }
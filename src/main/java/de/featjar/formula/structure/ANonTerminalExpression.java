@@ -21,9 +21,17 @@
 package de.featjar.formula.structure;
 
 import de.featjar.base.tree.structure.ATree;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
 
 /**
  * A non-terminal node in a formula.
@@ -32,12 +40,196 @@ import java.util.Objects;
  * @author Elias Kuiter
  */
 public abstract class ANonTerminalExpression extends ATree<IExpression> implements IExpression {
+    /**
+     * Marks an expression that is (or was) a child of more than one expression.
+     */
+    private static final Object MULTIPLE_PARENTS = new Object();
+
+    /**
+     * Counts modifications that cannot be propagated to the affected expressions.
+     * Each expression knows its parent, so a modification usually only invalidates the caches of the modified
+     * expression and its ancestors.
+     * However, an expression with multiple parents (e.g., a subformula shared by two formulas) and terminal
+     * expressions (e.g., interned variables) do not know all of their ancestors.
+     * Thus, their modification invalidates all caches by bumping this counter.
+     */
+    private static final AtomicInteger sharedModificationCount = new AtomicInteger(1);
+
+    private static final AtomicReferenceFieldUpdater<ANonTerminalExpression, Object> PARENT_OR_CACHE =
+            AtomicReferenceFieldUpdater.newUpdater(ANonTerminalExpression.class, Object.class, "parentOrCache");
+
+    /**
+     * Properties of a subtree cached at a given shared modification count, along with the parent of the subtree.
+     * Only allocated for expressions whose properties are actually requested, so that all other expressions
+     * only store their parent.
+     * Immutable, so it can be safely published to other threads.
+     */
+    private static final class Cache {
+        private final Object parent;
+        private final int sharedModificationCount;
+        private final int normalForms;
+        private final long classMask;
+        private final LinkedHashMap<String, Variable> variableMap;
+
+        private Cache(
+                Object parent,
+                int sharedModificationCount,
+                int normalForms,
+                long classMask,
+                LinkedHashMap<String, Variable> variableMap) {
+            this.parent = parent;
+            this.sharedModificationCount = sharedModificationCount;
+            this.normalForms = normalForms;
+            this.classMask = classMask;
+            this.variableMap = variableMap;
+        }
+    }
+
+    /**
+     * The parent of this expression ({@link #MULTIPLE_PARENTS} or {@code null} if there is no single parent),
+     * or a {@link Cache} that stores the parent.
+     */
+    private volatile Object parentOrCache;
+
+    /**
+     * The cached hash code of this subtree in the lower half and the shared modification count it was
+     * computed at in the upper half, or {@code 0} if it has not been computed since the last modification.
+     */
+    private volatile long hashCodeStamp;
+
+    /**
+     * Invalidates the cached hash codes of all expressions.
+     * Only used for modifications of expressions that do not know all of their ancestors.
+     */
+    static void invalidateAllHashCodes() {
+        sharedModificationCount.incrementAndGet();
+    }
+
     protected ANonTerminalExpression(IExpression... children) {
-        if (children.length > 0) super.setChildren(Arrays.asList(children));
+        if (children.length > 0) {
+            super.setChildren(Arrays.asList(children));
+            compactChildren();
+            attachChildren();
+        }
     }
 
     protected ANonTerminalExpression(List<? extends IExpression> children) {
         super.setChildren(children);
+        compactChildren();
+        attachChildren();
+    }
+
+    private static Object getParent(Object parentOrCache) {
+        return parentOrCache instanceof Cache ? ((Cache) parentOrCache).parent : parentOrCache;
+    }
+
+    /**
+     * Stores the children of this expression with as little overhead as possible.
+     * Most expressions are unary or binary (e.g., literals, negations, and implications), so their children are
+     * stored in immutable lists without a separate array, while the children of other expressions are stored in
+     * array lists without spare capacity.
+     */
+    private void compactChildren() {
+        switch (children.size()) {
+            case 0:
+                children = Collections.emptyList();
+                break;
+            case 1:
+                children = Collections.singletonList(children.get(0));
+                break;
+            case 2:
+                children = List.of(children.get(0), children.get(1));
+                break;
+            default:
+                if (children instanceof ArrayList) {
+                    ((ArrayList<IExpression>) children).trimToSize();
+                } else {
+                    children = new ArrayList<>(children);
+                }
+        }
+    }
+
+    /**
+     * Invalidates the cached hash codes of this expression and all of its ancestors.
+     * Must be called whenever an existing expression is modified in a way that affects its {@link #hashCodeNode()},
+     * but not in constructors, as a new expression cannot be contained in any cached subtree.
+     */
+    protected void invalidateHashCodes() {
+        Object parent = this;
+        do {
+            final ANonTerminalExpression expression = (ANonTerminalExpression) parent;
+            if (expression.hashCodeStamp == 0) {
+                // the ancestors of an expression without cached properties cannot have cached properties either
+                return;
+            }
+            expression.hashCodeStamp = 0;
+            final Object parentOrCache = expression.parentOrCache;
+            parent = getParent(parentOrCache);
+            if (parentOrCache instanceof Cache) {
+                PARENT_OR_CACHE.compareAndSet(expression, parentOrCache, parent);
+            }
+        } while (parent instanceof ANonTerminalExpression);
+        if (parent == MULTIPLE_PARENTS) {
+            invalidateAllHashCodes();
+        }
+    }
+
+    private void attachChildren() {
+        for (IExpression child : children) {
+            attachChild(child);
+        }
+    }
+
+    private void attachChild(IExpression child) {
+        if (child instanceof ANonTerminalExpression) {
+            final ANonTerminalExpression expression = (ANonTerminalExpression) child;
+            Object parentOrCache;
+            Object parent;
+            do {
+                parentOrCache = expression.parentOrCache;
+                parent = getParent(parentOrCache);
+                if (parent == this || parent == MULTIPLE_PARENTS) {
+                    return;
+                }
+            } while (!PARENT_OR_CACHE.compareAndSet(
+                    expression, parentOrCache, parent == null ? this : MULTIPLE_PARENTS));
+        }
+    }
+
+    private void detachChildren() {
+        for (IExpression child : children) {
+            if (child instanceof ANonTerminalExpression) {
+                final ANonTerminalExpression expression = (ANonTerminalExpression) child;
+                Object parentOrCache;
+                do {
+                    parentOrCache = expression.parentOrCache;
+                    if (getParent(parentOrCache) != this) {
+                        break;
+                    }
+                } while (!PARENT_OR_CACHE.compareAndSet(expression, parentOrCache, null));
+            }
+        }
+    }
+
+    /**
+     * Modifies the children of this expression, keeping track of their parents.
+     * Children that are removed no longer refer to this expression, and the cached properties of this expression
+     * and its ancestors are invalidated.
+     *
+     * @param modification the modification
+     */
+    private void modifyChildren(Runnable modification) {
+        detachChildren();
+        if (!(children instanceof ArrayList)) {
+            children = new ArrayList<>(children);
+        }
+        try {
+            modification.run();
+        } finally {
+            compactChildren();
+            attachChildren();
+            invalidateHashCodes();
+        }
     }
 
     @Override
@@ -52,6 +244,197 @@ public abstract class ANonTerminalExpression extends ATree<IExpression> implemen
         return Objects.hash(getClass(), getName(), getType());
     }
 
+    /**
+     * {@return the hash code of this expression's subtree}
+     * The hash code is cached until this expression or one of its descendants is modified.
+     */
+    @Override
+    public int hashCodeTree() {
+        final int sharedModificationCount = ANonTerminalExpression.sharedModificationCount.get();
+        final long hashCodeStamp = this.hashCodeStamp;
+        if (hashCodeStamp != 0 && (int) (hashCodeStamp >>> Integer.SIZE) == sharedModificationCount) {
+            return (int) hashCodeStamp;
+        }
+        int hashCode = hashCodeNode();
+        for (IExpression child : getChildren()) {
+            hashCode = 31 * hashCode + child.hashCodeTree();
+        }
+        this.hashCodeStamp = ((long) sharedModificationCount << Integer.SIZE) | (hashCode & 0xFFFFFFFFL);
+        return hashCode;
+    }
+
+    /**
+     * {@return a mask of the classes of all expressions in this expression's subtree}
+     * The mask is cached until this expression or one of its descendants is modified.
+     */
+    @Override
+    public long getClassMask() {
+        return getCache().classMask;
+    }
+
+    /**
+     * {@return the normal forms this expression is in}
+     * The normal forms are cached until this expression or one of its descendants is modified.
+     */
+    @Override
+    public int getNormalForms() {
+        return getCache().normalForms;
+    }
+
+    private Cache getCache() {
+        // properties are only cached along with the hash code, which is what invalidation checks for
+        hashCodeTree();
+        final int sharedModificationCount = ANonTerminalExpression.sharedModificationCount.get();
+        final Object parentOrCache = this.parentOrCache;
+        if (parentOrCache instanceof Cache
+                && ((Cache) parentOrCache).sharedModificationCount == sharedModificationCount) {
+            return (Cache) parentOrCache;
+        }
+        final Cache cache = new Cache(
+                getParent(parentOrCache),
+                sharedModificationCount,
+                ExpressionProperties.computeNormalForms(this),
+                ExpressionProperties.computeClassMask(this),
+                null);
+        // if the parent changed in the meantime, the properties are just not cached
+        PARENT_OR_CACHE.compareAndSet(this, parentOrCache, cache);
+        return cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map is cached until this expression or one of its descendants is modified,
+     * so only a copy of the cached map is created.
+     */
+    @Override
+    public LinkedHashMap<String, Variable> getVariableMap() {
+        Cache cache = getCache();
+        if (cache.variableMap == null) {
+            final Cache previousCache = cache;
+            cache = new Cache(
+                    cache.parent,
+                    cache.sharedModificationCount,
+                    cache.normalForms,
+                    cache.classMask,
+                    IExpression.super.getVariableMap());
+            PARENT_OR_CACHE.compareAndSet(this, previousCache, cache);
+        }
+        return new LinkedHashMap<>(cache.variableMap);
+    }
+
+    /**
+     * {@return whether this expression's subtree is equal to the given subtree}
+     * Returns early when the (cached) hash codes differ.
+     */
+    @Override
+    public boolean equalsTree(IExpression other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass() || hashCodeTree() != other.hashCodeTree()) {
+            return false;
+        }
+        if (!equalsNode(other)) {
+            return false;
+        }
+        final List<? extends IExpression> children = getChildren();
+        final List<? extends IExpression> otherChildren = other.getChildren();
+        if (children.size() != otherChildren.size()) {
+            return false;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (!children.get(i).equalsTree(otherChildren.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCodeTree();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IExpression && equalsTree((IExpression) obj);
+    }
+
+    @Override
+    public List<? extends IExpression> getChildren() {
+        return children instanceof ArrayList ? Collections.unmodifiableList(children) : children;
+    }
+
+    @Override
+    public void setChildren(List<? extends IExpression> children) {
+        modifyChildren(() -> super.setChildren(children));
+    }
+
+    @Override
+    public void addChild(int index, IExpression child) {
+        if (children instanceof ArrayList) {
+            super.addChild(index, child);
+            attachChild(child);
+            invalidateHashCodes();
+        } else {
+            modifyChildren(() -> super.addChild(index, child));
+        }
+    }
+
+    @Override
+    public void addChild(IExpression child) {
+        if (children instanceof ArrayList) {
+            // keeps the spare capacity, so adding many children takes amortized constant time
+            super.addChild(child);
+            attachChild(child);
+            invalidateHashCodes();
+        } else {
+            modifyChildren(() -> super.addChild(child));
+        }
+    }
+
+    @Override
+    public void removeChild(IExpression child) {
+        modifyChildren(() -> super.removeChild(child));
+    }
+
+    @Override
+    public IExpression removeChild(int index) {
+        final IExpression child = getChildren().get(index);
+        modifyChildren(() -> super.removeChild(index));
+        return child;
+    }
+
+    @Override
+    public void replaceChild(IExpression oldChild, IExpression newChild) {
+        modifyChildren(() -> super.replaceChild(oldChild, newChild));
+    }
+
+    @Override
+    public void replaceChild(int index, IExpression child) {
+        modifyChildren(() -> super.replaceChild(index, child));
+    }
+
+    @Override
+    public void replaceChildren(Function<? super IExpression, ? extends IExpression> mapper) {
+        modifyChildren(() -> super.replaceChildren(mapper));
+    }
+
+    @Override
+    public void flatReplaceChildren(Function<? super IExpression, ? extends List<? extends IExpression>> mapper) {
+        modifyChildren(() -> super.flatReplaceChildren(mapper));
+    }
+
+    @Override
+    public void clearChildren() {
+        modifyChildren(super::clearChildren);
+    }
+
+    @Override
+    public void sort(Comparator<IExpression> comparator) {
+        modifyChildren(() -> super.sort(comparator));
+    }
+
     @Override
     public String toString() {
         if (hasChildren()) {
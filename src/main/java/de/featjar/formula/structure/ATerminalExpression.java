@@ -30,6 +30,22 @@ import java.util.Objects;
  * @author Elias Kuiter
  */
 public abstract class ATerminalExpression extends ALeafNode<IExpression> implements IExpression {
+    /**
+     * Invalidates the cached hash codes of all expressions.
+     * Must be called whenever an existing terminal expression is modified in a way that affects its
+     * {@link #hashCodeNode()}, but not in constructors.
+     * Terminal expressions do not know their parents, as they are often shared (e.g., interned variables),
+     * so this invalidates the caches of unrelated expressions as well.
+     */
+    protected static void invalidateHashCodes() {
+        ANonTerminalExpression.invalidateAllHashCodes();
+    }
+
+    @Override
+    public long getClassMask() {
+        return ExpressionProperties.getClassMask(getClass());
+    }
+
     @Override
     public boolean equalsNode(IExpression other) {
         return (getClass() == other.getClass())
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import java.util.Collection;
+
+/**
+ * An expression kind that tests expressions using their cached {@link IExpression#getClassMask() class mask}.
+ * Which classes are allowed is determined lazily per class bit, so a test takes constant time
+ * once the expression's class mask is known.
+ *
+ * @author Elias Kuiter
+ */
+class ClassMaskExpressionKind implements ExpressionKind {
+    private final String name;
+    private final Collection<Class<? extends IExpression>> allowedClasses;
+    private volatile long allowedMask;
+    private volatile long knownMask;
+
+    ClassMaskExpressionKind(String name, Collection<Class<? extends IExpression>> allowedClasses) {
+        this.name = name;
+        this.allowedClasses = allowedClasses;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Collection<Class<? extends IExpression>> getAllowedClasses() {
+        return allowedClasses;
+    }
+
+    @Override
+    public boolean test(IExpression expression) {
+        final long classMask = expression.getClassMask();
+        if ((classMask & ExpressionProperties.OVERFLOW_CLASS) != 0) {
+            return ExpressionKind.super.test(expression);
+        }
+        return (classMask & ~getAllowedMask(classMask)) == 0;
+    }
+
+    private long getAllowedMask(long classMask) {
+        if ((classMask & ~knownMask) != 0) {
+            synchronized (this) {
+                long unknownMask = classMask & ~knownMask;
+                long newAllowedMask = allowedMask;
+                while (unknownMask != 0) {
+                    final int index = Long.numberOfTrailingZeros(unknownMask);
+                    final Class<?> type = ExpressionProperties.getClass(index);
+                    if (allowedClasses.stream().anyMatch(c -> c.isAssignableFrom(type))) {
+                        newAllowedMask |= 1L << index;
+                    }
+                    unknownMask &= unknownMask - 1;
+                }
+                allowedMask = newAllowedMask;
+                knownMask |= classMask;
+            }
+        }
+        return allowedMask;
+    }
+}
@@ -35,6 +35,8 @@ import java.util.stream.Stream;
 /**
  * Tests whether a given expression only contains certain kinds of elements.
  * Can be used to test whether an expression is (non-)Boolean.
+ * Kinds created with {@link #of(String, Class[])} and {@link #extend(String, ExpressionKind, Class[])}
+ * test expressions in constant time using their cached {@link IExpression#getClassMask() class mask}.
  *
  * @author Elias Kuiter
  */
@@ -112,17 +114,7 @@ public interface ExpressionKind extends Predicate<IExpression> {
     @SafeVarargs
     static ExpressionKind of(String name, Class<? extends IExpression>... allowedClasses) {
         LinkedHashSet<Class<? extends IExpression>> allowedClassesSet = Sets.of(allowedClasses);
-        return new ExpressionKind() {
-            @Override
-            public String getName() {
-                return name;
-            }
-
-            @Override
-            public Collection<Class<? extends IExpression>> getAllowedClasses() {
-                return allowedClassesSet;
-            }
-        };
+        return new ClassMaskExpressionKind(name, allowedClassesSet);
     }
 
     @SafeVarargs
@@ -130,17 +122,7 @@ public interface ExpressionKind extends Predicate<IExpression> {
             String name, ExpressionKind expressionKind, Class<? extends IExpression>... allowedClasses) {
         LinkedHashSet<Class<? extends IExpression>> allowedClassesSet =
                 Sets.union(expressionKind.getAllowedClasses(), List.of(allowedClasses));
-        return new ExpressionKind() {
-            @Override
-            public String getName() {
-                return name;
-            }
-
-            @Override
-            public Collection<Class<? extends IExpression>> getAllowedClasses() {
-                return allowedClassesSet;
-            }
-        };
+        return new ClassMaskExpressionKind(name, allowedClassesSet);
     }
 
     static ExpressionKind getExpressionKind(IExpression expression) {
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import de.featjar.formula.structure.formula.FormulaNormalForm;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.IPredicate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Computes structural properties of expressions bottom-up, so they can be cached per node.
+ * Each expression class is assigned a bit in a class mask, so that the classes occurring in a subtree
+ * (and thus its {@link ExpressionKind}) can be represented by a single {@code long}.
+ * Also computes whether an expression is in (strict) normal form, as defined by the
+ * {@link de.featjar.formula.tester.ANormalFormTester normal form testers}.
+ *
+ * @author Elias Kuiter
+ */
+public final class ExpressionProperties {
+    /**
+     * Shared bit for all classes that do not fit into the class mask.
+     */
+    public static final long OVERFLOW_CLASS = 1L << (Long.SIZE - 1);
+
+    private static final int NNF = 1;
+    private static final int STRICT_NNF = 1 << 1;
+    private static final int CNF = 1 << 2;
+    private static final int STRICT_CNF = 1 << 3;
+    private static final int DNF = 1 << 4;
+    private static final int STRICT_DNF = 1 << 5;
+    private static final int OR_OF_PREDICATES = 1 << 6;
+    private static final int AND_OF_PREDICATES = 1 << 7;
+
+    private static final AtomicInteger classCount = new AtomicInteger();
+    private static final AtomicReferenceArray<Class<?>> classes = new AtomicReferenceArray<>(Long.SIZE - 1);
+    private static final ClassValue<Long> classMasks = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            final int index = classCount.getAndIncrement();
+            if (index >= Long.SIZE - 1) {
+                return OVERFLOW_CLASS;
+            }
+            classes.set(index, type);
+            return 1L << index;
+        }
+    };
+
+    private ExpressionProperties() {}
+
+    /**
+     * {@return the bit assigned to the given expression class}
+     *
+     * @param type the expression class
+     */
+    public static long getClassMask(Class<?> type) {
+        return classMasks.get(type);
+    }
+
+    /**
+     * {@return the expression class assigned to the given bit index, if any}
+     *
+     * @param index the bit index
+     */
+    public static Class<?> getClass(int index) {
+        return index < Long.SIZE - 1 ? classes.get(index) : null;
+    }
+
+    /**
+     * {@return the class mask of the given expression, computed from its children's class masks}
+     *
+     * @param expression the expression
+     */
+    public static long computeClassMask(IExpression expression) {
+        long classMask = getClassMask(expression.getClass());
+        for (IExpression child : expression.getChildren()) {
+            classMask |= child.getClassMask();
+        }
+        return classMask;
+    }
+
+    /**
+     * {@return the normal form flags of the given expression, computed from its children's normal form flags}
+     *
+     * @param expression the expression
+     */
+    public static int computeNormalForms(IExpression expression) {
+        if (expression instanceof IPredicate) {
+            return NNF | STRICT_NNF | CNF | DNF;
+        }
+        if (!(expression instanceof IFormula)) {
+            return 0;
+        }
+        final List<? extends IExpression> children = expression.getChildren();
+        if (expression instanceof Not) {
+            return children.size() == 1 && children.get(0) instanceof IPredicate ? NNF : 0;
+        }
+        final boolean isAnd = expression instanceof And;
+        if (!isAnd && !(expression instanceof Or)) {
+            return 0;
+        }
+        final int clauseFlag = isAnd ? OR_OF_PREDICATES : AND_OF_PREDICATES;
+        int childFlags = NNF | STRICT_NNF | clauseFlag;
+        boolean isPredicates = true;
+        boolean isPredicatesOrClauses = true;
+        for (IExpression child : children) {
+            final int flags = child.getNormalForms();
+            childFlags &= flags;
+            if (!(child instanceof IPredicate)) {
+                isPredicates = false;
+                isPredicatesOrClauses &= (flags & clauseFlag) != 0;
+            }
+        }
+        int normalForms = childFlags & (NNF | STRICT_NNF);
+        if (isPredicates) {
+            normalForms |= CNF | DNF | (isAnd ? AND_OF_PREDICATES : OR_OF_PREDICATES);
+        }
+        if (isPredicatesOrClauses) {
+            normalForms |= isAnd ? CNF : DNF;
+        }
+        if ((childFlags & clauseFlag) != 0) {
+            normalForms |= isAnd ? STRICT_CNF : STRICT_DNF;
+        }
+        return normalForms;
+    }
+
+    /**
+     * {@return whether the given normal form flags include the given normal form}
+     *
+     * @param normalForms the normal form flags
+     * @param formulaNormalForm the normal form
+     * @param isStrict whether to test for the strict normal form
+     */
+    public static boolean isNormalForm(int normalForms, FormulaNormalForm formulaNormalForm, boolean isStrict) {
+        final int flag;
+        switch (formulaNormalForm) {
+            case NNF:
+                flag = isStrict ? STRICT_NNF : NNF;
+                break;
+            case CNF:
+                flag = isStrict ? STRICT_CNF : CNF;
+                break;
+            case DNF:
+                flag = isStrict ? STRICT_DNF : DNF;
+                break;
+            default:
+                throw new IllegalArgumentException(String.valueOf(formulaNormalForm));
+        }
+        return (normalForms & flag) != 0;
+    }
+}
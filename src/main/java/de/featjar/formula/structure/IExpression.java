@@ -180,6 +180,22 @@ public interface IExpression extends ITree<IExpression> {
         }
     }
 
+    /**
+     * {@return a mask of the classes of all expressions in this expression's subtree}
+     * See {@link ExpressionProperties#getClassMask(Class)}.
+     */
+    default long getClassMask() {
+        return ExpressionProperties.computeClassMask(this);
+    }
+
+    /**
+     * {@return the normal forms this expression is in}
+     * See {@link ExpressionProperties#isNormalForm(int, de.featjar.formula.structure.formula.FormulaNormalForm, boolean)}.
+     */
+    default int getNormalForms() {
+        return ExpressionProperties.computeNormalForms(this);
+    }
+
     default boolean isKind(ExpressionKind expressionKind) {
         return expressionKind.test(this);
     }
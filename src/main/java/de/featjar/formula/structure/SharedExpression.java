@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import de.featjar.formula.structure.formula.IFormula;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable node in a hash-consed expression DAG.
+ * Created by a {@link SharedExpressionFactory}, which guarantees that structurally equal expressions
+ * are represented by the same instance.
+ * Thus, two shared expressions from the same factory are equal iff they are identical,
+ * and their hash code is computed only once.
+ *
+ * @author Sebastian Krieter
+ */
+public final class SharedExpression {
+    private static final SharedExpression[] NO_CHILDREN = new SharedExpression[0];
+
+    private final IExpression node;
+    private final SharedExpression[] children;
+    private final int hashCode;
+    private int id = -1;
+
+    SharedExpression(IExpression node, SharedExpression[] children) {
+        this.node = node;
+        this.children = children.length == 0 ? NO_CHILDREN : children;
+        int hashCode = node.hashCodeNode();
+        for (SharedExpression child : children) {
+            hashCode = 31 * hashCode + child.hashCode;
+        }
+        this.hashCode = hashCode;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * {@return the unique id of this expression in its factory}
+     * Ids are assigned in creation order, so children always have smaller ids than their parents.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * {@return the operator of this expression as an expression without children}
+     * The returned expression must not be modified.
+     */
+    public IExpression getNode() {
+        return node;
+    }
+
+    public List<SharedExpression> getChildren() {
+        return Collections.unmodifiableList(Arrays.asList(children));
+    }
+
+    public SharedExpression getChild(int index) {
+        return children[index];
+    }
+
+    public int getChildrenCount() {
+        return children.length;
+    }
+
+    public boolean hasChildren() {
+        return children.length > 0;
+    }
+
+    /**
+     * {@return a new expression tree that is structurally equal to this expression}
+     * Shared subexpressions are cloned for each of their occurrences.
+     */
+    public IExpression toExpression() {
+        // uses explicit stacks, as expressions may be nested too deeply for recursion
+        final ArrayDeque<SharedExpression> stack = new ArrayDeque<>();
+        final ArrayDeque<Integer> indices = new ArrayDeque<>();
+        final ArrayDeque<IExpression> expressions = new ArrayDeque<>();
+        stack.push(this);
+        indices.push(0);
+        while (!stack.isEmpty()) {
+            final SharedExpression sharedExpression = stack.peek();
+            final int index = indices.pop();
+            if (index < sharedExpression.children.length) {
+                indices.push(index + 1);
+                stack.push(sharedExpression.children[index]);
+                indices.push(0);
+            } else {
+                stack.pop();
+                final IExpression expression = (IExpression) sharedExpression.node.cloneNode();
+                if (sharedExpression.children.length > 0) {
+                    final IExpression[] childExpressions = new IExpression[sharedExpression.children.length];
+                    for (int i = childExpressions.length - 1; i >= 0; i--) {
+                        childExpressions[i] = expressions.pop();
+                    }
+                    expression.setChildren(Arrays.asList(childExpressions));
+                }
+                expressions.push(expression);
+            }
+        }
+        return expressions.pop();
+    }
+
+    /**
+     * {@return a new formula tree that is structurally equal to this expression}
+     *
+     * @throws ClassCastException if this expression is not a formula
+     */
+    public IFormula toFormula() {
+        return (IFormula) toExpression();
+    }
+
+    /**
+     * {@return whether the given object has an equal operator and identical children}
+     * For canonical expressions of the same factory, this is equivalent to identity.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        SharedExpression other = (SharedExpression) obj;
+        if (hashCode != other.hashCode || children.length != other.children.length) {
+            return false;
+        }
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] != other.children[i]) {
+                return false;
+            }
+        }
+        return node.equalsNode(other.node);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        if (children.length == 0) {
+            return node.getName();
+        }
+        final StringBuilder sb = new StringBuilder();
+        sb.append(node.getName());
+        sb.append("(");
+        for (SharedExpression child : children) {
+            sb.append('#');
+            sb.append(child.id);
+            sb.append(", ");
+        }
+        sb.replace(sb.length() - 2, sb.length(), ")");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Creates hash-consed {@link SharedExpression shared expressions}.
+ * Structurally equal subexpressions are stored only once, which saves memory for formulas
+ * with many repeated subformulas and reduces equality checks to identity checks.
+ * Expressions from different factories must not be mixed.
+ *
+ * @author Sebastian Krieter
+ */
+public class SharedExpressionFactory {
+
+    private final HashMap<SharedExpression, SharedExpression> expressions = new HashMap<>();
+    private final List<SharedExpression> expressionList = new ArrayList<>();
+
+    /**
+     * {@return the canonical shared expression with the given operator and children}
+     *
+     * @param node the operator, whose children are ignored
+     * @param children the children, which must be created by this factory
+     */
+    public synchronized SharedExpression get(IExpression node, SharedExpression... children) {
+        SharedExpression canonicalExpression = expressions.get(new SharedExpression(node, children));
+        if (canonicalExpression == null) {
+            canonicalExpression = new SharedExpression((IExpression) node.cloneNode(), children.clone());
+            canonicalExpression.setId(expressionList.size());
+            expressions.put(canonicalExpression, canonicalExpression);
+            expressionList.add(canonicalExpression);
+        }
+        return canonicalExpression;
+    }
+
+    /**
+     * {@return the canonical shared expression for the given expression tree}
+     *
+     * @param expression the expression
+     */
+    public SharedExpression get(IExpression expression) {
+        // uses explicit stacks, as expressions may be nested too deeply for recursion
+        final ArrayDeque<IExpression> stack = new ArrayDeque<>();
+        final ArrayDeque<Integer> indices = new ArrayDeque<>();
+        final ArrayDeque<SharedExpression> sharedExpressions = new ArrayDeque<>();
+        stack.push(expression);
+        indices.push(0);
+        while (!stack.isEmpty()) {
+            final IExpression node = stack.peek();
+            final int index = indices.pop();
+            final List<? extends IExpression> children = node.getChildren();
+            if (index < children.size()) {
+                indices.push(index + 1);
+                stack.push(children.get(index));
+                indices.push(0);
+            } else {
+                stack.pop();
+                final SharedExpression[] sharedChildren = new SharedExpression[children.size()];
+                for (int i = sharedChildren.length - 1; i >= 0; i--) {
+                    sharedChildren[i] = sharedExpressions.pop();
+                }
+                sharedExpressions.push(get(node, sharedChildren));
+            }
+        }
+        return sharedExpressions.pop();
+    }
+
+    /**
+     * {@return the shared expression with the given id}
+     *
+     * @param id the id
+     */
+    public synchronized SharedExpression get(int id) {
+        return expressionList.get(id);
+    }
+
+    /**
+     * {@return the number of distinct expressions created by this factory}
+     */
+    public synchronized int size() {
+        return expressionList.size();
+    }
+}
@@ -28,19 +28,17 @@ import de.featjar.formula.analysis.VariableMap;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.ComputeBooleanClauseList;
 import de.featjar.formula.analysis.value.IValueRepresentation;
+import de.featjar.formula.structure.ExpressionProperties;
 import de.featjar.formula.structure.IExpression;
 import de.featjar.formula.structure.formula.connective.AQuantifier;
 import de.featjar.formula.structure.formula.connective.IConnective;
 import de.featjar.formula.structure.formula.predicate.IPredicate;
 import de.featjar.formula.structure.term.value.Variable;
-import de.featjar.formula.tester.ANormalFormTester;
-import de.featjar.formula.tester.CNFTester;
-import de.featjar.formula.tester.DNFTester;
-import de.featjar.formula.tester.NNFTester;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import de.featjar.formula.transformer.ComputeDNFFormula;
 import de.featjar.formula.transformer.ComputeNNFFormula;
 import java.util.LinkedHashSet;
+import java.util.stream.Collectors;
 
 /**
  * A well-formed formula.
@@ -83,10 +81,7 @@ public interface IFormula extends IExpression, IValueRepresentation {
     }
 
     private boolean isNormalForm(FormulaNormalForm formulaNormalForm, boolean isStrict) {
-        ANormalFormTester normalFormTester = formulaNormalForm == FormulaNormalForm.NNF
-                ? new NNFTester(isStrict)
-                : formulaNormalForm == FormulaNormalForm.CNF ? new CNFTester(isStrict) : new DNFTester(isStrict);
-        return normalFormTester.test(this);
+        return ExpressionProperties.isNormalForm(getNormalForms(), formulaNormalForm, isStrict);
     }
 
     /**
@@ -164,6 +159,21 @@ public interface IFormula extends IExpression, IValueRepresentation {
         return toStrictNormalForm(FormulaNormalForm.DNF);
     }
 
+    /**
+     * {@return a clone of this formula that only clones connectives and shares all predicates with this formula}
+     * Suffices as a copy for transformations that rearrange connectives, but never modify predicates.
+     */
+    default IFormula cloneConnectives() {
+        if (this instanceof IPredicate) {
+            return this;
+        }
+        IFormula clone = (IFormula) cloneNode();
+        clone.setChildren(getChildren().stream()
+                .map(child -> child instanceof IFormula ? ((IFormula) child).cloneConnectives() : child.cloneTree())
+                .collect(Collectors.toList()));
+        return clone;
+    }
+
     @Override
     default LinkedHashSet<String> getVariableNames() {
         return IExpression.super.getVariableNames();
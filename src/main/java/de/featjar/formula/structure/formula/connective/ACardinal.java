@@ -61,6 +61,7 @@ public abstract class ACardinal extends ANonTerminalExpression implements IConne
     protected void setRange(Range range) {
         assertChildrenCountInRange(getChildrenCount());
         this.range = range;
+        invalidateHashCodes();
     }
 
     private Range atLeastTheLargerBound(Range range) {
@@ -38,12 +38,12 @@ public abstract class AQuantifier extends ANonTerminalExpression implements ICon
     protected Variable boundVariable;
 
     protected AQuantifier(AQuantifier quantifier) {
-        setBoundVariable(quantifier.boundVariable);
+        this.boundVariable = quantifier.boundVariable;
     }
 
     public AQuantifier(Variable boundVariable, IFormula formula) {
         super(formula);
-        setBoundVariable(boundVariable);
+        this.boundVariable = Objects.requireNonNull(boundVariable);
     }
 
     public Variable getBoundVariable() {
@@ -53,6 +53,7 @@ public abstract class AQuantifier extends ANonTerminalExpression implements ICon
     public void setBoundVariable(Variable boundVariable) {
         Objects.requireNonNull(boundVariable);
         this.boundVariable = boundVariable;
+        invalidateHashCodes();
     }
 
     @Override
@@ -59,6 +59,7 @@ public class Between extends ACardinal {
 
     public void setMinimum(int minimum) {
         super.getRange().setLowerBound(minimum);
+        invalidateHashCodes();
     }
 
     public int getMaximum() {
@@ -67,5 +68,6 @@ public class Between extends ACardinal {
 
     public void setMaximum(int maximum) {
         super.getRange().setUpperBound(maximum);
+        invalidateHashCodes();
     }
 }
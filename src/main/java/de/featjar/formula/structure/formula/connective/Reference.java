@@ -100,6 +100,24 @@ public class Reference extends ANonTerminalExpression implements IConnective, IU
         return this;
     }
 
+    /**
+     * Same as {@link #setFormula(IFormula)} if mutating in place.
+     * Otherwise, creates a new reference to the given formula with the same free variables as this reference.
+     * @param formula the new formula to reference
+     * @param isInPlace whether to mutate this reference
+     * @return the reference to the given formula
+     */
+    public Reference setFormula(IFormula formula, boolean isInPlace) {
+        if (isInPlace) {
+            return setFormula(formula);
+        }
+        Reference reference = new Reference(formula);
+        if (freeVariables != null) {
+            reference.setFreeVariables(freeVariables);
+        }
+        return reference;
+    }
+
     @Override
     public LinkedHashMap<String, Variable> getVariableMap() {
         LinkedHashMap<String, Variable> variables = super.getVariableMap();
@@ -137,6 +155,29 @@ public class Reference extends ANonTerminalExpression implements IConnective, IU
         return fn.apply(cloneTree).map(result -> cloneTree);
     }
 
+    /**
+     * Wraps the given formula inside a reference, if necessary, and executes a given function.
+     * If the formula is not mutated in place, only its connectives are cloned beforehand,
+     * so the function must not modify any predicates.
+     *
+     * @param formula the formula
+     * @param isInPlace whether to mutate the given formula, which must then be owned by the caller
+     * @param fn the function
+     * @return the result of mutating the (cloned) formula
+     */
+    public static Result<IFormula> mutate(IFormula formula, boolean isInPlace, Function<Reference, Result<?>> fn) {
+        if (!isInPlace) {
+            formula = formula.cloneConnectives();
+        }
+        if (formula instanceof Reference) {
+            Reference formulaReference = (Reference) formula;
+            return fn.apply(formulaReference).map(result -> formulaReference);
+        } else {
+            Reference formulaReference = new Reference(formula);
+            return fn.apply(formulaReference).map(result -> formulaReference.getExpression());
+        }
+    }
+
     /**
      * Clones the given formula, wraps it inside a reference, and executes a given function.
      * Useful to traverse a formula with {@link ITreeVisitor} that
@@ -67,6 +67,7 @@ public class Literal extends ANonTerminalExpression implements IUnaryExpression,
 
     public void setPositive(boolean isPositive) {
         this.isPositive = isPositive;
+        invalidateHashCodes();
     }
 
     @Override
@@ -85,6 +86,24 @@ public class Literal extends ANonTerminalExpression implements IUnaryExpression,
         return isPositive ? "+" : "-";
     }
 
+    /**
+     * {@inheritDoc}
+     * Not cached, as the only child of a literal is a terminal expression.
+     */
+    @Override
+    public long getClassMask() {
+        return ExpressionProperties.computeClassMask(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Not cached, as the normal forms of a literal do not depend on its child.
+     */
+    @Override
+    public int getNormalForms() {
+        return ExpressionProperties.computeNormalForms(this);
+    }
+
     @Override
     public Class<Boolean> getChildrenType() {
         return Boolean.class;
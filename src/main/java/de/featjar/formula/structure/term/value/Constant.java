@@ -37,8 +37,8 @@ public class Constant extends ATerminalExpression implements IValue {
     protected Class<?> type;
 
     private Constant(Constant constant) {
-        setValue(constant.value);
-        setType(constant.type);
+        this.value = constant.value;
+        this.type = constant.type;
     }
 
     public Constant(Object value, Class<?> type) {
@@ -60,6 +60,7 @@ public class Constant extends ATerminalExpression implements IValue {
 
     public void setValue(Object value) {
         this.value = value;
+        invalidateHashCodes();
     }
 
     @Override
@@ -74,6 +75,7 @@ public class Constant extends ATerminalExpression implements IValue {
 
     public void setType(Class<?> type) {
         this.type = type;
+        invalidateHashCodes();
     }
 
     @Override
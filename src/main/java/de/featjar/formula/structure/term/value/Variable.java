@@ -35,8 +35,8 @@ public class Variable extends ATerminalExpression implements IValue {
     protected Class<?> type;
 
     private Variable(Variable variable) {
-        setName(variable.name);
-        setType(variable.type);
+        this.name = variable.name;
+        this.type = variable.type;
     }
 
     public Variable(String name, Class<?> type) {
@@ -55,6 +55,7 @@ public class Variable extends ATerminalExpression implements IValue {
 
     public void setName(String name) {
         this.name = name;
+        invalidateHashCodes();
     }
 
     @Override
@@ -64,6 +65,7 @@ public class Variable extends ATerminalExpression implements IValue {
 
     public void setType(Class<?> type) {
         this.type = type;
+        invalidateHashCodes();
     }
 
     @Override
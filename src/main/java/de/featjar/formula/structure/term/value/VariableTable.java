@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.term.value;
+
+import de.featjar.base.data.Result;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Interns Boolean variables by name.
+ * Each name is assigned a dense index, starting at 1, and a single {@link Variable} instance,
+ * which is shared by all occurrences of the name.
+ * Thus, parsers can use a variable table to avoid creating a new variable per literal.
+ * As shared variables are visible in all formulas that contain them, they should not be renamed.
+ *
+ * @author Sebastian Krieter
+ */
+public class VariableTable {
+    private final HashMap<String, Integer> indices = new HashMap<>();
+    private final ArrayList<Variable> variables = new ArrayList<>();
+
+    /**
+     * {@return the variable with the given name}
+     * Creates and interns a new variable if the name is not known yet.
+     *
+     * @param name the name
+     */
+    public synchronized Variable get(String name) {
+        return variables.get(getIndex(name) - 1);
+    }
+
+    /**
+     * {@return the index of the variable with the given name}
+     * Creates and interns a new variable if the name is not known yet.
+     *
+     * @param name the name
+     */
+    public synchronized int getIndex(String name) {
+        Integer index = indices.get(name);
+        if (index == null) {
+            variables.add(new Variable(name));
+            index = variables.size();
+            indices.put(name, index);
+        }
+        return index;
+    }
+
+    /**
+     * {@return the variable with the given index, if any}
+     *
+     * @param index the index
+     */
+    public synchronized Result<Variable> get(int index) {
+        return index > 0 && index <= variables.size()
+                ? Result.of(variables.get(index - 1))
+                : Result.empty();
+    }
+
+    /**
+     * {@return whether a variable with the given name is interned}
+     *
+     * @param name the name
+     */
+    public synchronized boolean has(String name) {
+        return indices.containsKey(name);
+    }
+
+    /**
+     * {@return the number of interned variables}
+     */
+    public synchronized int size() {
+        return variables.size();
+    }
+
+    /**
+     * {@return the names of all interned variables, ordered by their index}
+     */
+    public synchronized List<String> getNames() {
+        final ArrayList<String> names = new ArrayList<>(variables.size());
+        for (Variable variable : variables) {
+            names.add(variable.getName());
+        }
+        return names;
+    }
+}
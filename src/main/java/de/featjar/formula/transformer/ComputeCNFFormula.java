@@ -34,10 +34,13 @@ import de.featjar.formula.structure.formula.connective.And;
 import de.featjar.formula.structure.formula.connective.Or;
 import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Transforms a formula into strict conjunctive normal form.
@@ -57,8 +60,9 @@ public class ComputeCNFFormula extends AComputation<IFormula> {
      */
     public static final Dependency<Integer> MAXIMUM_NUMBER_OF_LITERALS = Dependency.newDependency(Integer.class);
     /**
-     * Determines whether this computation is parallel. Use with care! Enabling
-     * parallel computation makes the result of this computation indeterministic.
+     * Determines whether this computation is parallel.
+     * Top-level clauses are transformed concurrently, but merged in their original order,
+     * so the result is the same as for a sequential computation.
      */
     public static final Dependency<Boolean> IS_PARALLEL = Dependency.newDependency(Boolean.class);
 
@@ -67,6 +71,21 @@ public class ComputeCNFFormula extends AComputation<IFormula> {
      */
     public static final Dependency<Boolean> IS_STRICT = Dependency.newDependency(Boolean.class);
 
+    /**
+     * Determines whether the given formula is transformed in place.
+     * Should only be enabled if the formula is owned by this computation.
+     * Otherwise, only connectives are cloned and predicates are shared with the given formula.
+     */
+    public static final Dependency<Boolean> IS_IN_PLACE = Dependency.newDependency(Boolean.class);
+
+    /**
+     * Determines whether equal subformulas are substituted by a single auxiliary variable
+     * while introducing auxiliary variables, instead of unifying duplicate substitutions afterwards.
+     * Does not change the result, but avoids transforming equal subformulas more than once.
+     * In parallel computations, subformulas are only shared within each top-level clause.
+     */
+    public static final Dependency<Boolean> IS_SHARING_SUBFORMULAS = Dependency.newDependency(Boolean.class);
+
     /**
      * Creates a new CNF formula computation.
      *
@@ -78,6 +97,8 @@ public class ComputeCNFFormula extends AComputation<IFormula> {
                 Computations.of(Boolean.FALSE), //
                 Computations.of(Integer.MAX_VALUE), //
                 Computations.of(Boolean.FALSE), //
+                Computations.of(Boolean.TRUE), //
+                Computations.of(Boolean.FALSE), //
                 Computations.of(Boolean.TRUE));
     }
 
@@ -112,74 +133,106 @@ public class ComputeCNFFormula extends AComputation<IFormula> {
         boolean isPlaistedGreenbaum = IS_PLAISTED_GREENBAUM.get(dependencyList);
         boolean isParallel = IS_PARALLEL.get(dependencyList);
         boolean isStrict = IS_STRICT.get(dependencyList);
+        boolean isInPlace = IS_IN_PLACE.get(dependencyList);
+        boolean isSharingSubformulas = IS_SHARING_SUBFORMULAS.get(dependencyList);
+        // sharing across top-level clauses would make the numbering of auxiliary variables depend on scheduling
+        Map<IFormula, Variable> sharedAuxiliaryVariables =
+                isSharingSubformulas && !isParallel ? new HashMap<>() : null;
 
-        List<IFormula> clauseFormulas =
-                isParallel ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
-        List<TseitinTransformer.Substitution> substitutions =
-                isParallel ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
-        Consumer<IFormula> transformer = formula -> {
-            transform(formula, clauseFormulas, substitutions, isPlaistedGreenbaum, maximumNumberOfLiterals);
-            progress.incrementCurrentStep();
-        };
-
-        if (nnfFormula instanceof And) {
-            List<IFormula> children = (List<IFormula>) nnfFormula.getChildren();
-            progress.setTotalSteps(children.size());
-            if (isParallel) {
-                children.parallelStream().forEach(transformer);
-            } else {
-                children.forEach(transformer);
-            }
-        } else {
-            progress.setTotalSteps(1);
-            transformer.accept(nnfFormula);
-        }
+        List<IFormula> children = nnfFormula instanceof And
+                ? (List<IFormula>) nnfFormula.getChildren()
+                : Collections.singletonList(nnfFormula);
+        progress.setTotalSteps(children.size());
+        // the encounter order is kept even for parallel streams, which makes the result deterministic
+        List<PartialCNF> partialCNFs = (isParallel ? children.parallelStream() : children.stream())
+                .map(formula -> {
+                    PartialCNF partialCNF = new PartialCNF();
+                    transform(
+                            formula,
+                            partialCNF.clauseFormulas,
+                            partialCNF.substitutions,
+                            isPlaistedGreenbaum,
+                            maximumNumberOfLiterals,
+                            isInPlace,
+                            isSharingSubformulas && isParallel ? new HashMap<>() : sharedAuxiliaryVariables);
+                    progress.incrementCurrentStep();
+                    return partialCNF;
+                })
+                .collect(Collectors.toList());
 
-        TseitinTransformer.unify(substitutions);
+        List<IFormula> clauseFormulas = new ArrayList<>();
+        List<List<TseitinTransformer.Substitution>> partialSubstitutions = new ArrayList<>(partialCNFs.size());
+        for (PartialCNF partialCNF : partialCNFs) {
+            clauseFormulas.addAll(partialCNF.clauseFormulas);
+            partialSubstitutions.add(partialCNF.substitutions);
+        }
+        List<TseitinTransformer.Substitution> substitutions =
+                TseitinTransformer.unify(partialSubstitutions, isParallel);
         clauseFormulas.addAll(TseitinTransformer.getClauseFormulas(substitutions));
 
         IFormula cnf = new And(clauseFormulas);
         if (isStrict) {
-            cnf = toStrictForm(cnf);
+            cnf = toStrictForm(cnf, true);
         }
         if (referenceFormula != null) {
-            cnf = referenceFormula.setFormula(cnf);
+            cnf = referenceFormula.setFormula(cnf, isInPlace);
         }
         return Result.of(cnf);
     }
 
+    /**
+     * The clauses and substitutions obtained for a single top-level clause.
+     */
+    private static final class PartialCNF {
+        private final List<IFormula> clauseFormulas = new ArrayList<>();
+        private final List<TseitinTransformer.Substitution> substitutions = new ArrayList<>();
+    }
+
     @SuppressWarnings("unchecked")
     private void transform(
             IFormula formula,
             List<IFormula> clauseFormulas,
             List<TseitinTransformer.Substitution> substitutions,
             boolean isPlaistedGreenbaum,
-            int maximumNumberOfLiterals) {
+            int maximumNumberOfLiterals,
+            boolean isInPlace,
+            Map<IFormula, Variable> auxiliaryVariables) {
         if (formula.isStrictNormalForm(FormulaNormalForm.CNF)) {
             clauseFormulas.addAll((List<? extends IFormula>) formula.getChildren());
         } else if (formula.isNormalForm(FormulaNormalForm.CNF)) {
             clauseFormulas.addAll(
-                    (List<? extends IFormula>) toStrictForm(formula).getChildren());
+                    (List<? extends IFormula>) toStrictForm(formula, isInPlace).getChildren());
         } else {
             Result<IFormula> transformationResult = distributiveTransform(
                     formula,
-                    new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(maximumNumberOfLiterals));
+                    new DistributiveTransformer.MaximumNumberOfLiteralsCancelPredicate(maximumNumberOfLiterals),
+                    isInPlace);
             if (transformationResult.isPresent()) {
                 clauseFormulas.addAll(
                         (List<? extends IFormula>) transformationResult.get().getChildren());
                 return;
             }
-            substitutions.addAll(tseitinTransform(formula, isPlaistedGreenbaum));
+            substitutions.addAll(tseitinTransform(formula, isPlaistedGreenbaum, auxiliaryVariables));
         }
     }
 
     protected Result<IFormula> distributiveTransform(
             IFormula formula, DistributiveTransformer.ICancelPredicate cancelPredicate) {
-        return new DistributiveTransformer(true, cancelPredicate).apply(formula);
+        return distributiveTransform(formula, cancelPredicate, false);
+    }
+
+    protected Result<IFormula> distributiveTransform(
+            IFormula formula, DistributiveTransformer.ICancelPredicate cancelPredicate, boolean isInPlace) {
+        return new DistributiveTransformer(true, cancelPredicate, isInPlace).apply(formula);
     }
 
     protected List<TseitinTransformer.Substitution> tseitinTransform(IFormula formula, boolean isPlaistedGreenbaum) {
-        return new TseitinTransformer(isPlaistedGreenbaum).apply(formula);
+        return tseitinTransform(formula, isPlaistedGreenbaum, null);
+    }
+
+    protected List<TseitinTransformer.Substitution> tseitinTransform(
+            IFormula formula, boolean isPlaistedGreenbaum, Map<IFormula, Variable> auxiliaryVariables) {
+        return new TseitinTransformer(isPlaistedGreenbaum, auxiliaryVariables).apply(formula);
     }
 
     @Override
@@ -187,13 +240,17 @@ public class ComputeCNFFormula extends AComputation<IFormula> {
         return new ComputeCNFFormula(this);
     }
 
-    private static IFormula toStrictForm(IFormula formula) {
+    private static IFormula toStrictForm(IFormula formula, boolean isInPlace) {
         if (formula instanceof Literal) {
             formula = new And(new Or(formula));
         } else if (formula instanceof Or) {
             formula = new And(formula);
-        } else {
+        } else if (isInPlace) {
             formula.replaceChildren(child -> (child instanceof Literal) ? new Or((IFormula) child) : child);
+        } else {
+            formula = new And(formula.getChildren().stream()
+                    .map(child -> (child instanceof Literal) ? new Or((IFormula) child) : (IFormula) child)
+                    .collect(Collectors.toList()));
         }
         return formula;
     }
@@ -47,8 +47,15 @@ public class ComputeDNFFormula extends AComputation<IFormula> {
      */
     public static final Dependency<Boolean> IS_STRICT = Dependency.newDependency(Boolean.class);
 
+    /**
+     * Determines whether the given formula is transformed in place.
+     * Should only be enabled if the formula is owned by this computation.
+     * Otherwise, only connectives are cloned and predicates are shared with the given formula.
+     */
+    public static final Dependency<Boolean> IS_IN_PLACE = Dependency.newDependency(Boolean.class);
+
     public ComputeDNFFormula(IComputation<IFormula> nnfFormula) {
-        super(nnfFormula, Computations.of(Boolean.TRUE));
+        super(nnfFormula, Computations.of(Boolean.TRUE), Computations.of(Boolean.FALSE));
     }
 
     protected ComputeDNFFormula(ComputeDNFFormula other) {
@@ -69,11 +76,12 @@ public class ComputeDNFFormula extends AComputation<IFormula> {
             throw new IllegalArgumentException("Formula is not in NNF");
         }
         boolean isStrict = IS_STRICT.get(dependencyList);
-        DistributiveTransformer formulaToDistributiveNFFormula = new DistributiveTransformer(false, null);
+        boolean isInPlace = IS_IN_PLACE.get(dependencyList);
+        DistributiveTransformer formulaToDistributiveNFFormula = new DistributiveTransformer(false, null, isInPlace);
         return formulaToDistributiveNFFormula
                 .apply(nnfFormula)
                 .map(f -> isStrict ? toStrictForm(f) : f)
-                .map(f -> referenceFormula == null ? f : referenceFormula.setFormula(f));
+                .map(f -> referenceFormula == null ? f : referenceFormula.setFormula(f, isInPlace));
     }
 
     private static IFormula toStrictForm(IFormula formula) {
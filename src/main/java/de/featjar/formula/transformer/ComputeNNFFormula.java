@@ -22,24 +22,39 @@ package de.featjar.formula.transformer;
 
 import de.featjar.base.computation.*;
 import de.featjar.base.data.Result;
-import de.featjar.base.tree.Trees;
 import de.featjar.formula.structure.ExpressionKind;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.term.value.Variable;
-import de.featjar.formula.visitor.*;
+import de.featjar.formula.visitor.CardinalityEncoder;
 import java.util.List;
 
 /**
  * Transforms a formula into strict negation normal form.
+ * Uses a single traversal with {@link NNFTransformer}.
  *
  * @author Elias Kuiter
  */
 public class ComputeNNFFormula extends AComputation<IFormula> {
     protected static final Dependency<IFormula> FORMULA = Dependency.newDependency(IFormula.class);
 
+    /**
+     * Determines whether a given formula reference is updated in place.
+     * Should only be enabled if the formula is owned by this computation.
+     * The transformation itself never modifies the formula, but shares predicates with it.
+     */
+    public static final Dependency<Boolean> IS_IN_PLACE = Dependency.newDependency(Boolean.class);
+
+    /**
+     * Determines how cardinality constraints are encoded.
+     * Any encoding other than {@link CardinalityEncoder.Encoding#BINOMIAL} introduces auxiliary variables,
+     * so the resulting formula is only equisatisfiable to the given formula.
+     */
+    public static final Dependency<CardinalityEncoder.Encoding> CARDINALITY_ENCODING =
+            Dependency.newDependency(CardinalityEncoder.Encoding.class);
+
     public ComputeNNFFormula(IComputation<IFormula> formula) {
-        super(formula);
+        super(formula, Computations.of(Boolean.FALSE), Computations.of(CardinalityEncoder.Encoding.BINOMIAL));
     }
 
     protected ComputeNNFFormula(ComputeNNFFormula other) {
@@ -54,11 +69,13 @@ public class ComputeNNFFormula extends AComputation<IFormula> {
                 : getVariables(formula);
         if (variables.isEmpty()) throw new IllegalArgumentException("requires at least one variable");
         Variable variable = variables.get(0);
-        return Reference.mutateClone(formula, reference -> Trees.traverse(reference, new ConnectiveSimplifier())
-                .flatMap(_void -> Trees.traverse(reference, new DeMorganApplier()))
-                .flatMap(_void -> Trees.traverse(reference, new TrueFalseSimplifier()))
-                .flatMap(_void -> Trees.traverse(reference, new TrueFalseRemover(variable)))
-                .flatMap(_void -> Trees.traverse(reference, new AndOrSimplifier())));
+        boolean isInPlace = IS_IN_PLACE.get(dependencyList);
+        NNFTransformer transformer = new NNFTransformer(variable, CARDINALITY_ENCODING.get(dependencyList));
+        if (formula instanceof Reference) {
+            Reference reference = (Reference) formula;
+            return transformer.apply(reference.getExpression()).map(f -> reference.setFormula(f, isInPlace));
+        }
+        return transformer.apply(formula);
     }
 
     private List<Variable> getVariables(IFormula formula) {
@@ -103,6 +103,7 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
     protected final Class<? extends IConnective> clauseClass;
     protected final Function<List<? extends IFormula>, IFormula> clauseConstructor;
     protected final ICancelPredicate cancelPredicate;
+    protected final boolean isInPlace;
 
     /**
      * Creates a new distributive transformer.
@@ -118,6 +119,18 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
      * @param cancelPredicate the cancel predicate, if any
      */
     public DistributiveTransformer(boolean isCNF, ICancelPredicate cancelPredicate) {
+        this(isCNF, cancelPredicate, false);
+    }
+
+    /**
+     * Creates a new distributive transformer.
+     *
+     * @param isCNF whether strict CNF or DNF should be computed
+     * @param cancelPredicate the cancel predicate, if any
+     * @param isInPlace whether to transform formulas in place, otherwise only their connectives are cloned
+     */
+    public DistributiveTransformer(boolean isCNF, ICancelPredicate cancelPredicate, boolean isInPlace) {
+        this.isInPlace = isInPlace;
         this.cancelPredicate = cancelPredicate != null ? cancelPredicate : clause -> null;
         this.isCNF = isCNF;
         if (this.isCNF) {
@@ -132,7 +145,9 @@ public class DistributiveTransformer implements Function<IFormula, Result<IFormu
     @Override
     public Result<IFormula> apply(IFormula formula) {
         ExpressionKind.NNF.assertFor(formula);
-        formula = (IFormula) formula.cloneTree();
+        if (!isInPlace) {
+            formula = formula.cloneConnectives();
+        }
         if (isCNF) formula = (formula instanceof And) ? (And) formula : new And(formula);
         else formula = (formula instanceof Or) ? (Or) formula : new Or(formula);
 
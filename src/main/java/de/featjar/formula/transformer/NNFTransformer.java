@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.formula.structure.Expressions;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.False;
+import de.featjar.formula.structure.formula.predicate.IInvertiblePredicate;
+import de.featjar.formula.structure.formula.predicate.IPredicate;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.formula.predicate.True;
+import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.visitor.AndOrSimplifier;
+import de.featjar.formula.visitor.CardinalityEncoder;
+import de.featjar.formula.visitor.ConnectiveSimplifier;
+import de.featjar.formula.visitor.DeMorganApplier;
+import de.featjar.formula.visitor.TrueFalseRemover;
+import de.featjar.formula.visitor.TrueFalseSimplifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms a formula into strict negation normal form in a single traversal.
+ * Yields the same formula as applying {@link ConnectiveSimplifier}, {@link DeMorganApplier},
+ * {@link TrueFalseSimplifier}, {@link TrueFalseRemover}, and {@link AndOrSimplifier} in sequence.
+ * Instead of rewriting the formula five times, negations are passed down as a polarity,
+ * and each connective is simplified right after its children have been transformed.
+ * Does not modify its input, but shares its predicates with the transformed formula.
+ * Cardinality constraints are encoded with a {@link CardinalityEncoder} according to their polarity,
+ * and the definitions of its auxiliary variables are conjoined with the transformed formula.
+ *
+ * @author Sebastian Krieter
+ */
+public class NNFTransformer implements Function<IFormula, Result<IFormula>> {
+    /**
+     * Thrown to show that a formula cannot be transformed into negation normal form.
+     */
+    private static class UnsupportedFormulaException extends Exception {
+        private static final long serialVersionUID = 2968934458317012384L;
+
+        private UnsupportedFormulaException(IExpression expression) {
+            super("cannot transform " + expression.getName() + " into negation normal form");
+        }
+    }
+
+    protected final Variable variable;
+    protected final CardinalityEncoder.Encoding encoding;
+
+    /**
+     * Creates a new NNF transformer that uses the binomial encoding for cardinality constraints.
+     *
+     * @param variable the variable used to replace {@link Expressions#True} and {@link Expressions#False}
+     */
+    public NNFTransformer(Variable variable) {
+        this(variable, CardinalityEncoder.Encoding.BINOMIAL);
+    }
+
+    /**
+     * Creates a new NNF transformer.
+     *
+     * @param variable the variable used to replace {@link Expressions#True} and {@link Expressions#False}
+     * @param encoding the encoding for cardinality constraints
+     */
+    public NNFTransformer(Variable variable, CardinalityEncoder.Encoding encoding) {
+        this.variable = variable;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public Result<IFormula> apply(IFormula formula) {
+        try {
+            final CardinalityEncoder encoder = new CardinalityEncoder(encoding);
+            IFormula nnf = transform(formula, false, encoder);
+            final List<IFormula> definitions = encoder.getDefinitions();
+            if (!definitions.isEmpty()) {
+                final ArrayList<IFormula> children = new ArrayList<>();
+                children.add(nnf);
+                // transforming a definition may add further definitions for nested cardinality constraints
+                for (int i = 0; i < definitions.size(); i++) {
+                    children.add(transform(definitions.get(i), false, encoder));
+                }
+                nnf = simplify(true, children);
+            }
+            return Result.of(simplifyChild(nnf));
+        } catch (UnsupportedFormulaException e) {
+            return Result.empty(new Problem(e));
+        }
+    }
+
+    /**
+     * A connective whose children are currently transformed.
+     */
+    private static final class Frame {
+        private final List<? extends IExpression> children;
+        private final ArrayList<IFormula> newChildren;
+        private final boolean isNegated;
+        private final boolean isAnd;
+        private int index;
+
+        private Frame(List<? extends IExpression> children, boolean isNegated, boolean isAnd) {
+            this.children = children;
+            this.newChildren = new ArrayList<>(children.size());
+            this.isNegated = isNegated;
+            this.isAnd = isAnd;
+        }
+    }
+
+    private IFormula transform(IFormula formula, boolean isNegated, CardinalityEncoder encoder)
+            throws UnsupportedFormulaException {
+        // uses an explicit stack, as formulas may be nested too deeply for recursion
+        final ArrayDeque<Frame> stack = new ArrayDeque<>();
+        IFormula result = descend(formula, isNegated, encoder, stack);
+        while (!stack.isEmpty()) {
+            final Frame frame = stack.peek();
+            if (result != null) {
+                frame.newChildren.add(result);
+            }
+            if (frame.index < frame.children.size()) {
+                result = descend((IFormula) frame.children.get(frame.index++), frame.isNegated, encoder, stack);
+            } else {
+                stack.pop();
+                result = simplify(frame.isAnd, frame.newChildren);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@return the transformed formula if it is a predicate, or null if a frame for a connective has been pushed}
+     */
+    private IFormula descend(IFormula formula, boolean isNegated, CardinalityEncoder encoder, ArrayDeque<Frame> stack)
+            throws UnsupportedFormulaException {
+        while (true) {
+            while (formula instanceof Not) {
+                formula = (IFormula) ((Not) formula).getExpression();
+                isNegated = !isNegated;
+            }
+            if (formula instanceof IPredicate) {
+                if (!isNegated) {
+                    return formula;
+                } else if (formula instanceof IInvertiblePredicate) {
+                    return ((IInvertiblePredicate) formula).invert();
+                }
+                throw new UnsupportedFormulaException(formula);
+            }
+            if (formula instanceof And) {
+                stack.push(new Frame(formula.getChildren(), isNegated, !isNegated));
+                return null;
+            } else if (formula instanceof Or) {
+                stack.push(new Frame(formula.getChildren(), isNegated, isNegated));
+                return null;
+            }
+            IFormula expandedFormula = encoder.encode(formula, isNegated);
+            if (expandedFormula == null) {
+                expandedFormula = ConnectiveSimplifier.expand(formula);
+            }
+            if (expandedFormula == null) {
+                throw new UnsupportedFormulaException(formula);
+            }
+            formula = expandedFormula;
+        }
+    }
+
+    private IFormula simplify(boolean isAnd, ArrayList<IFormula> children) {
+        if (isAnd) {
+            if (children.stream().anyMatch(child -> child == Expressions.False)) {
+                // false dominates conjunction
+                children.clear();
+                children.add(Expressions.False);
+            } else {
+                // true is neutral to conjunction
+                children.removeIf(child -> child instanceof True);
+            }
+        } else {
+            if (children.stream().anyMatch(child -> child == Expressions.True)) {
+                // true dominates disjunction
+                children.clear();
+                children.add(Expressions.True);
+            } else {
+                // false is neutral to disjunction
+                children.removeIf(child -> child instanceof False);
+            }
+        }
+        final ArrayList<IFormula> newChildren = new ArrayList<>(children.size());
+        for (IFormula child : children) {
+            child = replaceTrueFalse(child);
+            if (isMergeable(isAnd, child)) {
+                for (IExpression grandChild : child.getChildren()) {
+                    newChildren.add((IFormula) grandChild);
+                }
+            } else {
+                newChildren.add(child);
+            }
+        }
+        newChildren.replaceAll(this::unwrap);
+        return isAnd ? new And(newChildren) : new Or(newChildren);
+    }
+
+    private IFormula simplifyChild(IFormula formula) {
+        return unwrap(replaceTrueFalse(formula));
+    }
+
+    private IFormula replaceTrueFalse(IFormula formula) {
+        if (formula.equals(Expressions.False)) {
+            return new And(new Literal(variable), new Literal(false, variable));
+        } else if (formula.equals(Expressions.True)) {
+            return new Or(new Literal(variable), new Literal(false, variable));
+        }
+        return formula;
+    }
+
+    private static boolean isMergeable(boolean isAnd, IFormula child) {
+        return isAnd
+                ? (child instanceof And) || (child instanceof Or && child.getChildrenCount() == 1)
+                : (child instanceof Or) || (child instanceof And && child.getChildrenCount() == 1);
+    }
+
+    private IFormula unwrap(IFormula formula) {
+        return formula.getChildrenCount() == 1 && ((formula instanceof And) || (formula instanceof Or))
+                ? (IFormula) formula.getFirstChild().get()
+                : formula;
+    }
+}
@@ -59,6 +59,8 @@ public class TseitinTransformer
         protected final IFormula originalFormula;
         protected final Variable auxiliaryVariable;
         protected final List<IFormula> clauseFormulas;
+        private int hashCode;
+        private boolean isHashCodeValid;
 
         protected Substitution(IFormula originalFormula, Variable auxiliaryVariable, int numberOfClauses) {
             this.originalFormula = originalFormula;
@@ -99,15 +101,24 @@ public class TseitinTransformer
             clauseFormulas.add(clauseFormula);
         }
 
+        /**
+         * {@return the hash code of the original formula}
+         * Computed only once, as the original formula is not modified after substitution.
+         */
         @Override
         public int hashCode() {
-            return Objects.hashCode(originalFormula);
+            if (!isHashCodeValid) {
+                hashCode = Objects.hashCode(originalFormula);
+                isHashCodeValid = true;
+            }
+            return hashCode;
         }
 
         @Override
         public boolean equals(Object obj) {
             return (obj != null)
                     && (getClass() == obj.getClass())
+                    && hashCode() == obj.hashCode()
                     && Objects.equals(originalFormula, ((Substitution) obj).originalFormula);
         }
     }
@@ -115,30 +126,53 @@ public class TseitinTransformer
     /**
      * Unifies a given list of substitutions.
      * That is, removes all duplicate substitutions.
+     * Auxiliary variables are only renamed after all duplicates have been found,
+     * as renaming invalidates the cached hash codes of all formulas.
      * @param substitutions the list of substitutions
      */
     public static void unify(List<Substitution> substitutions) {
         int currentAuxiliaryVariableIndex = 0;
         LinkedHashMap<Substitution, Substitution> unifiedSubstitutions = Maps.empty();
+        IdentityHashMap<Variable, String> names = new IdentityHashMap<>(substitutions.size());
         for (Substitution substitution : substitutions) {
-            Substitution storedSubstitution = unifiedSubstitutions.get(substitution);
-            if (storedSubstitution == null) {
-                unifiedSubstitutions.put(substitution, substitution);
-                Variable variable = substitution.getAuxiliaryVariable();
-                if (variable != null) {
-                    variable.setName(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
-                }
-            } else {
-                Variable variable = storedSubstitution.getAuxiliaryVariable();
-                if (variable != null) {
-                    substitution.getAuxiliaryVariable().setName(variable.getName());
+            Variable variable = substitution.getAuxiliaryVariable();
+            Substitution storedSubstitution = unifiedSubstitutions.putIfAbsent(substitution, substitution);
+            if (variable != null) {
+                if (storedSubstitution == null) {
+                    names.put(variable, AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
+                } else if (storedSubstitution.getAuxiliaryVariable() != null) {
+                    names.put(variable, names.get(storedSubstitution.getAuxiliaryVariable()));
                 }
             }
         }
+        names.forEach(Variable::setName);
         substitutions.clear();
         substitutions.addAll(unifiedSubstitutions.keySet());
     }
 
+    /**
+     * {@return the unified concatenation of the given partial lists of substitutions}
+     * The result only depends on the order of the partial lists, not on how they were computed.
+     * Thus, partial lists may be computed concurrently (e.g., one per top-level clause) and
+     * still yield the same auxiliary variable names as a sequential transformation.
+     *
+     * @param partialSubstitutions the partial lists of substitutions
+     * @param isParallel whether to hash the original formulas in parallel
+     */
+    public static List<Substitution> unify(
+            List<? extends List<Substitution>> partialSubstitutions, boolean isParallel) {
+        if (isParallel) {
+            // hash codes are cached, so the expensive hashing of original formulas can be done concurrently
+            partialSubstitutions.parallelStream()
+                    .forEach(substitutions -> substitutions.forEach(Substitution::hashCode));
+        }
+        List<Substitution> substitutions =
+                new ArrayList<>(partialSubstitutions.stream().mapToInt(List::size).sum());
+        partialSubstitutions.forEach(substitutions::addAll);
+        unify(substitutions);
+        return substitutions;
+    }
+
     /**
      * {@return the clause formulas for a given list of substitutions}
      * Thus, encodes the definitions of all given substitutions.
@@ -155,7 +189,9 @@ public class TseitinTransformer
     protected final List<Substitution> substitutions = new ArrayList<>();
     protected final ArrayDeque<IFormula> stack = new ArrayDeque<>();
     protected final boolean isPlaistedGreenbaum;
+    protected final Map<IFormula, Variable> auxiliaryVariables;
     protected int currentAuxiliaryVariableIndex = 0;
+    private IFormula skippedFormula;
 
     /**
      * Creates a new Tseitin transformer.
@@ -170,7 +206,23 @@ public class TseitinTransformer
      * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
      */
     public TseitinTransformer(boolean isPlaistedGreenbaum) {
+        this(isPlaistedGreenbaum, null);
+    }
+
+    /**
+     * Creates a new Tseitin transformer that memoizes the auxiliary variables of substituted formulas.
+     * Equal formulas are substituted only once, even if they occur in different formulas transformed with the same map.
+     * As the input is in negation normal form, all formulas occur positively,
+     * so definitions can be shared even with the Plaisted-Greenbaum optimization.
+     * However, the map must only be shared among transformers with the same Plaisted-Greenbaum setting.
+     *
+     * @param isPlaistedGreenbaum whether to use the Plaisted-Greenbaum optimization
+     * @param auxiliaryVariables the map of substituted formulas to their auxiliary variables,
+     *                           or {@code null} to substitute every occurrence of a formula
+     */
+    public TseitinTransformer(boolean isPlaistedGreenbaum, Map<IFormula, Variable> auxiliaryVariables) {
         this.isPlaistedGreenbaum = isPlaistedGreenbaum;
+        this.auxiliaryVariables = auxiliaryVariables;
     }
 
     @Override
@@ -178,6 +230,7 @@ public class TseitinTransformer
         ExpressionKind.NNF.assertFor(formula);
         substitutions.clear();
         stack.clear();
+        skippedFormula = null;
         formula.traverse(this);
         return substitutions;
     }
@@ -188,6 +241,15 @@ public class TseitinTransformer
         if (expression instanceof IPredicate) {
             return TraversalAction.SKIP_CHILDREN;
         } else if ((expression instanceof IConnective)) {
+            if (auxiliaryVariables != null && !stack.isEmpty()) {
+                Variable variable = auxiliaryVariables.get(expression);
+                if (variable != null) {
+                    // reuse the definition of an equal formula
+                    stack.push(new Literal(variable));
+                    skippedFormula = (IFormula) expression;
+                    return TraversalAction.SKIP_CHILDREN;
+                }
+            }
             stack.push((IFormula) expression);
             return TraversalAction.CONTINUE;
         } else {
@@ -198,7 +260,9 @@ public class TseitinTransformer
     @Override
     public TraversalAction lastVisit(List<IExpression> path) {
         IFormula formula = (IFormula) ITreeVisitor.getCurrentNode(path);
-        if (formula instanceof IPredicate) {
+        if (formula == skippedFormula) {
+            skippedFormula = null;
+        } else if (formula instanceof IPredicate) {
             stack.push(formula);
         } else {
             List<Literal> newChildren = new ArrayList<>();
@@ -225,6 +289,9 @@ public class TseitinTransformer
         Variable variable = new Variable(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
         Substitution substitution = new Substitution(originalFormula, variable, newChildren.size() + 1);
         substitutions.add(substitution);
+        if (auxiliaryVariables != null) {
+            auxiliaryVariables.put(originalFormula, variable);
+        }
 
         Literal auxiliaryLiteral = new Literal(substitution.auxiliaryVariable);
         if (originalFormula instanceof And) {
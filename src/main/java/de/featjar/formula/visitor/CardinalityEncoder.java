@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.AtLeast;
+import de.featjar.formula.structure.formula.connective.AtMost;
+import de.featjar.formula.structure.formula.connective.Between;
+import de.featjar.formula.structure.formula.connective.Choose;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Encodes cardinality constraints (i.e., {@link AtLeast}, {@link AtMost}, {@link Between}, and {@link Choose})
+ * with {@link And}, {@link Or}, and {@link Not}.
+ * Except for {@link Encoding#BINOMIAL}, constraints are encoded with unary counters over auxiliary variables,
+ * whose definitions are collected and must be conjoined with the encoded formula.
+ * The binomial encoding is still used whenever it yields fewer clauses.
+ * Auxiliary variables are incrementally numbered and may clash if composed with other formulas.
+ *
+ * @author Sebastian Krieter
+ */
+public class CardinalityEncoder {
+    /**
+     * Encodings for cardinality constraints over n children with bound k.
+     */
+    public enum Encoding {
+        /**
+         * Lists all subsets of children that violate the bound, yielding up to C(n, k + 1) clauses.
+         * Introduces no auxiliary variables.
+         */
+        BINOMIAL,
+        /**
+         * Counts the children one after another, yielding O(n * k) clauses and auxiliary variables.
+         */
+        SEQUENTIAL_COUNTER,
+        /**
+         * Counts the children in a balanced tree, yielding O(n * k) clauses and O(n * log n) auxiliary variables.
+         */
+        TOTALIZER
+    }
+
+    /**
+     * Prefix for naming auxiliary variables.
+     */
+    public static final String AUXILIARY_VARIABLE_NAME_PREFIX = "_card_";
+
+    protected final Encoding encoding;
+    protected final List<IFormula> definitions = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private final IdentityHashMap<IFormula, IFormula>[] encodedFormulas = new IdentityHashMap[4];
+
+    protected int currentAuxiliaryVariableIndex = 0;
+
+    /**
+     * Creates a new cardinality encoder.
+     *
+     * @param encoding the encoding
+     */
+    public CardinalityEncoder(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * {@return this encoder's encoding}
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * {@return the definitions of all auxiliary variables introduced so far}
+     * Each definition is a clause over auxiliary variables and children of encoded formulas.
+     */
+    public List<IFormula> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * {@return a formula that is equivalent to the given cardinality constraint under the definitions of this encoder,
+     * or {@code null} for any other formula}
+     * The returned formula may occur in any polarity.
+     *
+     * @param formula the formula
+     */
+    public IFormula encode(IFormula formula) {
+        return encode(formula, true, false);
+    }
+
+    /**
+     * {@return a formula that is equisatisfiable to the given cardinality constraint under the definitions
+     * of this encoder, or {@code null} for any other formula}
+     * Only the implications needed for the given polarity are defined, so the returned formula
+     * must occur only in that polarity.
+     *
+     * @param formula the formula
+     * @param isNegated whether the formula occurs negated
+     */
+    public IFormula encode(IFormula formula, boolean isNegated) {
+        return encode(formula, false, isNegated);
+    }
+
+    private IFormula encode(IFormula formula, boolean isFull, boolean isNegated) {
+        final int n = formula.getChildrenCount();
+        final int minimum, maximum;
+        if (formula instanceof AtLeast) {
+            minimum = ((AtLeast) formula).getMinimum();
+            maximum = n;
+        } else if (formula instanceof AtMost) {
+            minimum = 0;
+            maximum = ((AtMost) formula).getMaximum();
+        } else if (formula instanceof Between) {
+            minimum = ((Between) formula).getMinimum();
+            maximum = ((Between) formula).getMaximum();
+        } else if (formula instanceof Choose) {
+            minimum = ((Choose) formula).getBound();
+            maximum = minimum;
+        } else {
+            return null;
+        }
+        final boolean hasLowerBound = minimum > 0;
+        final boolean hasUpperBound = maximum < n;
+        if (encoding == Encoding.BINOMIAL
+                || maximum <= 0
+                || minimum > n
+                || minimum > maximum
+                || (!hasLowerBound && !hasUpperBound)) {
+            return ConnectiveSimplifier.expand(formula);
+        }
+        final int capacity = hasUpperBound ? maximum + 1 : minimum;
+        final long limit = 2L * n * capacity;
+        final long binomialCount = (hasLowerBound ? binomial(n, n - minimum + 1, limit) : 0)
+                + (hasUpperBound ? binomial(n, maximum + 1, limit) : 0);
+        if (binomialCount <= limit) {
+            return ConnectiveSimplifier.expand(formula);
+        }
+
+        // the upper bound is encoded as a negative output, the lower bound as a positive output
+        final boolean isUpward = isFull || (hasUpperBound && !isNegated) || (hasLowerBound && isNegated);
+        final boolean isDownward = isFull || (hasLowerBound && !isNegated) || (hasUpperBound && isNegated);
+        final int mode = (isUpward ? 1 : 0) | (isDownward ? 2 : 0);
+        if (encodedFormulas[mode] == null) {
+            encodedFormulas[mode] = new IdentityHashMap<>();
+        }
+        IFormula encodedFormula = encodedFormulas[mode].get(formula);
+        if (encodedFormula == null) {
+            @SuppressWarnings("unchecked")
+            final List<? extends IFormula> outputs =
+                    count((List<? extends IFormula>) formula.getChildren(), capacity, isUpward, isDownward);
+            if (hasLowerBound && hasUpperBound) {
+                encodedFormula = new And(outputs.get(minimum - 1), negate(outputs.get(maximum)));
+            } else if (hasLowerBound) {
+                encodedFormula = outputs.get(minimum - 1);
+            } else {
+                encodedFormula = negate(outputs.get(maximum));
+            }
+            encodedFormulas[mode].put(formula, encodedFormula);
+        }
+        return encodedFormula;
+    }
+
+    /**
+     * {@return unary counter outputs for the given inputs}
+     * The i-th output is true if at least i + 1 inputs are true.
+     */
+    private List<? extends IFormula> count(
+            List<? extends IFormula> inputs, int capacity, boolean isUpward, boolean isDownward) {
+        if (encoding == Encoding.SEQUENTIAL_COUNTER) {
+            List<? extends IFormula> outputs = List.of(inputs.get(0));
+            for (int i = 1; i < inputs.size(); i++) {
+                outputs = merge(outputs, List.of(inputs.get(i)), capacity, isUpward, isDownward);
+            }
+            return outputs;
+        }
+        // totalizer: merges the counters of both halves of each range, left half first
+        final ArrayDeque<int[]> ranges = new ArrayDeque<>();
+        final ArrayDeque<List<? extends IFormula>> counters = new ArrayDeque<>();
+        ranges.push(new int[] {0, inputs.size(), -1});
+        while (!ranges.isEmpty()) {
+            final int[] range = ranges.peek();
+            if (range[1] - range[0] == 1) {
+                ranges.pop();
+                counters.push(List.of(inputs.get(range[0])));
+            } else if (range[2] < 0) {
+                range[2] = (range[0] + range[1]) >>> 1;
+                ranges.push(new int[] {range[2], range[1], -1});
+                ranges.push(new int[] {range[0], range[2], -1});
+            } else {
+                ranges.pop();
+                final List<? extends IFormula> right = counters.pop();
+                final List<? extends IFormula> left = counters.pop();
+                counters.push(merge(left, right, capacity, isUpward, isDownward));
+            }
+        }
+        return counters.pop();
+    }
+
+    /**
+     * {@return unary counter outputs for the sum of two unary counters}
+     * Upward clauses ensure that the outputs are at least the sum,
+     * downward clauses ensure that the outputs are at most the sum.
+     */
+    private List<Literal> merge(
+            List<? extends IFormula> left,
+            List<? extends IFormula> right,
+            int capacity,
+            boolean isUpward,
+            boolean isDownward) {
+        final int p = left.size();
+        final int q = right.size();
+        final int m = Math.min(p + q, capacity);
+        final List<Literal> outputs = new ArrayList<>(m);
+        for (int r = 0; r < m; r++) {
+            outputs.add(new Literal(newAuxiliaryVariable()));
+        }
+        if (isUpward) {
+            for (int i = 0; i <= p; i++) {
+                for (int j = i == 0 ? 1 : 0; j <= q && i + j <= m; j++) {
+                    final List<IFormula> clause = new ArrayList<>(3);
+                    if (i > 0) clause.add(negate(left.get(i - 1)));
+                    if (j > 0) clause.add(negate(right.get(j - 1)));
+                    clause.add(outputs.get(i + j - 1));
+                    definitions.add(new Or(clause));
+                }
+            }
+        }
+        if (isDownward) {
+            for (int r = 1; r <= m; r++) {
+                for (int i = Math.max(0, r - 1 - q); i <= Math.min(p, r - 1); i++) {
+                    final int j = r - 1 - i;
+                    final List<IFormula> clause = new ArrayList<>(3);
+                    clause.add(negate(outputs.get(r - 1)));
+                    if (i < p) clause.add(left.get(i));
+                    if (j < q) clause.add(right.get(j));
+                    definitions.add(new Or(clause));
+                }
+            }
+        }
+        return outputs;
+    }
+
+    private Variable newAuxiliaryVariable() {
+        return new Variable(AUXILIARY_VARIABLE_NAME_PREFIX + (++currentAuxiliaryVariableIndex));
+    }
+
+    private static IFormula negate(IFormula formula) {
+        return formula instanceof Literal ? ((Literal) formula).invert() : new Not(formula);
+    }
+
+    private static long binomial(int n, int k, long limit) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        k = Math.min(k, n - k);
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+            if (result > limit) {
+                return limit + 1;
+            }
+        }
+        return result;
+    }
+}
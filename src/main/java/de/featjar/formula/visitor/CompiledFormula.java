@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A formula compiled into a flat postfix program over variable indices.
+ * Evaluates Boolean solutions without creating any objects,
+ * using three-valued logic with {@code 1} for true, {@code -1} for false, and {@code 0} for unknown.
+ * Can also evaluate 64 solutions at once using bitwise operations on transposed solutions.
+ * Instances are created by {@link FormulaCompiler} and are thread-safe.
+ *
+ * @author Sebastian Krieter
+ */
+public class CompiledFormula {
+
+    static final int PUSH_POSITIVE = 0;
+    static final int PUSH_NEGATIVE = 1;
+    static final int PUSH_CONSTANT = 2;
+    static final int NOT = 3;
+    static final int AND = 4;
+    static final int OR = 5;
+    static final int IMPLIES = 6;
+    static final int BI_IMPLIES = 7;
+    static final int CARDINAL = 8;
+
+    private final int[] program;
+    private final int maxStackSize;
+    private final int maxVariable;
+    private final int maxPlaneCount;
+    private final ThreadLocal<int[]> stacks;
+    private final ThreadLocal<long[][]> blockBuffers;
+
+    CompiledFormula(int[] program, int maxStackSize) {
+        this.program = program;
+        this.maxStackSize = maxStackSize;
+        int maxVariable = 0;
+        int maxCardinalCount = 0;
+        int pc = 0;
+        while (pc < program.length) {
+            switch (program[pc++]) {
+                case PUSH_POSITIVE:
+                case PUSH_NEGATIVE:
+                    maxVariable = Math.max(maxVariable, program[pc++]);
+                    break;
+                case PUSH_CONSTANT:
+                case AND:
+                case OR:
+                    pc++;
+                    break;
+                case CARDINAL:
+                    maxCardinalCount = Math.max(maxCardinalCount, program[pc]);
+                    pc += 3;
+                    break;
+                default:
+            }
+        }
+        this.maxVariable = maxVariable;
+        maxPlaneCount = Integer.SIZE - Integer.numberOfLeadingZeros(maxCardinalCount);
+        stacks = ThreadLocal.withInitial(() -> new int[maxStackSize]);
+        // selected and deselected variables, stack, result, and the bit-sliced counters of cardinals
+        blockBuffers = ThreadLocal.withInitial(() -> new long[][] {
+            new long[this.maxVariable + 1],
+            new long[this.maxVariable + 1],
+            new long[2 * maxStackSize],
+            new long[2],
+            new long[2 * maxPlaneCount]
+        });
+    }
+
+    /**
+     * {@return the evaluation of this formula on a given solution}
+     * Returns {@code null} if the solution does not determine the formula's value.
+     *
+     * @param solution the solution
+     */
+    public Boolean evaluate(BooleanSolution solution) {
+        switch (evaluate(solution.get())) {
+            case 1:
+                return Boolean.TRUE;
+            case -1:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * {@return whether this formula evaluates to {@code true} on a given solution}
+     *
+     * @param solution the solution
+     */
+    public boolean test(BooleanSolution solution) {
+        return evaluate(solution.get()) == 1;
+    }
+
+    /**
+     * {@return whether this formula evaluates to {@code true} on a given solution}
+     *
+     * @param solution the solution, where the entry at position {@code i - 1} assigns the variable {@code i}
+     */
+    public boolean test(int[] solution) {
+        return evaluate(solution) == 1;
+    }
+
+    /**
+     * {@return the evaluation of this formula on a given solution}
+     * The result is {@code 1} for true, {@code -1} for false, and {@code 0} for unknown.
+     * Variables beyond the solution's length are unknown.
+     *
+     * @param solution the solution, where the entry at position {@code i - 1} assigns the variable {@code i}
+     */
+    public int evaluate(int[] solution) {
+        return evaluate(solution, stacks.get());
+    }
+
+    /**
+     * {@return the evaluation of this formula on a given solution, using a given stack}
+     *
+     * @param solution the solution, where the entry at position {@code i - 1} assigns the variable {@code i}
+     * @param stack the stack, which must have at least the size {@link #getMaxStackSize()}
+     */
+    public int evaluate(int[] solution, int[] stack) {
+        int top = -1;
+        int pc = 0;
+        while (pc < program.length) {
+            switch (program[pc++]) {
+                case PUSH_POSITIVE: {
+                    final int index = program[pc++] - 1;
+                    stack[++top] = index < solution.length ? Integer.signum(solution[index]) : 0;
+                    break;
+                }
+                case PUSH_NEGATIVE: {
+                    final int index = program[pc++] - 1;
+                    stack[++top] = index < solution.length ? -Integer.signum(solution[index]) : 0;
+                    break;
+                }
+                case PUSH_CONSTANT:
+                    stack[++top] = program[pc++];
+                    break;
+                case NOT:
+                    stack[top] = -stack[top];
+                    break;
+                case AND: {
+                    final int count = program[pc++];
+                    int value = 1;
+                    for (int i = top - count + 1; i <= top; i++) {
+                        value = Math.min(value, stack[i]);
+                    }
+                    top -= count;
+                    stack[++top] = value;
+                    break;
+                }
+                case OR: {
+                    final int count = program[pc++];
+                    int value = -1;
+                    for (int i = top - count + 1; i <= top; i++) {
+                        value = Math.max(value, stack[i]);
+                    }
+                    top -= count;
+                    stack[++top] = value;
+                    break;
+                }
+                case IMPLIES: {
+                    final int right = stack[top--];
+                    stack[top] = Math.max(-stack[top], right);
+                    break;
+                }
+                case BI_IMPLIES: {
+                    final int right = stack[top--];
+                    stack[top] = stack[top] * right;
+                    break;
+                }
+                case CARDINAL: {
+                    final int count = program[pc++];
+                    final int lowerBound = program[pc++];
+                    final int upperBound = program[pc++];
+                    int trueCount = 0;
+                    int unknownCount = 0;
+                    for (int i = top - count + 1; i <= top; i++) {
+                        if (stack[i] > 0) {
+                            trueCount++;
+                        } else if (stack[i] == 0) {
+                            unknownCount++;
+                        }
+                    }
+                    top -= count;
+                    if (trueCount + unknownCount < lowerBound || trueCount > upperBound) {
+                        stack[++top] = -1;
+                    } else if (trueCount >= lowerBound && trueCount + unknownCount <= upperBound) {
+                        stack[++top] = 1;
+                    } else {
+                        stack[++top] = 0;
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalStateException(String.valueOf(program[pc - 1]));
+            }
+        }
+        return stack[top];
+    }
+
+    /**
+     * {@return a bitset with one bit per solution that is set iff this formula evaluates to {@code true} on the solution}
+     * Solutions are transposed into blocks of 64, which are evaluated with bitwise operations.
+     *
+     * @param solutions the solutions
+     * @param isParallel whether to evaluate blocks in parallel
+     */
+    public long[] test(List<? extends BooleanSolution> solutions, boolean isParallel) {
+        final long[] result = new long[(solutions.size() + Long.SIZE - 1) / Long.SIZE];
+        IntStream blocks = IntStream.range(0, result.length);
+        if (isParallel) {
+            blocks = blocks.parallel();
+        }
+        blocks.forEach(block -> {
+            final long[][] buffers = blockBuffers.get();
+            final long[] selected = buffers[0];
+            final long[] deselected = buffers[1];
+            transpose(solutions, block * Long.SIZE, selected, deselected);
+            evaluate(selected, deselected, buffers[2], buffers[4], buffers[3]);
+            result[block] = buffers[3][0];
+        });
+        final int remainder = solutions.size() % Long.SIZE;
+        if (remainder != 0) {
+            // bits beyond the last solution belong to empty solutions, on which tautologies still evaluate to true
+            result[result.length - 1] &= (1L << remainder) - 1;
+        }
+        return result;
+    }
+
+    private void transpose(List<? extends BooleanSolution> solutions, int start, long[] selected, long[] deselected) {
+        final int end = Math.min(solutions.size(), start + Long.SIZE);
+        Arrays.fill(selected, 0L);
+        Arrays.fill(deselected, 0L);
+        for (int i = start; i < end; i++) {
+            final int[] literals = solutions.get(i).get();
+            final long bit = 1L << (i - start);
+            final int length = Math.min(literals.length, maxVariable);
+            for (int j = 0; j < length; j++) {
+                final int literal = literals[j];
+                if (literal > 0) {
+                    selected[j + 1] |= bit;
+                } else if (literal < 0) {
+                    deselected[j + 1] |= bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates this formula on 64 solutions at once.
+     * Bit {@code j} of the entry {@code i} in the given arrays states whether solution {@code j} selects
+     * or deselects variable {@code i}, respectively.
+     * Afterwards, bit {@code j} of {@code result[0]} and {@code result[1]} states whether
+     * this formula evaluates to {@code true} or {@code false} on solution {@code j}, respectively.
+     *
+     * @param selected the selected variables per variable index
+     * @param deselected the deselected variables per variable index
+     * @param result the array to store the result in, with at least two entries
+     */
+    public void evaluate(long[] selected, long[] deselected, long[] result) {
+        final long[][] buffers = blockBuffers.get();
+        evaluate(selected, deselected, buffers[2], buffers[4], result);
+    }
+
+    private void evaluate(long[] selected, long[] deselected, long[] stack, long[] planes, long[] result) {
+        int top = -2;
+        int pc = 0;
+        while (pc < program.length) {
+            switch (program[pc++]) {
+                case PUSH_POSITIVE: {
+                    final int index = program[pc++];
+                    top += 2;
+                    stack[top] = index < selected.length ? selected[index] : 0L;
+                    stack[top + 1] = index < deselected.length ? deselected[index] : 0L;
+                    break;
+                }
+                case PUSH_NEGATIVE: {
+                    final int index = program[pc++];
+                    top += 2;
+                    stack[top] = index < deselected.length ? deselected[index] : 0L;
+                    stack[top + 1] = index < selected.length ? selected[index] : 0L;
+                    break;
+                }
+                case PUSH_CONSTANT: {
+                    final int value = program[pc++];
+                    top += 2;
+                    stack[top] = value > 0 ? -1L : 0L;
+                    stack[top + 1] = value < 0 ? -1L : 0L;
+                    break;
+                }
+                case NOT: {
+                    final long isTrue = stack[top];
+                    stack[top] = stack[top + 1];
+                    stack[top + 1] = isTrue;
+                    break;
+                }
+                case AND: {
+                    final int count = program[pc++];
+                    long isTrue = -1L;
+                    long isFalse = 0L;
+                    for (int i = top - 2 * count + 2; i <= top; i += 2) {
+                        isTrue &= stack[i];
+                        isFalse |= stack[i + 1];
+                    }
+                    top -= 2 * count - 2;
+                    stack[top] = isTrue;
+                    stack[top + 1] = isFalse;
+                    break;
+                }
+                case OR: {
+                    final int count = program[pc++];
+                    long isTrue = 0L;
+                    long isFalse = -1L;
+                    for (int i = top - 2 * count + 2; i <= top; i += 2) {
+                        isTrue |= stack[i];
+                        isFalse &= stack[i + 1];
+                    }
+                    top -= 2 * count - 2;
+                    stack[top] = isTrue;
+                    stack[top + 1] = isFalse;
+                    break;
+                }
+                case IMPLIES: {
+                    final long rightTrue = stack[top];
+                    final long rightFalse = stack[top + 1];
+                    top -= 2;
+                    final long leftTrue = stack[top];
+                    stack[top] = stack[top + 1] | rightTrue;
+                    stack[top + 1] = leftTrue & rightFalse;
+                    break;
+                }
+                case BI_IMPLIES: {
+                    final long rightTrue = stack[top];
+                    final long rightFalse = stack[top + 1];
+                    top -= 2;
+                    final long leftTrue = stack[top];
+                    final long leftFalse = stack[top + 1];
+                    stack[top] = (leftTrue & rightTrue) | (leftFalse & rightFalse);
+                    stack[top + 1] = (leftTrue & rightFalse) | (leftFalse & rightTrue);
+                    break;
+                }
+                case CARDINAL: {
+                    final int count = program[pc++];
+                    final int lowerBound = program[pc++];
+                    final int upperBound = program[pc++];
+                    final int planeCount = Integer.SIZE - Integer.numberOfLeadingZeros(count);
+                    // true counts are stored at offset 0, possible counts at offset maxPlaneCount
+                    Arrays.fill(planes, 0, planeCount, 0L);
+                    Arrays.fill(planes, maxPlaneCount, maxPlaneCount + planeCount, 0L);
+                    for (int i = top - 2 * count + 2; i <= top; i += 2) {
+                        increment(planes, 0, planeCount, stack[i]);
+                        increment(planes, maxPlaneCount, planeCount, ~stack[i + 1]);
+                    }
+                    top -= 2 * count - 2;
+                    stack[top] = atLeast(planes, 0, planeCount, lowerBound)
+                            & ~atLeast(planes, maxPlaneCount, planeCount, upperBound + 1L);
+                    stack[top + 1] = ~atLeast(planes, maxPlaneCount, planeCount, lowerBound)
+                            | atLeast(planes, 0, planeCount, upperBound + 1L);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException(String.valueOf(program[pc - 1]));
+            }
+        }
+        result[0] = stack[top];
+        result[1] = stack[top + 1];
+    }
+
+    /**
+     * Adds one to the bit-sliced counters selected by the given mask.
+     * The counters are stored in {@code planes[offset]} to {@code planes[offset + length - 1]}.
+     */
+    private static void increment(long[] planes, int offset, int length, long mask) {
+        long carry = mask;
+        for (int i = offset; i < offset + length && carry != 0; i++) {
+            final long plane = planes[i];
+            planes[i] = plane ^ carry;
+            carry &= plane;
+        }
+    }
+
+    /**
+     * {@return a mask of the bit-sliced counters that are at least the given bound}
+     * The counters are stored in {@code planes[offset]} to {@code planes[offset + length - 1]}.
+     */
+    private static long atLeast(long[] planes, int offset, int length, long bound) {
+        if (bound <= 0) {
+            return -1L;
+        }
+        if (bound >= 1L << length) {
+            return 0L;
+        }
+        long isGreater = 0L;
+        long isEqual = -1L;
+        for (int i = length - 1; i >= 0; i--) {
+            if (((bound >>> i) & 1) != 0) {
+                isEqual &= planes[offset + i];
+            } else {
+                isGreater |= isEqual & planes[offset + i];
+                isEqual &= ~planes[offset + i];
+            }
+        }
+        return isGreater | isEqual;
+    }
+
+    /**
+     * {@return the size of the stack needed to evaluate this formula}
+     */
+    public int getMaxStackSize() {
+        return maxStackSize;
+    }
+
+    /**
+     * {@return the number of ints in this formula's program}
+     */
+    public int getProgramLength() {
+        return program.length;
+    }
+}
@@ -37,15 +37,37 @@ import java.util.stream.Collectors;
  * Simplifies complex connectives using well-known identities.
  * That is, replaces {@link Implies}, {@link BiImplies}, {@link AtLeast}, {@link AtMost}, {@link Between},
  * and {@link Choose} with {@link And}, {@link Or}, and {@link Not}.
+ * Cardinality constraints are encoded with a {@link CardinalityEncoder}, whose definitions are conjoined once with
+ * the referenced formula.
  *
  * @author Sebastian Krieter
  */
 public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
 
+    private final CardinalityEncoder.Encoding encoding;
+    private CardinalityEncoder encoder;
     private boolean fail;
 
+    /**
+     * Creates a new connective simplifier that uses the binomial encoding for cardinality constraints.
+     */
+    public ConnectiveSimplifier() {
+        this(CardinalityEncoder.Encoding.BINOMIAL);
+    }
+
+    /**
+     * Creates a new connective simplifier.
+     *
+     * @param encoding the encoding for cardinality constraints
+     */
+    public ConnectiveSimplifier(CardinalityEncoder.Encoding encoding) {
+        this.encoding = encoding;
+        encoder = new CardinalityEncoder(encoding);
+    }
+
     @Override
     public void reset() {
+        encoder = new CardinalityEncoder(encoding);
         fail = false;
     }
 
@@ -76,10 +98,30 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
         if (fail) {
             return TraversalAction.FAIL;
         }
+        if (path.size() == 1 && !encoder.getDefinitions().isEmpty()) {
+            if (!(formula instanceof Reference) || formula.getChildrenCount() != 1) {
+                return TraversalAction.FAIL;
+            }
+            conjoinDefinitions((Reference) formula);
+        }
         return TraversalAction.CONTINUE;
     }
 
     @SuppressWarnings("unchecked")
+    private void conjoinDefinitions(Reference reference) {
+        final IFormula formula = reference.getExpression();
+        final List<IFormula> children;
+        if (formula instanceof And) {
+            children = new ArrayList<>((List<IFormula>) formula.getChildren());
+        } else {
+            children = new ArrayList<>();
+            children.add(formula);
+        }
+        children.addAll(encoder.getDefinitions());
+        reference.setFormula(new And(children));
+        encoder.getDefinitions().clear();
+    }
+
     private IFormula replace(IExpression formula) {
         if ((formula instanceof IPredicate)
                 || (formula instanceof And)
@@ -87,35 +129,52 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
                 || (formula instanceof Not)) {
             return null;
         }
+        IFormula newFormula = encoder.encode((IFormula) formula);
+        if (newFormula == null) {
+            newFormula = expand((IFormula) formula);
+        }
+        if (newFormula == null) {
+            fail = true;
+        }
+        return newFormula;
+    }
+
+    /**
+     * {@return an equivalent formula for the given implication, bi-implication, or cardinality constraint
+     * that only uses {@link And}, {@link Or}, and {@link Not}, or {@code null} for any other formula}
+     * The children of the given formula are shared with the returned formula.
+     * Cardinality constraints are expanded with {@link CardinalityEncoder.Encoding#BINOMIAL}.
+     *
+     * @param formula the formula
+     */
+    @SuppressWarnings("unchecked")
+    public static IFormula expand(IFormula formula) {
         final List<IFormula> children = (List<IFormula>) formula.getChildren();
-        IFormula newFormula;
         if (formula instanceof Implies) {
-            newFormula = new Or(new Not(children.get(0)), children.get(1));
+            return new Or(new Not(children.get(0)), children.get(1));
         } else if (formula instanceof BiImplies) {
-            newFormula = new And( //
+            return new And( //
                     new Or(new Not(children.get(0)), children.get(1)),
                     new Or(new Not(children.get(1)), children.get(0)));
         } else if (formula instanceof AtLeast) {
-            newFormula = new And(atLeastK(children, ((AtLeast) formula).getMinimum()));
+            return new And(atLeastK(children, ((AtLeast) formula).getMinimum()));
         } else if (formula instanceof AtMost) {
-            newFormula = new And(atMostK(children, ((AtMost) formula).getMaximum()));
+            return new And(atMostK(children, ((AtMost) formula).getMaximum()));
         } else if (formula instanceof Between) {
             final Between between = (Between) formula;
-            newFormula = new And(
+            return new And(
                     new And(atLeastK(children, between.getMinimum())),
                     new And(atMostK(children, between.getMaximum())));
         } else if (formula instanceof Choose) {
             final Choose choose = (Choose) formula;
-            newFormula = new And(
+            return new And(
                     new And(atLeastK(children, choose.getBound())), new And(atMostK(children, choose.getBound())));
         } else {
-            fail = true;
             return null;
         }
-        return newFormula;
     }
 
-    private List<IFormula> atMostK(List<? extends IFormula> elements, int k) {
+    private static List<IFormula> atMostK(List<? extends IFormula> elements, int k) {
         final int n = elements.size();
 
         // return tautology
@@ -131,7 +190,7 @@ public class ConnectiveSimplifier implements ITreeVisitor<IFormula, Void> {
         return groupElements(elements.stream().map(Not::new).collect(Collectors.toList()), k, n);
     }
 
-    private List<IFormula> atLeastK(List<? extends IFormula> elements, int k) {
+    private static List<IFormula> atLeastK(List<? extends IFormula> elements, int k) {
         final int n = elements.size();
 
         // return tautology
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Range;
+import de.featjar.base.data.Result;
+import de.featjar.base.tree.visitor.ITreeVisitor;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.AtLeast;
+import de.featjar.formula.structure.formula.connective.AtMost;
+import de.featjar.formula.structure.formula.connective.Between;
+import de.featjar.formula.structure.formula.connective.BiImplies;
+import de.featjar.formula.structure.formula.connective.Choose;
+import de.featjar.formula.structure.formula.connective.Implies;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.connective.Reference;
+import de.featjar.formula.structure.formula.predicate.False;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.formula.predicate.ProblemFormula;
+import de.featjar.formula.structure.formula.predicate.True;
+import de.featjar.formula.structure.term.value.Constant;
+import de.featjar.formula.structure.term.value.IValue;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles a propositional formula into a {@link CompiledFormula}.
+ * Variables are resolved to their indices in a given variable map,
+ * variables that are not contained in the map are unknown.
+ * Supports all connectives except quantifiers, but only Boolean literals as predicates.
+ * Unlike {@link Evaluator}, implications with unknown operands evaluate to unknown instead of failing.
+ *
+ * @author Sebastian Krieter
+ */
+public class FormulaCompiler implements ITreeVisitor<IExpression, CompiledFormula> {
+    private final VariableMap variableMap;
+
+    private int[] program;
+    private int size;
+    private int stackSize;
+    private int maxStackSize;
+
+    public FormulaCompiler(VariableMap variableMap) {
+        this.variableMap = variableMap;
+    }
+
+    @Override
+    public void reset() {
+        program = new int[16];
+        size = 0;
+        stackSize = 0;
+        maxStackSize = 0;
+    }
+
+    @Override
+    public TraversalAction firstVisit(List<IExpression> path) {
+        final IExpression expression = ITreeVisitor.getCurrentNode(path);
+        if (expression instanceof Literal) {
+            return TraversalAction.SKIP_CHILDREN;
+        } else if (expression instanceof True
+                || expression instanceof False
+                || expression instanceof ProblemFormula
+                || expression instanceof And
+                || expression instanceof Or
+                || expression instanceof Not
+                || expression instanceof Implies
+                || expression instanceof BiImplies
+                || expression instanceof AtLeast
+                || expression instanceof AtMost
+                || expression instanceof Between
+                || expression instanceof Choose
+                || expression instanceof Reference) {
+            return TraversalAction.CONTINUE;
+        } else {
+            return TraversalAction.FAIL;
+        }
+    }
+
+    @Override
+    public TraversalAction lastVisit(List<IExpression> path) {
+        final IExpression expression = ITreeVisitor.getCurrentNode(path);
+        final int childrenCount = expression.getChildrenCount();
+        if (expression instanceof Literal) {
+            final Literal literal = (Literal) expression;
+            final IValue value = (IValue) literal.getExpression();
+            if (value instanceof Variable) {
+                final Result<Integer> index = variableMap.get(value.getName());
+                if (index.isPresent()) {
+                    emit(literal.isPositive() ? CompiledFormula.PUSH_POSITIVE : CompiledFormula.PUSH_NEGATIVE);
+                    emit(index.get());
+                } else {
+                    emit(CompiledFormula.PUSH_CONSTANT);
+                    emit(0);
+                }
+            } else if (value instanceof Constant && ((Constant) value).getValue() instanceof Boolean) {
+                final boolean constant = (Boolean) ((Constant) value).getValue();
+                emit(CompiledFormula.PUSH_CONSTANT);
+                emit(constant == literal.isPositive() ? 1 : -1);
+            } else {
+                return TraversalAction.FAIL;
+            }
+            push(1);
+        } else if (expression instanceof True) {
+            emit(CompiledFormula.PUSH_CONSTANT);
+            emit(1);
+            push(1);
+        } else if (expression instanceof False) {
+            emit(CompiledFormula.PUSH_CONSTANT);
+            emit(-1);
+            push(1);
+        } else if (expression instanceof ProblemFormula) {
+            emit(CompiledFormula.PUSH_CONSTANT);
+            emit(0);
+            push(1);
+        } else if (expression instanceof Not) {
+            emit(CompiledFormula.NOT);
+        } else if (expression instanceof And) {
+            emitNAry(CompiledFormula.AND, childrenCount);
+        } else if (expression instanceof Or) {
+            emitNAry(CompiledFormula.OR, childrenCount);
+        } else if (expression instanceof Implies) {
+            emit(CompiledFormula.IMPLIES);
+            push(-1);
+        } else if (expression instanceof BiImplies) {
+            emit(CompiledFormula.BI_IMPLIES);
+            push(-1);
+        } else if (expression instanceof AtLeast) {
+            emitCardinal(childrenCount, ((AtLeast) expression).getMinimum(), Integer.MAX_VALUE);
+        } else if (expression instanceof AtMost) {
+            emitCardinal(childrenCount, 0, ((AtMost) expression).getMaximum());
+        } else if (expression instanceof Between) {
+            final Between between = (Between) expression;
+            emitCardinal(childrenCount, between.getMinimum(), between.getMaximum());
+        } else if (expression instanceof Choose) {
+            final int bound = ((Choose) expression).getBound();
+            emitCardinal(childrenCount, bound, bound);
+        }
+        return TraversalAction.CONTINUE;
+    }
+
+    private void emitNAry(int opcode, int childrenCount) {
+        emit(opcode);
+        emit(childrenCount);
+        push(1 - childrenCount);
+    }
+
+    private void emitCardinal(int childrenCount, int lowerBound, int upperBound) {
+        emit(CompiledFormula.CARDINAL);
+        emit(childrenCount);
+        emit(lowerBound == Range.OPEN ? 0 : lowerBound);
+        emit(upperBound == Range.OPEN ? Integer.MAX_VALUE : upperBound);
+        push(1 - childrenCount);
+    }
+
+    private void emit(int value) {
+        if (size == program.length) {
+            program = Arrays.copyOf(program, 2 * size);
+        }
+        program[size++] = value;
+    }
+
+    private void push(int count) {
+        stackSize += count;
+        maxStackSize = Math.max(maxStackSize, stackSize);
+    }
+
+    @Override
+    public Result<CompiledFormula> getResult() {
+        if (stackSize != 1) {
+            return Result.empty(new Problem("formula could not be compiled", Problem.Severity.ERROR));
+        }
+        return Result.of(new CompiledFormula(Arrays.copyOf(program, size), maxStackSize));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.formula.structure.formula.IFormula;
+
+/**
+ * A local rewrite rule applied by a {@link RewriteEngine}.
+ * A rule only inspects the given formula and its children.
+ * It must not modify the given formula, but may reuse its children in the replacement.
+ *
+ * @author Sebastian Krieter
+ */
+@FunctionalInterface
+public interface IRewriteRule {
+    /**
+     * {@return a replacement for the given formula, or {@code null} if this rule does not apply}
+     *
+     * @param formula the formula
+     */
+    IFormula apply(IFormula formula);
+}
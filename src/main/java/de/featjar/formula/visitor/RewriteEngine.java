@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rewrites a formula with a set of {@link IRewriteRule local rules} until none of them applies anymore.
+ * In contrast to running a visitor repeatedly, only the parents of replaced nodes are re-examined.
+ * Thus, the effort of reaching a fixpoint depends on the number of replacements instead of the formula's size.
+ * Nodes are modified in place, so sub-formulas may be shared between several parents.
+ *
+ * @author Sebastian Krieter
+ */
+public class RewriteEngine {
+
+    private final IRewriteRule[] rules;
+
+    /**
+     * Creates a new rewrite engine.
+     *
+     * @param rules the rules, which are tried in the given order
+     */
+    public RewriteEngine(IRewriteRule... rules) {
+        this(Arrays.asList(rules));
+    }
+
+    /**
+     * Creates a new rewrite engine.
+     *
+     * @param rules the rules, which are tried in the given order
+     */
+    public RewriteEngine(List<? extends IRewriteRule> rules) {
+        this.rules = rules.toArray(new IRewriteRule[0]);
+        for (IRewriteRule rule : this.rules) {
+            Objects.requireNonNull(rule);
+        }
+    }
+
+    /**
+     * Rewrites the given formula in place.
+     * The root itself may be replaced as well, so callers should continue with the returned formula.
+     * To keep the root, wrap the formula into a {@link de.featjar.formula.structure.formula.connective.Reference}.
+     *
+     * @param formula the formula
+     * @return the rewritten formula
+     */
+    public IFormula rewrite(IFormula formula) {
+        return new Rewriting(formula).run();
+    }
+
+    /**
+     * The state of a single call to {@link #rewrite(IFormula)}.
+     */
+    private final class Rewriting {
+        /**
+         * Maps each node below the root to either its only parent or a set of its parents.
+         */
+        private final IdentityHashMap<IFormula, Object> parents = new IdentityHashMap<>();
+
+        private final Set<IFormula> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final ArrayDeque<IFormula> worklist = new ArrayDeque<>();
+        private IFormula root;
+
+        private Rewriting(IFormula root) {
+            this.root = root;
+            register(root);
+        }
+
+        private IFormula run() {
+            while (!worklist.isEmpty()) {
+                final IFormula formula = worklist.poll();
+                queued.remove(formula);
+                if (isKnown(formula)) {
+                    for (IRewriteRule rule : rules) {
+                        final IFormula replacement = rule.apply(formula);
+                        if (replacement != null && replacement != formula) {
+                            replace(formula, replacement);
+                            break;
+                        }
+                    }
+                }
+            }
+            return root;
+        }
+
+        /**
+         * Enqueues all unknown nodes below the given node in post-order and links them to their parents.
+         */
+        private void register(IFormula formula) {
+            final ArrayDeque<IFormula> stack = new ArrayDeque<>();
+            final ArrayDeque<Integer> indices = new ArrayDeque<>();
+            stack.push(formula);
+            indices.push(0);
+            while (!stack.isEmpty()) {
+                final IFormula node = stack.peek();
+                final int index = indices.pop();
+                final List<? extends IExpression> children = node.getChildren();
+                if (index < children.size() && children.get(index) instanceof IFormula) {
+                    indices.push(index + 1);
+                    final IFormula child = (IFormula) children.get(index);
+                    final boolean isKnown = isKnown(child);
+                    addParent(child, node);
+                    if (!isKnown) {
+                        stack.push(child);
+                        indices.push(0);
+                    }
+                } else {
+                    stack.pop();
+                    enqueue(node);
+                }
+            }
+        }
+
+        private void replace(IFormula formula, IFormula replacement) {
+            final Object formulaParents = parents.remove(formula);
+            for (IExpression child : formula.getChildren()) {
+                if (child instanceof IFormula) {
+                    removeParent((IFormula) child, formula);
+                }
+            }
+            final boolean isKnown = isKnown(replacement);
+            if (formula == root) {
+                root = replacement;
+            }
+            for (IFormula parent : asList(formulaParents)) {
+                parent.replaceChildren(child -> child == formula ? replacement : null);
+                addParent(replacement, parent);
+                enqueue(parent);
+            }
+            if (!isKnown) {
+                register(replacement);
+            }
+        }
+
+        private boolean isKnown(IFormula formula) {
+            return formula == root || parents.containsKey(formula);
+        }
+
+        private void enqueue(IFormula formula) {
+            if (queued.add(formula)) {
+                worklist.add(formula);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addParent(IFormula child, IFormula parent) {
+            final Object childParents = parents.get(child);
+            if (childParents == null) {
+                parents.put(child, parent);
+            } else if (childParents instanceof Set) {
+                ((Set<IFormula>) childParents).add(parent);
+            } else if (childParents != parent) {
+                final Set<IFormula> set = Collections.newSetFromMap(new IdentityHashMap<>());
+                set.add((IFormula) childParents);
+                set.add(parent);
+                parents.put(child, set);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void removeParent(IFormula child, IFormula parent) {
+            final Object childParents = parents.get(child);
+            if (childParents == parent) {
+                parents.remove(child);
+            } else if (childParents instanceof Set) {
+                final Set<IFormula> set = (Set<IFormula>) childParents;
+                set.remove(parent);
+                if (set.isEmpty()) {
+                    parents.remove(child);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<IFormula> asList(Object formulaParents) {
+            if (formulaParents == null) {
+                return List.of();
+            } else if (formulaParents instanceof Set) {
+                return new ArrayList<>((Set<IFormula>) formulaParents);
+            } else {
+                return List.of((IFormula) formulaParents);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.Expressions;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.BiImplies;
+import de.featjar.formula.structure.formula.connective.Implies;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.predicate.False;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.formula.predicate.True;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rule sets for a {@link RewriteEngine} that correspond to the simplifying visitors in this package.
+ *
+ * @author Sebastian Krieter
+ */
+public final class RewriteRules {
+    private RewriteRules() {}
+
+    /**
+     * {@return rules that reduce occurrences of {@link True} and {@link False}, as {@link TrueFalseSimplifier} does}
+     */
+    public static List<IRewriteRule> trueFalse() {
+        return List.of(RewriteRules::reduceTrueFalse);
+    }
+
+    /**
+     * {@return rules that merge nested {@link And} and {@link Or} connectives, as {@link AndOrSimplifier} does}
+     * In addition, the root is unwrapped if it has a single child.
+     */
+    public static List<IRewriteRule> andOr() {
+        return List.of(RewriteRules::mergeAndOr, RewriteRules::unwrapAndOr);
+    }
+
+    /**
+     * {@return rules that propagate the values of core and dead variables, as {@link CoreDeadSimplifier} does}
+     *
+     * @param coreDeadFeature the values of core and dead variables
+     */
+    public static List<IRewriteRule> coreDead(ValueAssignment coreDeadFeature) {
+        return List.of(
+                formula -> replaceLiteral(formula, coreDeadFeature),
+                RewriteRules::reduceConstantConnective,
+                RewriteRules::reduceTrueFalse,
+                RewriteRules::unwrapAndOr);
+    }
+
+    private static IFormula reduceTrueFalse(IFormula formula) {
+        if (formula instanceof And) {
+            if (formula.getChildrenCount() > 1
+                    && formula.getChildren().stream().anyMatch(c -> c == Expressions.False)) {
+                // false dominates conjunction
+                return new And(Expressions.False);
+            } else if (formula.getChildren().stream().anyMatch(c -> c instanceof True)) {
+                // true is neutral to conjunction
+                return new And(getChildrenExcept(formula, True.class));
+            }
+        } else if (formula instanceof Or) {
+            if (formula.getChildrenCount() > 1
+                    && formula.getChildren().stream().anyMatch(c -> c == Expressions.True)) {
+                // true dominates disjunction
+                return new Or(Expressions.True);
+            } else if (formula.getChildren().stream().anyMatch(c -> c instanceof False)) {
+                // false is neutral to disjunction
+                return new Or(getChildrenExcept(formula, False.class));
+            }
+        }
+        return null;
+    }
+
+    private static List<IFormula> getChildrenExcept(IFormula formula, Class<?> type) {
+        final ArrayList<IFormula> children = new ArrayList<>(formula.getChildrenCount());
+        for (IExpression child : formula.getChildren()) {
+            if (!type.isInstance(child)) {
+                children.add((IFormula) child);
+            }
+        }
+        return children;
+    }
+
+    private static IFormula mergeAndOr(IFormula formula) {
+        final boolean isAnd = formula instanceof And;
+        if (!isAnd && !(formula instanceof Or)
+                || formula.getChildren().stream().noneMatch(c -> isMergeable(isAnd, c))) {
+            return null;
+        }
+        final ArrayList<IFormula> children = new ArrayList<>(formula.getChildrenCount());
+        for (IExpression child : formula.getChildren()) {
+            if (isMergeable(isAnd, child)) {
+                for (IExpression grandChild : child.getChildren()) {
+                    children.add((IFormula) grandChild);
+                }
+            } else {
+                children.add((IFormula) child);
+            }
+        }
+        return isAnd ? new And(children) : new Or(children);
+    }
+
+    private static boolean isMergeable(boolean isAnd, IExpression child) {
+        return isAnd
+                ? (child instanceof And) || (child instanceof Or && child.getChildrenCount() == 1)
+                : (child instanceof Or) || (child instanceof And && child.getChildrenCount() == 1);
+    }
+
+    private static IFormula unwrapAndOr(IFormula formula) {
+        return formula.getChildrenCount() == 1 && ((formula instanceof And) || (formula instanceof Or))
+                ? (IFormula) formula.getFirstChild().get()
+                : null;
+    }
+
+    private static IFormula replaceLiteral(IFormula formula, ValueAssignment coreDeadFeature) {
+        if (formula instanceof Literal) {
+            final Literal literal = (Literal) formula;
+            if (literal.getExpression() instanceof Variable) {
+                final Result<Object> value =
+                        coreDeadFeature.getValue(((Variable) literal.getExpression()).getName());
+                if (value.isPresent() && value.get() instanceof Boolean) {
+                    return (Boolean) value.get() == literal.isPositive() ? Expressions.True : Expressions.False;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static IFormula reduceConstantConnective(IFormula formula) {
+        if (formula instanceof Not) {
+            final IExpression child = ((Not) formula).getExpression();
+            if (child == Expressions.False) {
+                return Expressions.True;
+            } else if (child == Expressions.True) {
+                return Expressions.False;
+            }
+        } else if (formula instanceof Implies) {
+            final IExpression left = ((Implies) formula).getLeftExpression();
+            final IExpression right = ((Implies) formula).getRightExpression();
+            if (left == Expressions.False || right == Expressions.True) {
+                return Expressions.True;
+            } else if (left == Expressions.True) {
+                return (IFormula) right;
+            } else if (right == Expressions.False) {
+                return negate(left);
+            }
+        } else if (formula instanceof BiImplies) {
+            final IExpression left = ((BiImplies) formula).getLeftExpression();
+            final IExpression right = ((BiImplies) formula).getRightExpression();
+            if (left == Expressions.True) {
+                return (IFormula) right;
+            } else if (right == Expressions.True) {
+                return (IFormula) left;
+            } else if (left == Expressions.False && right == Expressions.False) {
+                return Expressions.True;
+            } else if (left == Expressions.False) {
+                return negate(right);
+            } else if (right == Expressions.False) {
+                return negate(left);
+            }
+        }
+        return null;
+    }
+
+    private static IFormula negate(IExpression formula) {
+        if (formula instanceof Not) {
+            return (IFormula) ((Not) formula).getExpression();
+        } else if (formula instanceof Literal && ((Literal) formula).isNegative()) {
+            return ((Literal) formula).invert();
+        }
+        return new Not((IFormula) formula);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.io.dimacs.DimacsClauseWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link DimacsClauseWriter}.
+ *
+ * @author Sebastian Krieter
+ */
+public class DimacsClauseWriterTest {
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void writesConstraintsOneAtATime() throws IOException {
+        Path directory = Files.createTempDirectory("dimacs");
+        Path path = directory.resolve("model.dimacs");
+        try (DimacsClauseWriter writer = new DimacsClauseWriter(path)) {
+            assertEquals(1, (int) writer.append(literal("a")).get());
+            assertEquals(1, (int) writer.append(implies(literal("b"), literal("a"))).get());
+            assertEquals(2, (int) writer.append(and(literal(false, "c"), or(literal("b"), literal("c")))).get());
+            assertFalse(writer.append(forAll(variable("x"), literal("x"))).isPresent());
+            assertEquals(4, writer.getClauseCount());
+        }
+        assertEquals(
+                List.of("c 1 a", "c 2 b", "c 3 c", "p cnf 3 4", "1 0", "-2 1 0", "-3 0", "2 3 0"),
+                Files.readAllLines(path));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+        deleteDirectory(directory);
+    }
+
+    private static class FailingDimacsClauseWriter extends DimacsClauseWriter {
+        FailingDimacsClauseWriter(Path path) throws IOException {
+            super(path);
+        }
+
+        @Override
+        protected BufferedWriter createClauseWriter(Path clausePath) throws IOException {
+            return new BufferedWriter(
+                    new Writer() {
+                        private int length;
+
+                        @Override
+                        public void write(char[] buffer, int offset, int length) throws IOException {
+                            this.length += length;
+                            if (this.length > 8) {
+                                throw new IOException("disk full");
+                            }
+                        }
+
+                        @Override
+                        public void flush() {}
+
+                        @Override
+                        public void close() {}
+                    },
+                    1);
+        }
+    }
+
+    @Test
+    public void failsWithoutWritingInconsistentFile() throws IOException {
+        Path directory = Files.createTempDirectory("dimacs");
+        Path path = directory.resolve("model.dimacs");
+        DimacsClauseWriter writer = new FailingDimacsClauseWriter(path);
+        assertTrue(writer.append(literal("a")).isPresent());
+        assertFalse(writer.append(and(literal("b"), literal("c"), literal("d"))).isPresent());
+        assertTrue(writer.isFailed());
+        assertFalse(writer.append(literal("e")).isPresent());
+        assertThrows(IOException.class, writer::close);
+        assertFalse(Files.exists(path));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void sharesVariablesAcrossConstraints() throws IOException {
+        Path directory = Files.createTempDirectory("dimacs");
+        Path path = directory.resolve("model.dimacs");
+        try (DimacsClauseWriter writer = new DimacsClauseWriter(path, false, 0)) {
+            writer.append(or(and(literal("a"), literal("b")), literal("c")));
+            writer.append(or(and(literal("a"), literal("b")), literal("d")));
+            assertEquals(6, writer.getVariableMap().getVariableCount());
+            assertTrue(writer.getVariableMap().has("a"));
+        }
+        List<String> lines = Files.readAllLines(path);
+        assertEquals("p cnf 6 8", lines.get(6));
+        assertEquals(15, lines.size());
+        deleteDirectory(directory);
+    }
+}
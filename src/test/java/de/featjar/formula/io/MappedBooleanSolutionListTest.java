@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.MappedBooleanSolutionList;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link MappedBooleanSolutionList}.
+ *
+ * @author Sebastian Krieter
+ */
+public class MappedBooleanSolutionListTest {
+
+    private static final int VARIABLE_COUNT = 70;
+
+    private static List<BooleanSolution> createSolutions(int count) {
+        Random random = new Random(1);
+        List<BooleanSolution> solutions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] literals = new int[VARIABLE_COUNT];
+            for (int j = 0; j < VARIABLE_COUNT; j++) {
+                literals[j] = (j + 1) * (random.nextInt(3) - 1);
+            }
+            solutions.add(new BooleanSolution(literals, false));
+        }
+        return solutions;
+    }
+
+    private static void assertContains(MappedBooleanSolutionList list, List<BooleanSolution> solutions) {
+        assertEquals(solutions.size(), list.size());
+        for (int i = 0; i < solutions.size(); i++) {
+            int[] literals = solutions.get(i).get();
+            assertArrayEquals(literals, list.getSolution(i).get());
+            for (int literal : literals) {
+                if (literal != 0) {
+                    assertTrue(list.containsAll(i, literal));
+                    assertFalse(list.containsAll(i, -literal));
+                }
+            }
+        }
+    }
+
+    private static void writeHeader(Path file, int variableCount, long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0x464A534C).putInt(variableCount).putLong(size);
+        Files.write(file, header.array());
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("solutions");
+        Path file = directory.resolve("solutions.bin");
+        List<BooleanSolution> solutions = createSolutions(200);
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.create(file, VARIABLE_COUNT)) {
+            assertTrue(list.isEmpty());
+            list.addAll(solutions.subList(0, 100));
+            for (BooleanSolution solution : solutions.subList(100, 150)) {
+                PackedBooleanSolution packedSolution = new PackedBooleanSolution(solution);
+                list.add(packedSolution.getAssigned(), packedSolution.getSelected());
+            }
+            assertContains(list, solutions.subList(0, 150));
+        }
+        assertTrue(Files.size(file) <= 16 + 2 * 150 * 32);
+
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.open(file)) {
+            assertEquals(VARIABLE_COUNT, list.getVariableCount());
+            assertContains(list, solutions.subList(0, 150));
+            list.addAll(solutions.subList(150, 200));
+        }
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.open(file)) {
+            assertContains(list, solutions);
+            assertEquals(0, list.getLiteral(0, VARIABLE_COUNT + 1));
+            assertFalse(list.get(200).isPresent());
+            assertThrows(IndexOutOfBoundsException.class, () -> list.getSolution(200));
+        }
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void readsConcurrently() throws IOException {
+        Path directory = Files.createTempDirectory("solutions");
+        Path file = directory.resolve("solutions.bin");
+        List<BooleanSolution> solutions = createSolutions(1000);
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.create(file, VARIABLE_COUNT)) {
+            list.addAll(solutions);
+        }
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.open(file)) {
+            assertTrue(IntStream.range(0, solutions.size())
+                    .parallel()
+                    .allMatch(i -> list.containsAll(i, solutions.get(i).getNonZeroValues())));
+        }
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void rejectsInvalidFiles() throws IOException {
+        Path directory = Files.createTempDirectory("solutions");
+        Path file = directory.resolve("solutions.bin");
+        writeHeader(file, VARIABLE_COUNT, 1L << 32);
+        assertThrows(IOException.class, () -> MappedBooleanSolutionList.open(file));
+        writeHeader(file, VARIABLE_COUNT, -1);
+        assertThrows(IOException.class, () -> MappedBooleanSolutionList.open(file));
+        writeHeader(file, VARIABLE_COUNT, 1);
+        assertThrows(IOException.class, () -> MappedBooleanSolutionList.open(file));
+        writeHeader(file, VARIABLE_COUNT, 0);
+        try (MappedBooleanSolutionList list = MappedBooleanSolutionList.open(file)) {
+            assertTrue(list.isEmpty());
+        }
+        deleteDirectory(directory);
+    }
+}
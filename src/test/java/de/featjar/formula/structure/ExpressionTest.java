@@ -28,8 +28,12 @@ import de.featjar.formula.analysis.value.ValueAssignment;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.structure.term.ITerm;
 import de.featjar.formula.structure.term.value.Constant;
+import de.featjar.formula.structure.formula.predicate.Literal;
 import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.structure.term.value.VariableTable;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
@@ -111,6 +115,135 @@ class ExpressionTest {
         assertEquals(List.of(42L), term.getConstantValues());
     }
 
+    @Test
+    void getVariableMapAfterModification() {
+        IFormula formula = and(literal("a"), literal("b"));
+        assertEquals(List.of("a", "b"), List.copyOf(formula.getVariableNames()));
+        formula.getVariableMap().clear();
+        assertEquals(List.of("a", "b"), List.copyOf(formula.getVariableNames()));
+        formula.addChild(literal("c"));
+        assertEquals(List.of("a", "b", "c"), List.copyOf(formula.getVariableNames()));
+        ((Variable) formula.getChildren().get(0).getChildren().get(0)).setName("d");
+        assertEquals(List.of("d", "b", "c"), List.copyOf(formula.getVariableNames()));
+    }
+
+    private static void assertCachesInvalidated(Consumer<IFormula> modification) {
+        IFormula formula = and(or(literal("a"), literal("b")), or(or(literal("c"), literal("d")), literal("e")));
+        IFormula copy = (IFormula) formula.cloneTree();
+        assertEquals(copy.hashCode(), formula.hashCode());
+        assertEquals(copy, formula);
+        assertEquals(copy.isCNF(), formula.isCNF());
+        modification.accept(formula);
+        IFormula uncachedFormula = (IFormula) formula.cloneTree();
+        assertEquals(uncachedFormula.hashCode(), formula.hashCode());
+        assertEquals(uncachedFormula, formula);
+        assertEquals(formula, uncachedFormula);
+        assertNotEquals(copy, formula);
+        assertNotEquals(formula, copy);
+        assertEquals(uncachedFormula.isNNF(), formula.isNNF());
+        assertEquals(uncachedFormula.isCNF(), formula.isCNF());
+    }
+
+    private static IFormula getGrandchild(IFormula formula) {
+        return (IFormula) formula.getChildren().get(1).getChildren().get(0);
+    }
+
+    @Test
+    void hashCodeAfterSetChildren() {
+        assertCachesInvalidated(formula -> getGrandchild(formula).setChildren(List.of(literal("x"))));
+    }
+
+    @Test
+    void hashCodeAfterReplaceChildren() {
+        assertCachesInvalidated(formula -> getGrandchild(formula).replaceChildren(child -> literal("x")));
+        assertCachesInvalidated(
+                formula -> getGrandchild(formula).flatReplaceChildren(child -> List.of(literal("x"), literal("y"))));
+        assertCachesInvalidated(formula -> getGrandchild(formula).replaceChild(0, and(literal("x"))));
+        assertCachesInvalidated(formula -> getGrandchild(formula)
+                .replaceChild(getGrandchild(formula).getChildren().get(1), literal("x")));
+    }
+
+    @Test
+    void hashCodeAfterAddingAndRemovingChildren() {
+        assertCachesInvalidated(formula -> getGrandchild(formula).addChild(literal("x")));
+        assertCachesInvalidated(formula -> getGrandchild(formula).addChild(0, literal("x")));
+        assertCachesInvalidated(formula -> getGrandchild(formula).removeChild(0));
+        assertCachesInvalidated(formula ->
+                getGrandchild(formula).removeChild(getGrandchild(formula).getChildren().get(1)));
+        assertCachesInvalidated(formula -> getGrandchild(formula).clearChildren());
+        assertCachesInvalidated(formula -> getGrandchild(formula).sort(Comparator.comparing(IExpression::getName)
+                .thenComparing(child -> child.getChildren().get(0).getName())
+                .reversed()));
+    }
+
+    @Test
+    void hashCodeAfterSetPositive() {
+        assertCachesInvalidated(formula -> ((Literal) getGrandchild(formula).getChildren().get(0)).setPositive(false));
+    }
+
+    @Test
+    void hashCodeAfterModifyingSharedChild() {
+        Literal literal = literal("a");
+        IFormula formula1 = and(or(literal, literal("b")));
+        IFormula formula2 = not(literal);
+        int hashCode1 = formula1.hashCode();
+        int hashCode2 = formula2.hashCode();
+        literal.setPositive(false);
+        assertNotEquals(hashCode1, formula1.hashCode());
+        assertNotEquals(hashCode2, formula2.hashCode());
+        assertEquals(formula1.cloneTree().hashCode(), formula1.hashCode());
+        assertEquals(formula2.cloneTree().hashCode(), formula2.hashCode());
+    }
+
+    @Test
+    void hashCodeAfterModifyingRemovedChild() {
+        Literal literal = literal("a");
+        IFormula formula = or(literal, literal("b"));
+        IFormula copy = (IFormula) formula.cloneTree();
+        assertEquals(copy, formula);
+        formula.replaceChild(0, literal("a"));
+        literal.setPositive(false);
+        assertEquals(copy.hashCode(), formula.hashCode());
+        assertEquals(copy, formula);
+        IFormula newFormula = not(literal);
+        int hashCode = newFormula.hashCode();
+        literal.setPositive(true);
+        assertNotEquals(hashCode, newFormula.hashCode());
+        assertEquals(not(literal("a")), newFormula);
+    }
+
+    @Test
+    void childrenAreUnmodifiable() {
+        List<IFormula> formulas = List.of(
+                not(literal("a")),
+                implies(literal("a"), literal("b")),
+                and(),
+                or(literal("a"), literal("b"), literal("c")));
+        for (IFormula formula : formulas) {
+            assertThrows(UnsupportedOperationException.class, () -> formula.getChildren().clear());
+            List<IExpression> children = List.copyOf(formula.getChildren());
+            formula.addChild(literal("d"));
+            assertEquals(children.size() + 1, formula.getChildrenCount());
+            assertEquals(literal("d"), formula.getLastChild().get());
+            formula.removeChild(children.size());
+            assertEquals(children, formula.getChildren());
+        }
+    }
+
+    @Test
+    void variableTable() {
+        VariableTable variableTable = new VariableTable();
+        Variable a = variableTable.get("a");
+        assertSame(a, variableTable.get("a"));
+        assertEquals(2, variableTable.getIndex("b"));
+        assertEquals(1, variableTable.getIndex("a"));
+        assertSame(a, variableTable.get(1).get());
+        assertTrue(variableTable.get(3).isEmpty());
+        assertEquals(List.of("a", "b"), variableTable.getNames());
+        IFormula formula = or(new Literal(a), new Literal(false, variableTable.get("a")));
+        assertEquals(List.of(a), formula.getVariables());
+    }
+
     @Test
     void printParseable() {
         // TODO
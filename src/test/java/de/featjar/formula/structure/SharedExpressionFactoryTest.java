@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.Implies;
+import org.junit.jupiter.api.Test;
+
+class SharedExpressionFactoryTest {
+    IFormula formula = and(
+            implies(literal("a"), literal("p")),
+            implies(literal("b"), literal("p")),
+            implies(literal("a"), literal("p")),
+            atLeast(1, literal("a"), literal(false, "b")));
+
+    @Test
+    void sharesEqualSubexpressions() {
+        SharedExpressionFactory factory = new SharedExpressionFactory();
+        SharedExpression expression = factory.get(formula);
+        assertSame(expression.getChild(0), expression.getChild(2));
+        assertNotSame(expression.getChild(0), expression.getChild(1));
+        assertSame(expression.getChild(0).getChild(1), expression.getChild(1).getChild(1));
+        assertEquals(11, factory.size());
+    }
+
+    @Test
+    void distinguishesNodeAttributes() {
+        SharedExpressionFactory factory = new SharedExpressionFactory();
+        SharedExpression expression = factory.get(formula);
+        assertNotSame(expression.getChild(3), factory.get(atLeast(2, literal("a"), literal(false, "b"))));
+        assertNotSame(factory.get(literal("a")), factory.get(literal(false, "a")));
+    }
+
+    @Test
+    void isCanonical() {
+        SharedExpressionFactory factory = new SharedExpressionFactory();
+        assertSame(factory.get(formula), factory.get(formula.cloneTree()));
+    }
+
+    @Test
+    void convertsBackToTree() {
+        SharedExpressionFactory factory = new SharedExpressionFactory();
+        IFormula clone = factory.get(formula).toFormula();
+        assertNotSame(formula, clone);
+        assertTrue(formula.equalsTree(clone));
+    }
+
+    @Test
+    void handlesDeeplyNestedExpressions() {
+        int depth = 20000;
+        IFormula deepFormula = literal("a");
+        for (int i = 0; i < depth; i++) {
+            deepFormula = implies(literal("a"), deepFormula);
+        }
+        SharedExpressionFactory factory = new SharedExpressionFactory();
+        IFormula clone = factory.get(deepFormula).toFormula();
+        assertEquals(depth + 2, factory.size());
+        for (int i = 0; i < depth; i++) {
+            assertInstanceOf(Implies.class, clone);
+            assertEquals(literal("a"), clone.getChildren().get(0));
+            clone = (IFormula) clone.getChildren().get(1);
+        }
+        assertEquals(literal("a"), clone);
+    }
+}
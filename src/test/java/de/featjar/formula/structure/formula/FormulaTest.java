@@ -22,11 +22,19 @@ package de.featjar.formula.structure.formula;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import de.featjar.base.data.Result;
+import de.featjar.formula.structure.ExpressionKind;
 import de.featjar.formula.structure.Expressions;
 import de.featjar.formula.structure.formula.connective.And;
 import de.featjar.formula.structure.formula.connective.Implies;
+import de.featjar.formula.structure.formula.connective.Not;
 import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.connective.Reference;
 import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.tester.CNFTester;
+import de.featjar.formula.tester.DNFTester;
+import de.featjar.formula.tester.NNFTester;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class FormulaTest {
@@ -77,6 +85,69 @@ class FormulaTest {
         assertTrue(clausalDnf.isStrictNormalForm(FormulaNormalForm.DNF));
     }
 
+    @Test
+    void normalFormsMatchTesters() {
+        for (IFormula formula : List.of(
+                formula,
+                cnf,
+                dnf,
+                clausalCnf,
+                clausalDnf,
+                new And(),
+                new Or(),
+                new Not(new Literal("a")),
+                new Or(new Not(new Literal("a")), new And(new Not(new Not(new Literal("b"))))))) {
+            assertEquals(new NNFTester(false).test(formula), formula.isNNF());
+            assertEquals(new CNFTester(false).test(formula), formula.isCNF());
+            assertEquals(new DNFTester(false).test(formula), formula.isDNF());
+            assertEquals(new NNFTester(true).test(formula), formula.isStrictNormalForm(FormulaNormalForm.NNF));
+            assertEquals(new CNFTester(true).test(formula), formula.isStrictNormalForm(FormulaNormalForm.CNF));
+            assertEquals(new DNFTester(true).test(formula), formula.isStrictNormalForm(FormulaNormalForm.DNF));
+        }
+    }
+
+    @Test
+    void normalFormsAreUpdatedOnModification() {
+        IFormula formula = new And(new Or(new Literal("a")));
+        assertTrue(formula.isStrictNormalForm(FormulaNormalForm.CNF));
+        assertTrue(formula.isKind(ExpressionKind.NNF));
+        ((Or) formula.getChildren().get(0)).addChild(new Not(new Literal("b")));
+        assertFalse(formula.isCNF());
+        assertFalse(formula.isKind(ExpressionKind.NNF));
+        assertTrue(formula.isKind(ExpressionKind.BOOLEAN));
+        assertEquals(ExpressionKind.BOOLEAN, formula.getKind());
+    }
+
+    @Test
+    void cloneConnectives() {
+        IFormula clone = clausalCnf.cloneConnectives();
+        assertEquals(clausalCnf, clone);
+        assertNotSame(clausalCnf, clone);
+        assertNotSame(clausalCnf.getChildren().get(0), clone.getChildren().get(0));
+        assertSame(
+                clausalCnf.getChildren().get(0).getChildren().get(0),
+                clone.getChildren().get(0).getChildren().get(0));
+    }
+
+    @Test
+    void mutateCopyOnWrite() {
+        IFormula formula = new Reference(new Or(new Literal("a"), new Literal("b")));
+        IFormula clone = Reference.mutate(formula, false, reference -> {
+                    reference.getExpression().addChild(new Literal("c"));
+                    return Result.ofVoid();
+                })
+                .get();
+        assertEquals(2, formula.getChildren().get(0).getChildrenCount());
+        assertEquals(3, clone.getChildren().get(0).getChildrenCount());
+        IFormula inPlace = Reference.mutate(formula, true, reference -> {
+                    reference.getExpression().addChild(new Literal("c"));
+                    return Result.ofVoid();
+                })
+                .get();
+        assertSame(formula, inPlace);
+        assertEquals(3, formula.getChildren().get(0).getChildrenCount());
+    }
+
     @Test
     void toCNF() {
         // TODO
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.ABooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignmentSpace;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class BooleanAssignmentSpaceTest {
+
+    private static BooleanAssignmentSpace createAssignmentSpace() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        variableMap.add("c");
+        List<ABooleanAssignment> clauses =
+                List.of(new BooleanClause(1, -2), new BooleanAssignment(-3), new BooleanClause(2, 3));
+        List<ABooleanAssignment> solutions = List.of(
+                new BooleanSolution(new int[] {1, -2, 3}, false), new BooleanSolution(new int[] {-1, 0, 3}, false));
+        return new BooleanAssignmentSpace(variableMap, List.of(clauses, solutions));
+    }
+
+    @Test
+    void copiesUseCurrentVariableCount() {
+        BooleanAssignmentSpace assignmentSpace = createAssignmentSpace();
+        BooleanClauseList view = assignmentSpace.getClauseListView(0);
+        assertEquals(3, view.getVariableCount());
+        assertEquals(3, assignmentSpace.toClauseList(0).getVariableCount());
+        assignmentSpace.getVariableMap().add("d");
+        assertEquals(4, assignmentSpace.toClauseList(0).getVariableCount());
+        assertEquals(3, view.getVariableCount());
+        assertSame(view, assignmentSpace.getClauseListView(0));
+    }
+
+    @Test
+    void viewsEqualCopies() {
+        BooleanAssignmentSpace assignmentSpace = createAssignmentSpace();
+        for (int groupIndex = 0; groupIndex < 2; groupIndex++) {
+            BooleanClauseList clauseList = assignmentSpace.getClauseListView(groupIndex);
+            assertEquals(assignmentSpace.toClauseList(groupIndex).getAll(), clauseList.getAll());
+            assertEquals(assignmentSpace.getVariableMap().getVariableCount(), clauseList.getVariableCount());
+            BooleanSolutionList solutionList = assignmentSpace.getSolutionListView(groupIndex);
+            assertEquals(assignmentSpace.toSolutionList(groupIndex).getAll(), solutionList.getAll());
+        }
+        assertSame(assignmentSpace.getClauseListView(), assignmentSpace.getClauseListView(0));
+        assertSame(assignmentSpace.getSolutionListView(), assignmentSpace.getSolutionListView(0));
+    }
+
+    @Test
+    void viewsShareAssignments() {
+        BooleanAssignmentSpace assignmentSpace = createAssignmentSpace();
+        List<BooleanClause> clauses = assignmentSpace.getClauseListView(0).getAll();
+        assertSame(assignmentSpace.getGroups().get(0).get(0), clauses.get(0));
+        assertSame(clauses.get(1), clauses.get(1));
+        List<BooleanSolution> solutions = assignmentSpace.getSolutionListView(1).getAll();
+        assertSame(assignmentSpace.getGroups().get(1).get(1), solutions.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> clauses.add(new BooleanClause(1)));
+    }
+
+    @Test
+    void concurrentCallsReturnSameView() {
+        BooleanAssignmentSpace assignmentSpace = createAssignmentSpace();
+        Set<Object> views = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> clauses = Collections.newSetFromMap(new IdentityHashMap<>());
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            BooleanClauseList view = assignmentSpace.getClauseListView(0);
+            BooleanClause clause = view.getAll().get(1);
+            synchronized (views) {
+                views.add(view);
+                clauses.add(clause);
+            }
+        });
+        assertEquals(1, views.size());
+        assertEquals(1, clauses.size());
+    }
+}
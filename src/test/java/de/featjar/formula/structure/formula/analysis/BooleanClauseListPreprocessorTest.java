@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanClauseListPreprocessor;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.ModelReconstructionStack;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BooleanClauseListPreprocessor}.
+ *
+ * @author Sebastian Krieter
+ */
+public class BooleanClauseListPreprocessorTest {
+
+    @Test
+    void unitPropagation() {
+        BooleanClauseList clauseList = new BooleanClauseList(3);
+        clauseList.add(new BooleanClause(1));
+        clauseList.add(new BooleanClause(-1, 2));
+        clauseList.add(new BooleanClause(-2, 3, 1));
+        BooleanClauseListPreprocessor preprocessor =
+                new BooleanClauseListPreprocessor(clauseList, false).preprocess();
+        assertTrue(preprocessor.getClauseList().getAll().isEmpty());
+        BooleanSolution solution = preprocessor
+                .getReconstructionStack()
+                .reconstruct(new BooleanSolution(new int[] {-1, -2, -3}, false));
+        assertTrue(isSatisfied(clauseList.getAll(), solution.get()));
+    }
+
+    @Test
+    void subsumptionAndSelfSubsumingResolution() {
+        BooleanClauseList clauseList = new BooleanClauseList(5);
+        clauseList.add(new BooleanClause(1, 2, 3));
+        clauseList.add(new BooleanClause(1, 2, -3));
+        clauseList.add(new BooleanClause(-1, -2, 4));
+        clauseList.add(new BooleanClause(-1, -2, -4));
+        clauseList.add(new BooleanClause(-1, -2, 4, 5));
+        clauseList.add(new BooleanClause(-1, -2, 4, -5));
+        BooleanClauseListPreprocessor preprocessor =
+                new BooleanClauseListPreprocessor(clauseList, false).preprocess();
+        assertEquals(
+                Set.of(new BooleanClause(1, 2), new BooleanClause(-1, -2)),
+                new HashSet<>(preprocessor.getClauseList().getAll()));
+    }
+
+    @Test
+    void removesCoreVariablesWithoutVariableElimination() {
+        BooleanClauseList clauseList = new BooleanClauseList(3);
+        clauseList.add(new BooleanClause(1, 2));
+        clauseList.add(new BooleanClause(1, -2));
+        clauseList.add(new BooleanClause(-1, 3, 2));
+        clauseList.add(new BooleanClause(-3, -2));
+        BooleanClauseListPreprocessor preprocessor =
+                new BooleanClauseListPreprocessor(clauseList, false).preprocess();
+        assertTrue(preprocessor.getClauseList().getAll().stream()
+                .noneMatch(clause -> clause.containsAnyVariable(1)));
+    }
+
+    @Test
+    void unsatisfiable() {
+        BooleanClauseList clauseList = new BooleanClauseList(2);
+        clauseList.add(new BooleanClause(1, 2));
+        clauseList.add(new BooleanClause(1, -2));
+        clauseList.add(new BooleanClause(-1, 2));
+        clauseList.add(new BooleanClause(-1, -2));
+        BooleanClauseListPreprocessor preprocessor =
+                new BooleanClauseListPreprocessor(clauseList, true).preprocess();
+        assertTrue(preprocessor.isUnsatisfiable());
+        assertEquals(List.of(new BooleanClause()), preprocessor.getClauseList().getAll());
+    }
+
+    @Test
+    void randomClauseListsAreEquisatisfiableAndReconstructible() {
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            int variableCount = 1 + random.nextInt(8);
+            BooleanClauseList clauseList = createRandomClauseList(random, variableCount);
+            BooleanClauseListPreprocessor preprocessor =
+                    new BooleanClauseListPreprocessor(clauseList, random.nextBoolean()).preprocess();
+            List<BooleanClause> reducedClauses = preprocessor.getClauseList().getAll();
+            ModelReconstructionStack reconstructionStack = preprocessor.getReconstructionStack();
+            boolean isSatisfiable = false;
+            boolean isReducedSatisfiable = false;
+            for (int mask = 0; mask < (1 << variableCount); mask++) {
+                int[] literals = new int[variableCount];
+                for (int j = 0; j < variableCount; j++) {
+                    literals[j] = ((mask >> j) & 1) == 1 ? j + 1 : -(j + 1);
+                }
+                isSatisfiable |= isSatisfied(clauseList.getAll(), literals);
+                if (isSatisfied(reducedClauses, literals)) {
+                    isReducedSatisfiable = true;
+                    BooleanSolution solution = reconstructionStack.reconstruct(new BooleanSolution(literals, false));
+                    assertTrue(isSatisfied(clauseList.getAll(), solution.get()));
+                }
+            }
+            assertEquals(isSatisfiable, isReducedSatisfiable);
+        }
+    }
+
+    private static BooleanClauseList createRandomClauseList(Random random, int variableCount) {
+        BooleanClauseList clauseList = new BooleanClauseList(variableCount);
+        int clauseCount = random.nextInt(4 * variableCount);
+        for (int i = 0; i < clauseCount; i++) {
+            int[] literals = random.ints(1 + random.nextInt(3), 1, variableCount + 1)
+                    .distinct()
+                    .map(variable -> random.nextBoolean() ? variable : -variable)
+                    .toArray();
+            clauseList.add(new BooleanClause(literals));
+        }
+        return clauseList;
+    }
+
+    private static boolean isSatisfied(List<BooleanClause> clauses, int[] literals) {
+        for (BooleanClause clause : clauses) {
+            boolean isClauseSatisfied = false;
+            for (int literal : clause.get()) {
+                if (literals[Math.abs(literal) - 1] == literal) {
+                    isClauseSatisfied = true;
+                    break;
+                }
+            }
+            if (!isClauseSatisfied) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
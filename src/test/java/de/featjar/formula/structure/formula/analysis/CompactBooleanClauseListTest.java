@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.ABooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignmentSpace;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.CompactBooleanClauseList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CompactBooleanClauseListTest {
+
+    private static final int[][] CLAUSES = {{1, -2}, {3}, {}, {-1, 2, 3}};
+
+    private static CompactBooleanClauseList createClauseList() {
+        // starts with the smallest capacity, so every clause grows the underlying arrays
+        CompactBooleanClauseList clauseList = new CompactBooleanClauseList(0, 0, 3);
+        clauseList.add(CLAUSES[0]);
+        clauseList.add(new BooleanClause(CLAUSES[1]));
+        clauseList.add(CLAUSES[2]);
+        clauseList.add(CLAUSES[3]);
+        return clauseList;
+    }
+
+    private static VariableMap createVariableMap() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        variableMap.add("c");
+        return variableMap;
+    }
+
+    @Test
+    void addsAndGetsClauses() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        assertEquals(4, clauseList.size());
+        assertFalse(clauseList.isEmpty());
+        assertEquals(6, clauseList.getLiteralCount());
+        assertArrayEquals(new int[] {0, 2, 3, 3, 6}, Arrays.copyOf(clauseList.getOffsets(), 5));
+        for (int i = 0; i < CLAUSES.length; i++) {
+            assertArrayEquals(CLAUSES[i], clauseList.copyClause(i));
+            assertEquals(CLAUSES[i].length, clauseList.getClauseLength(i));
+            assertEquals(new BooleanClause(CLAUSES[i]), clauseList.get(i).get());
+        }
+        assertEquals(3, clauseList.getClauseStart(3));
+        assertEquals(6, clauseList.getClauseEnd(3));
+        assertEquals(-2, clauseList.getLiteral(0, 1));
+        assertEquals(3, clauseList.getLiteral(3, 2));
+        List<Integer> literals = new ArrayList<>();
+        clauseList.forEachLiteral(literals::add);
+        assertEquals(List.of(1, -2, 3, -1, 2, 3), literals);
+
+        assertTrue(clauseList.get(4).isEmpty());
+        assertTrue(clauseList.get(-1).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> clauseList.getLiteral(1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> clauseList.getLiteral(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> clauseList.copyClause(4));
+
+        clauseList.clear();
+        assertTrue(clauseList.isEmpty());
+        assertEquals(0, clauseList.getLiteralCount());
+        clauseList.add(-3);
+        assertArrayEquals(new int[] {-3}, clauseList.copyClause(0));
+    }
+
+    @Test
+    void viewsClauses() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        CompactBooleanClauseList.ClauseView view = clauseList.view(3);
+        assertEquals(3, view.getIndex());
+        assertEquals(3, view.size());
+        assertEquals(3, view.getStart());
+        assertEquals(6, view.getEnd());
+        assertEquals(2, view.get(1));
+        assertTrue(view.contains(-1));
+        assertFalse(view.contains(1));
+        assertEquals(new BooleanClause(CLAUSES[3]), view.toClause());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(3));
+
+        assertArrayEquals(CLAUSES[0], view.moveTo(0).toArray());
+        assertEquals(0, view.moveTo(2).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.moveTo(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> clauseList.view(4));
+    }
+
+    @Test
+    void iteratesWithCursor() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        CompactBooleanClauseList.ClauseView cursor = clauseList.cursor();
+        assertEquals(-1, cursor.getIndex());
+        assertEquals(0, cursor.size());
+        for (int i = 0; i < CLAUSES.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(i, cursor.getIndex());
+            assertArrayEquals(CLAUSES[i], cursor.toArray());
+        }
+        assertFalse(cursor.next());
+        assertEquals(CLAUSES.length - 1, cursor.getIndex());
+        cursor.moveTo(-1);
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.getIndex());
+        assertFalse(new CompactBooleanClauseList(3).cursor().next());
+    }
+
+    @Test
+    void convertsToClauseList() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        BooleanClauseList booleanClauseList = clauseList.toClauseList();
+        assertEquals(3, booleanClauseList.getVariableCount());
+        assertEquals(CLAUSES.length, booleanClauseList.size());
+        for (int i = 0; i < CLAUSES.length; i++) {
+            assertEquals(new BooleanClause(CLAUSES[i]), booleanClauseList.get(i).get());
+        }
+        assertEquals(clauseList, new CompactBooleanClauseList(booleanClauseList));
+    }
+
+    @Test
+    void convertsToAssignmentSpace() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        VariableMap variableMap = createVariableMap();
+        BooleanAssignmentSpace assignmentSpace = clauseList.toAssignmentSpace(variableMap);
+        assertEquals(1, assignmentSpace.getGroups().size());
+        assertEquals(clauseList.toClauseList().getAll(), assignmentSpace.getGroups().get(0));
+        assertEquals(clauseList, CompactBooleanClauseList.of(assignmentSpace, 0));
+    }
+
+    @Test
+    void convertsGroupOfAssignmentSpace() {
+        VariableMap variableMap = createVariableMap();
+        List<ABooleanAssignment> clauses = List.of(new BooleanClause(1, -2), new BooleanAssignment(-3));
+        List<ABooleanAssignment> solutions = List.of(new BooleanAssignment(1, 2, 3));
+        BooleanAssignmentSpace assignmentSpace = new BooleanAssignmentSpace(variableMap, List.of(clauses, solutions));
+        CompactBooleanClauseList clauseList = CompactBooleanClauseList.of(assignmentSpace, 0);
+        assertEquals(3, clauseList.getVariableCount());
+        assertEquals(2, clauseList.size());
+        assertArrayEquals(new BooleanClause(1, -2).get(), clauseList.copyClause(0));
+        assertArrayEquals(new int[] {-3}, clauseList.copyClause(1));
+        assertEquals(assignmentSpace.toClauseList(0).getAll(), clauseList.toClauseList().getAll());
+        assertEquals(1, CompactBooleanClauseList.of(assignmentSpace, 1).size());
+    }
+
+    @Test
+    void equalsAndHashCode() {
+        CompactBooleanClauseList clauseList = createClauseList();
+        CompactBooleanClauseList otherClauseList = new CompactBooleanClauseList(100, 100, 3);
+        for (int[] clause : CLAUSES) {
+            otherClauseList.add(clause);
+        }
+        assertEquals(clauseList, otherClauseList);
+        assertEquals(clauseList.hashCode(), otherClauseList.hashCode());
+        assertEquals(clauseList, new CompactBooleanClauseList(clauseList));
+        assertEquals(clauseList.hashCode(), new CompactBooleanClauseList(clauseList).hashCode());
+
+        otherClauseList.setVariableCount(4);
+        assertNotEquals(clauseList, otherClauseList);
+        otherClauseList.setVariableCount(3);
+        otherClauseList.add(1);
+        assertNotEquals(clauseList, otherClauseList);
+
+        // same literals, but split into different clauses
+        CompactBooleanClauseList splitClauseList = new CompactBooleanClauseList(3);
+        splitClauseList.add(1);
+        splitClauseList.add(-2, 3);
+        splitClauseList.add();
+        splitClauseList.add(-1, 2, 3);
+        assertNotEquals(clauseList, splitClauseList);
+
+        // stale entries beyond the current size are ignored
+        otherClauseList.clear();
+        for (int[] clause : CLAUSES) {
+            otherClauseList.add(clause);
+        }
+        assertEquals(clauseList, otherClauseList);
+        assertEquals(clauseList.hashCode(), otherClauseList.hashCode());
+    }
+
+    @Test
+    void trimsToSize() {
+        CompactBooleanClauseList clauseList = new CompactBooleanClauseList(100, 100, 3);
+        clauseList.trimToSize();
+        assertEquals(1, clauseList.getLiterals().length);
+        assertEquals(1, clauseList.getOffsets().length);
+        for (int[] clause : CLAUSES) {
+            clauseList.add(clause);
+        }
+        CompactBooleanClauseList copy = new CompactBooleanClauseList(clauseList);
+        clauseList.trimToSize();
+        assertEquals(6, clauseList.getLiterals().length);
+        assertEquals(5, clauseList.getOffsets().length);
+        assertEquals(copy, clauseList);
+        clauseList.add(2, -3);
+        assertArrayEquals(new int[] {2, -3}, clauseList.copyClause(4));
+        assertArrayEquals(CLAUSES[3], clauseList.copyClause(3));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.data.Pair;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseEncoder;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.ComputeCNFBooleanClauseList;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.formula.IFormula;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ComputeCNFBooleanClauseListTest {
+
+    private static final IFormula FORMULA = and(
+            implies(literal("a"), or(and(literal("b"), literal("c")), and(literal("c"), literal("d")))),
+            not(biImplies(literal("b"), literal(false, "d"))),
+            or(not(and(literal("a"), literal("b"))), and(literal("c"), literal("d")), False),
+            choose(2, literal("a"), literal("b"), literal("c"), literal("d")),
+            or(literal("a"), literal("e"), True));
+
+    private static boolean isSatisfiable(List<BooleanClause> clauses, int[] assignment) {
+        boolean isChanged = true;
+        int branchVariable = 0;
+        while (isChanged) {
+            isChanged = false;
+            branchVariable = 0;
+            for (BooleanClause clause : clauses) {
+                int unassignedLiteral = 0;
+                int unassignedCount = 0;
+                boolean isSatisfied = false;
+                for (int literal : clause.get()) {
+                    int value = assignment[Math.abs(literal)];
+                    if (value == 0) {
+                        unassignedLiteral = literal;
+                        unassignedCount++;
+                    } else if (value == literal) {
+                        isSatisfied = true;
+                        break;
+                    }
+                }
+                if (!isSatisfied) {
+                    if (unassignedCount == 0) {
+                        return false;
+                    } else if (unassignedCount == 1) {
+                        assignment[Math.abs(unassignedLiteral)] = unassignedLiteral;
+                        isChanged = true;
+                    } else {
+                        branchVariable = Math.abs(unassignedLiteral);
+                    }
+                }
+            }
+        }
+        if (branchVariable == 0) {
+            return true;
+        }
+        int[] extendedAssignment = assignment.clone();
+        extendedAssignment[branchVariable] = branchVariable;
+        if (isSatisfiable(clauses, extendedAssignment)) {
+            return true;
+        }
+        extendedAssignment = assignment.clone();
+        extendedAssignment[branchVariable] = -branchVariable;
+        return isSatisfiable(clauses, extendedAssignment);
+    }
+
+    private static Pair<BooleanClauseList, VariableMap> assertEquivalent(
+            IFormula formula, boolean isPlaistedGreenbaum, int maximumNumberOfLiterals) {
+        VariableMap originalVariableMap = VariableMap.of(formula);
+        int variableCount = originalVariableMap.getVariableCount();
+        Result<Pair<BooleanClauseList, VariableMap>> result =
+                ComputeCNFBooleanClauseList.toBooleanClauseList(formula, isPlaistedGreenbaum, maximumNumberOfLiterals);
+        assertTrue(result.isPresent());
+        BooleanClauseList clauseList = result.get().getKey();
+        VariableMap variableMap = result.get().getValue();
+        assertEquals(variableMap.getVariableCount(), clauseList.getVariableCount());
+        for (int bits = 0; bits < 1 << variableCount; bits++) {
+            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            int[] assignment = new int[variableMap.getVariableCount() + 1];
+            for (int i = 1; i <= variableCount; i++) {
+                boolean value = (bits & (1 << (i - 1))) != 0;
+                values.put(originalVariableMap.get(i).get(), value);
+                int index = variableMap.get(originalVariableMap.get(i).get()).get();
+                assignment[index] = value ? index : -index;
+            }
+            assertEquals(formula.evaluate(new ValueAssignment(values)), isSatisfiable(clauseList.getAll(), assignment));
+        }
+        return result.get();
+    }
+
+    @Test
+    void distributive() {
+        Pair<BooleanClauseList, VariableMap> result = assertEquivalent(FORMULA, false, Integer.MAX_VALUE);
+        assertEquals(VariableMap.of(FORMULA).getVariableCount(), result.getValue().getVariableCount());
+    }
+
+    @Test
+    void tseitin() {
+        assertEquivalent(FORMULA, false, 0);
+        assertEquivalent(FORMULA, false, 4);
+        assertEquivalent(not(FORMULA), false, 0);
+    }
+
+    @Test
+    void plaistedGreenbaum() {
+        assertEquivalent(FORMULA, true, 0);
+        assertEquivalent(FORMULA, true, 4);
+        assertEquivalent(not(FORMULA), true, 0);
+    }
+
+    @Test
+    void sharedSubformulas() {
+        IFormula formula = and(
+                or(and(literal("a"), literal("b")), literal("c")),
+                or(and(literal("a"), literal("b")), literal("d")),
+                not(and(not(and(literal("a"), literal("b"))), literal(false, "e"))));
+        Pair<BooleanClauseList, VariableMap> result = assertEquivalent(formula, false, 0);
+        assertEquals(VariableMap.of(formula).getVariableCount() + 1, result.getValue().getVariableCount());
+    }
+
+    @Test
+    void deeplyNestedFormulas() {
+        int depth = 10000;
+        IFormula conjunction = literal("x" + depth);
+        IFormula implication = literal("x" + depth);
+        IFormula alternation = literal("x" + depth);
+        for (int i = depth - 1; i >= 0; i--) {
+            conjunction = and(literal("x" + i), conjunction);
+            implication = implies(literal("x" + i), implication);
+            alternation = i % 2 == 0 ? or(literal("x" + i), alternation) : and(literal("x" + i), alternation);
+        }
+        List<BooleanClause> clauses = new BooleanClauseEncoder(new VariableMap(), false, Integer.MAX_VALUE)
+                .encode(conjunction)
+                .get();
+        assertEquals(depth + 1, clauses.size());
+        assertEquals(new BooleanClause(1), clauses.get(0));
+        clauses = new BooleanClauseEncoder(new VariableMap(), false, Integer.MAX_VALUE)
+                .encode(implication)
+                .get();
+        assertEquals(1, clauses.size());
+        assertEquals(depth + 1, clauses.get(0).size());
+        VariableMap variableMap = new VariableMap();
+        clauses = new BooleanClauseEncoder(variableMap, true, 0).encode(alternation).get();
+        assertEquals(2 * depth, variableMap.getVariableCount());
+        assertEquals(3 * depth / 2, clauses.size());
+    }
+
+    @Test
+    void unsupportedFormula() {
+        assertFalse(ComputeCNFBooleanClauseList.toBooleanClauseList(
+                        and(literal("a"), forAll(variable("x"), literal("x"))), false, 0)
+                .isPresent());
+    }
+}
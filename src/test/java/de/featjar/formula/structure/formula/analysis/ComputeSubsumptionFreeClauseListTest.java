@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.ComputeSubsumptionFreeClauseList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class ComputeSubsumptionFreeClauseListTest {
+
+    private static BooleanClauseList clauses(int[]... clauses) {
+        BooleanClauseList clauseList = new BooleanClauseList(10);
+        for (int[] clause : clauses) {
+            clauseList.add(new BooleanClause(clause));
+        }
+        return clauseList;
+    }
+
+    private static BooleanClauseList createRandomClauseList(long seed, int clauseCount, int variableCount) {
+        Random random = new Random(seed);
+        BooleanClauseList clauseList = new BooleanClauseList(variableCount);
+        for (int i = 0; i < clauseCount; i++) {
+            int[] literals = random.ints(1, variableCount + 1)
+                    .distinct()
+                    .limit(2 + random.nextInt(4))
+                    .map(variable -> random.nextBoolean() ? variable : -variable)
+                    .toArray();
+            clauseList.add(new BooleanClause(literals));
+        }
+        return clauseList;
+    }
+
+    private static boolean isSubset(BooleanClause subset, BooleanClause superset) {
+        return IntStream.of(subset.get()).allMatch(literal -> IntStream.of(superset.get())
+                .anyMatch(other -> other == literal));
+    }
+
+    private static List<BooleanClause> removeSubsumedClausesNaively(BooleanClauseList clauseList) {
+        List<BooleanClause> clauses = clauseList.getAll();
+        List<BooleanClause> reducedClauses = new ArrayList<>();
+        for (int i = 0; i < clauses.size(); i++) {
+            BooleanClause clause = clauses.get(i);
+            boolean isSubsumed = false;
+            for (int j = 0; j < clauses.size() && !isSubsumed; j++) {
+                BooleanClause other = clauses.get(j);
+                if (j != i && isSubset(other, clause)) {
+                    isSubsumed = other.size() < clause.size() || j < i;
+                }
+            }
+            if (!isSubsumed) {
+                reducedClauses.add(clause);
+            }
+        }
+        return reducedClauses;
+    }
+
+    @Test
+    void removesDuplicatesAndSubsumedClauses() {
+        BooleanClauseList clauseList = clauses(
+                new int[] {1, 2},
+                new int[] {1, 2, 3},
+                new int[] {2, 1},
+                new int[] {-1, 3, 4, -5},
+                new int[] {-1, 3},
+                new int[] {4, 5, 6},
+                new int[] {4},
+                new int[] {2, -3});
+        for (boolean isParallel : new boolean[] {false, true}) {
+            BooleanClauseList reducedClauseList =
+                    ComputeSubsumptionFreeClauseList.removeSubsumedClauses(clauseList, isParallel);
+            assertEquals(
+                    List.of(
+                            new BooleanClause(1, 2),
+                            new BooleanClause(-1, 3),
+                            new BooleanClause(4),
+                            new BooleanClause(2, -3)),
+                    reducedClauseList.getAll());
+            assertEquals(clauseList.getVariableCount(), reducedClauseList.getVariableCount());
+        }
+    }
+
+    @Test
+    void emptyClauseSubsumesAllClauses() {
+        BooleanClauseList clauseList = clauses(new int[] {1}, new int[] {}, new int[] {-2, 3}, new int[] {});
+        assertEquals(
+                List.of(new BooleanClause()),
+                ComputeSubsumptionFreeClauseList.removeSubsumedClauses(clauseList, false)
+                        .getAll());
+    }
+
+    @Test
+    void signaturesPreserveSubsets() {
+        long signature = ComputeSubsumptionFreeClauseList.computeSignature(-1, 2, 70);
+        long supersetSignature = ComputeSubsumptionFreeClauseList.computeSignature(-1, 2, 3, 70);
+        assertEquals(0, signature & ~supersetSignature);
+        assertTrue(ComputeSubsumptionFreeClauseList.computeSignature(1)
+                != ComputeSubsumptionFreeClauseList.computeSignature(-1));
+    }
+
+    @Test
+    void parallelEqualsSequential() {
+        for (long seed = 0; seed < 10; seed++) {
+            BooleanClauseList clauseList = createRandomClauseList(seed, 3000, 30);
+            List<BooleanClause> expected = removeSubsumedClausesNaively(clauseList);
+            assertEquals(
+                    expected,
+                    ComputeSubsumptionFreeClauseList.removeSubsumedClauses(clauseList, false)
+                            .getAll());
+            assertEquals(
+                    expected,
+                    ComputeSubsumptionFreeClauseList.removeSubsumedClauses(clauseList, true)
+                            .getAll());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.ABooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanAssignmentSpace;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.CompactBooleanClauseList;
+import de.featjar.formula.analysis.bool.LiteralOccurrenceIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class LiteralOccurrenceIndexTest {
+
+    private static final int[][] CLAUSES = {{1, -2}, {2, 3}, {-1, -2, 3}, {-3}};
+
+    /**
+     * {@return the occurrences of the given literal in ascending order}
+     * The index does not preserve the order of occurrences once a literal has been removed.
+     */
+    private static int[] sortedOccurrences(LiteralOccurrenceIndex index, int literal) {
+        int[] occurrences = Arrays.copyOf(index.getOccurrences(literal), index.getOccurrenceCount(literal));
+        Arrays.sort(occurrences);
+        return occurrences;
+    }
+
+    private static void assertOccurrences(LiteralOccurrenceIndex index, int literal, int... clauseIndices) {
+        assertArrayEquals(clauseIndices, sortedOccurrences(index, literal));
+        assertEquals(clauseIndices.length, index.getOccurrenceCount(literal));
+        int[] copy = index.copyOccurrences(literal);
+        Arrays.sort(copy);
+        assertArrayEquals(clauseIndices, copy);
+        List<Integer> visited = new ArrayList<>();
+        index.forEachOccurrence(literal, visited::add);
+        assertEquals(clauseIndices.length, visited.size());
+    }
+
+    private static LiteralOccurrenceIndex createIndex() {
+        LiteralOccurrenceIndex index = new LiteralOccurrenceIndex(3);
+        for (int i = 0; i < CLAUSES.length; i++) {
+            index.add(i, CLAUSES[i]);
+        }
+        return index;
+    }
+
+    @Test
+    void indexesAddedClauses() {
+        LiteralOccurrenceIndex index = createIndex();
+        assertOccurrences(index, 1, 0);
+        assertOccurrences(index, -1, 2);
+        assertOccurrences(index, 2, 1);
+        assertOccurrences(index, -2, 0, 2);
+        assertOccurrences(index, 3, 1, 2);
+        assertOccurrences(index, -3, 3);
+        assertEquals(3, index.getMaxVariable());
+    }
+
+    @Test
+    void updatesIncrementally() {
+        LiteralOccurrenceIndex index = createIndex();
+        assertEquals(1, index.getLeastOccurringLiteral(-2, 3, 1));
+
+        // replaces clause 0 by an empty clause
+        index.remove(0, CLAUSES[0]);
+        assertOccurrences(index, 1);
+        assertOccurrences(index, -2, 2);
+        assertEquals(-2, index.getLeastOccurringLiteral(3, -2));
+
+        // literals of further clauses may exceed the initial number of variables
+        index.add(4, 1, -2, 5);
+        index.add(5, -2, -5);
+        assertTrue(index.getMaxVariable() >= 5);
+        assertOccurrences(index, 1, 4);
+        assertOccurrences(index, -2, 2, 4, 5);
+        assertOccurrences(index, 5, 4);
+        assertOccurrences(index, -5, 5);
+        assertEquals(5, index.getLeastOccurringLiteral(-2, 3, 5));
+
+        assertTrue(index.remove(2, -2));
+        assertFalse(index.remove(2, -2));
+        assertFalse(index.remove(0, 3));
+        assertFalse(index.remove(0, 100));
+        assertOccurrences(index, -2, 4, 5);
+        assertOccurrences(index, -1, 2);
+        assertOccurrences(index, 3, 1, 2);
+
+        index.remove(1, 2, 3);
+        index.add(1, 2);
+        assertOccurrences(index, 2, 1);
+        assertOccurrences(index, 3, 2);
+        assertEquals(2, index.getLeastOccurringLiteral(-2, 2));
+    }
+
+    @Test
+    void answersForUnknownLiterals() {
+        LiteralOccurrenceIndex index = createIndex();
+        assertEquals(0, index.getOccurrenceCount(100));
+        assertEquals(0, index.getOccurrences(-100).length);
+        assertEquals(0, index.copyOccurrences(100).length);
+        assertEquals(100, index.getLeastOccurringLiteral(-2, 100));
+        assertEquals(0, index.getLeastOccurringLiteral());
+    }
+
+    @Test
+    void indexesClauseLists() {
+        List<BooleanClause> clauses = new ArrayList<>();
+        for (int[] clause : CLAUSES) {
+            clauses.add(new BooleanClause(clause));
+        }
+        BooleanClauseList clauseList = new BooleanClauseList(clauses, 3);
+        LiteralOccurrenceIndex expected = createIndex();
+        List<LiteralOccurrenceIndex> indices = List.of(
+                new LiteralOccurrenceIndex(clauseList),
+                new LiteralOccurrenceIndex(new CompactBooleanClauseList(clauseList)),
+                new LiteralOccurrenceIndex(clauses, 1));
+        for (LiteralOccurrenceIndex index : indices) {
+            for (int literal = -3; literal <= 3; literal++) {
+                assertArrayEquals(sortedOccurrences(expected, literal), sortedOccurrences(index, literal));
+            }
+        }
+    }
+
+    @Test
+    void indexesGroupOfAssignmentSpace() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        variableMap.add("c");
+        variableMap.add("d");
+        List<ABooleanAssignment> clauses = new ArrayList<>();
+        for (int[] clause : CLAUSES) {
+            clauses.add(new BooleanClause(clause));
+        }
+        List<ABooleanAssignment> assignments = List.of(new BooleanAssignment(1, 2, 3));
+        BooleanAssignmentSpace assignmentSpace = new BooleanAssignmentSpace(variableMap, List.of(clauses, assignments));
+
+        LiteralOccurrenceIndex index = LiteralOccurrenceIndex.of(assignmentSpace, 0);
+        assertEquals(4, index.getMaxVariable());
+        assertOccurrences(index, -2, 0, 2);
+        assertOccurrences(index, 3, 1, 2);
+        assertOccurrences(index, 4);
+        assertEquals(4, index.getLeastOccurringLiteral(-2, 4));
+
+        index = LiteralOccurrenceIndex.of(assignmentSpace, 1);
+        assertOccurrences(index, 1, 0);
+        assertOccurrences(index, -1);
+        index.add(1, -1, 4);
+        assertOccurrences(index, -1, 1);
+        assertOccurrences(index, 4, 1);
+    }
+}
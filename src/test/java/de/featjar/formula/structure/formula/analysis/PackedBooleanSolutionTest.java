@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class PackedBooleanSolutionTest {
+
+    private static BooleanSolution createRandomSolution(Random random, int variableCount) {
+        int[] literals = new int[variableCount];
+        for (int i = 0; i < variableCount; i++) {
+            literals[i] = (i + 1) * (random.nextInt(3) - 1);
+        }
+        return new BooleanSolution(literals, false);
+    }
+
+    private static int getLiteral(BooleanSolution solution, int variable) {
+        return variable <= solution.size() ? solution.get(variable - 1) : 0;
+    }
+
+    @Test
+    void packsAndUnpacksLiterals() {
+        BooleanSolution solution = new BooleanSolution(IntStream.rangeClosed(1, 130)
+                .map(variable -> variable % 3 == 0 ? 0 : variable % 3 == 1 ? variable : -variable)
+                .toArray());
+        PackedBooleanSolution packedSolution = solution.toPacked();
+        assertArrayEquals(solution.get(), packedSolution.get());
+        assertEquals(3, packedSolution.getAssigned().length);
+        assertEquals(1L | 2L | (1L << 63), packedSolution.getAssigned()[0] & (1L | 2L | 4L | (1L << 63)));
+        assertEquals(1L, packedSolution.getSelected()[0] & 7L);
+        assertArrayEquals(
+                solution.get(),
+                new PackedBooleanSolution(130, packedSolution.getAssigned(), packedSolution.getSelected()).get());
+        assertEquals(solution.countNonZero(), packedSolution.countNonZero());
+        assertEquals(solution.countPositives(), packedSolution.countPositives());
+        assertEquals(solution.countNegatives(), packedSolution.countNegatives());
+        assertArrayEquals(solution.inverse().get(), packedSolution.inverse().get());
+        assertSame(packedSolution, PackedBooleanSolution.of(packedSolution));
+        assertEquals(0, PackedBooleanSolution.wordCount(0));
+        assertEquals(1, PackedBooleanSolution.wordCount(64));
+        assertEquals(2, PackedBooleanSolution.wordCount(65));
+    }
+
+    @Test
+    void answersLiteralQueriesLikeUnpackedSolution() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            BooleanSolution solution = createRandomSolution(random, 1 + random.nextInt(150));
+            PackedBooleanSolution packedSolution = new PackedBooleanSolution(solution);
+            int[] literals = random.ints(1 + random.nextInt(4), 1, solution.size() + 1)
+                    .map(variable -> random.nextBoolean() ? variable : -variable)
+                    .toArray();
+            assertEquals(solution.containsAll(literals), packedSolution.containsAll(literals));
+            assertEquals(solution.countConflicts(literals), packedSolution.countConflicts(literals));
+            assertEquals(solution.conflictsWith(literals), packedSolution.conflictsWith(literals));
+        }
+        PackedBooleanSolution packedSolution = new PackedBooleanSolution(1, -2);
+        assertFalse(packedSolution.containsAll(1, 3));
+        assertFalse(packedSolution.containsAll(0));
+        assertEquals(0, packedSolution.countConflicts(-3, 70));
+        assertTrue(packedSolution.conflictsWith(2, 70));
+    }
+
+    @Test
+    void comparesPackedSolutionsLikeUnpackedSolutions() {
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            BooleanSolution solution = createRandomSolution(random, 1 + random.nextInt(150));
+            BooleanSolution other = random.nextBoolean()
+                    ? createRandomSolution(random, 1 + random.nextInt(150))
+                    : new BooleanSolution(IntStream.of(solution.get())
+                            .map(literal -> random.nextInt(10) == 0 ? 0 : literal)
+                            .toArray());
+            PackedBooleanSolution packedSolution = solution.toPacked();
+            PackedBooleanSolution packedOther = other.toPacked();
+
+            int variableCount = Math.max(solution.size(), other.size());
+            int conflicts = 0;
+            int differences = 0;
+            boolean containsAll = true;
+            int[] intersection = new int[Math.min(solution.size(), other.size())];
+            for (int variable = 1; variable <= variableCount; variable++) {
+                int literal = getLiteral(solution, variable);
+                int otherLiteral = getLiteral(other, variable);
+                if (literal != 0 && otherLiteral != 0 && literal != otherLiteral) {
+                    conflicts++;
+                }
+                if (literal != otherLiteral) {
+                    differences++;
+                }
+                if (otherLiteral != 0 && literal != otherLiteral) {
+                    containsAll = false;
+                }
+                if (variable <= intersection.length && literal == otherLiteral) {
+                    intersection[variable - 1] = literal;
+                }
+            }
+            assertEquals(conflicts, packedSolution.countConflicts(packedOther));
+            assertEquals(conflicts > 0, packedSolution.conflictsWith(packedOther));
+            assertEquals(differences, packedSolution.countDifferences(packedOther));
+            assertEquals(differences, packedOther.countDifferences(packedSolution));
+            assertEquals(containsAll, packedSolution.containsAll(packedOther));
+            assertEquals(containsAll, packedSolution.containsAll(other.getNonZeroValues()));
+            assertArrayEquals(intersection, packedSolution.removeConflicts(packedOther).get());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.data.Problem;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.analysis.value.ValueClause;
+import de.featjar.formula.analysis.value.ValueClauseList;
+import de.featjar.formula.analysis.value.ValueSolution;
+import de.featjar.formula.analysis.value.ValueSolutionList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class VariableMapTest {
+
+    private static class ArrayVariableMap extends VariableMap {
+        private Result<BooleanAssignment> toReversedBoolean(ValueAssignment valueAssignment) {
+            return toBoolean(valueAssignment, integers -> {
+                int[] reversedIntegers = new int[integers.length];
+                for (int i = 0; i < integers.length; i++) {
+                    reversedIntegers[i] = integers[integers.length - 1 - i];
+                }
+                return new BooleanAssignment(reversedIntegers);
+            });
+        }
+    }
+
+    private static VariableMap createVariableMap() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        variableMap.add("c");
+        return variableMap;
+    }
+
+    @Test
+    void convertsAssignmentsAndClauses() {
+        VariableMap variableMap = createVariableMap();
+        assertArrayEquals(
+                new int[] {3, -1},
+                variableMap.toBoolean(new ValueAssignment("c", true, "a", false)).get().get());
+        assertArrayEquals(
+                new int[] {-1, 3},
+                variableMap.toBoolean(new ValueClause("c", true, "a", false)).get().get());
+    }
+
+    @Test
+    void padsPartialSolutionsToMaximumIndex() {
+        VariableMap variableMap = createVariableMap();
+        assertArrayEquals(
+                new int[] {-1, 0, 3},
+                variableMap.toBoolean(new ValueSolution("c", true, "a", false)).get().get());
+
+        VariableMap variableMapWithHoles = new VariableMap();
+        variableMapWithHoles.add(2, "x");
+        variableMapWithHoles.add(4, "y");
+        assertArrayEquals(
+                new int[] {0, 0, 0, 4},
+                variableMapWithHoles.toBoolean(new ValueSolution("y", true)).get().get());
+        assertArrayEquals(
+                new int[] {0, -2, 0, 4},
+                variableMapWithHoles
+                        .toBoolean(new ValueSolutionList(List.of(new ValueSolution("y", true, "x", false))))
+                        .get()
+                        .getAll()
+                        .get(0)
+                        .get());
+    }
+
+    @Test
+    void skipsUnmappedVariablesAndNonBooleanValues() {
+        VariableMap variableMap = createVariableMap();
+        Result<BooleanAssignment> result = variableMap.toBoolean(new ValueAssignment("a", true, "d", true, "b", 1));
+        assertArrayEquals(new int[] {1}, result.get().get());
+        assertEquals(2, result.getProblems().size());
+        assertTrue(result.getProblems().get(0).getMessage().contains("d"));
+    }
+
+    @Test
+    void passesLiteralArraysToProtectedConstructor() {
+        ArrayVariableMap variableMap = new ArrayVariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        assertArrayEquals(
+                new int[] {-2, 1},
+                variableMap
+                        .toReversedBoolean(new ValueAssignment("a", true, "b", false))
+                        .get()
+                        .get());
+    }
+
+    @Test
+    void convertsLargeListsInOrder() {
+        VariableMap variableMap = createVariableMap();
+        ValueClauseList valueClauseList = new ValueClauseList(3);
+        for (int i = 0; i < 3000; i++) {
+            valueClauseList.add(new ValueClause("a", i % 2 == 0, "u" + i, true, "c", i % 3 == 0));
+        }
+        Result<BooleanClauseList> result = variableMap.toBoolean(valueClauseList);
+        assertEquals(3000, result.get().size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(
+                    new BooleanClause(i % 2 == 0 ? 1 : -1, i % 3 == 0 ? 3 : -3),
+                    result.get().getAll().get(i));
+        }
+        List<String> messages = result.getProblems().stream().map(Problem::getMessage).collect(Collectors.toList());
+        assertEquals(3000, messages.size());
+        for (int i = 0; i < 3000; i++) {
+            assertTrue(messages.get(i).contains("u" + i + ","));
+        }
+
+        BooleanSolutionList solutionList = new BooleanSolutionList();
+        for (int i = 0; i < 3000; i++) {
+            solutionList.add(new BooleanSolution(new int[] {i % 2 == 0 ? 1 : -1, 0, 3}, false));
+        }
+        ValueSolutionList valueSolutionList = variableMap.toValue(solutionList).get();
+        assertEquals(3000, valueSolutionList.size());
+        assertEquals(solutionList, variableMap.toBoolean(valueSolutionList).get());
+        ValueSolution anonymousSolution = VariableMap.toAnonymousValue(solutionList).get().getAll().get(1);
+        assertEquals(Boolean.FALSE, anonymousSolution.getAll().get("1"));
+        assertEquals(Boolean.TRUE, anonymousSolution.getAll().get("3"));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.structure.formula.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.bool.PackedBooleanSolution;
+import de.featjar.formula.analysis.bool.VariableRemapping;
+import de.featjar.formula.analysis.bool.VariableRemapping.MissingVariableHandling;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class VariableRemappingTest {
+
+    private static VariableMap oldVariableMap() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add("a");
+        variableMap.add("b");
+        variableMap.add("c");
+        return variableMap;
+    }
+
+    private static VariableMap newVariableMapWithHoles() {
+        VariableMap variableMap = new VariableMap();
+        variableMap.add(2, "c");
+        variableMap.add(5, "a");
+        variableMap.add(7, "b");
+        return variableMap;
+    }
+
+    @Test
+    void translatesIntoMapWithHoles() {
+        VariableRemapping remapping = VariableRemapping.of(oldVariableMap(), newVariableMapWithHoles());
+        assertEquals(0, remapping.getMissingVariableCount());
+        assertArrayEquals(new int[] {0, 5, 7, 2}, remapping.getTable());
+
+        assertArrayEquals(new int[] {-5, 2}, remapping.apply(new BooleanClause(-1, 3)).orElseThrow().get());
+        assertArrayEquals(
+                new int[] {0, 2, 0, 0, 5, 0, -7},
+                remapping.apply(new BooleanSolution(new int[] {1, -2, 3}, false)).orElseThrow().get());
+        PackedBooleanSolution packedSolution =
+                remapping.apply(new PackedBooleanSolution(1, -2, 3)).orElseThrow();
+        assertTrue(packedSolution.containsAll(5, -7, 2));
+        assertEquals(3, packedSolution.countNonZero());
+
+        BooleanClauseList clauseList = remapping
+                .apply(new BooleanClauseList(List.of(new BooleanClause(1, 2), new BooleanClause(-3)), 3), true)
+                .orElseThrow();
+        assertEquals(7, clauseList.getVariableCount());
+        assertArrayEquals(new int[] {5, 7}, clauseList.getAll().get(0).get());
+        assertArrayEquals(new int[] {-2}, clauseList.getAll().get(1).get());
+    }
+
+    @Test
+    void failsForMissingVariables() {
+        VariableMap newVariableMap = new VariableMap();
+        newVariableMap.add("c");
+        newVariableMap.add("a");
+        VariableRemapping remapping = VariableRemapping.of(oldVariableMap(), newVariableMap);
+        assertEquals(1, remapping.getMissingVariableCount());
+        assertEquals(0, remapping.mapLiteral(-2));
+        assertEquals(-1, remapping.mapLiteral(-3));
+        assertEquals(0, remapping.mapLiteral(4));
+
+        assertArrayEquals(new int[] {2}, remapping.apply(new BooleanClause(1)).orElseThrow().get());
+        assertFalse(remapping.apply(new BooleanClause(1, 2)).isPresent());
+        assertFalse(remapping.apply(new BooleanSolution(new int[] {1, -2, 3}, false)).isPresent());
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 3);
+        assertFalse(remapping.apply(clauseList, false).isPresent());
+        assertFalse(remapping.applyInPlace(clauseList, false).isPresent());
+        assertArrayEquals(new int[] {1, 2}, clauseList.getAll().get(0).get());
+    }
+
+    @Test
+    void removesMissingVariables() {
+        VariableMap newVariableMap = new VariableMap();
+        newVariableMap.add(3, "c");
+        newVariableMap.add(4, "a");
+        VariableRemapping remapping =
+                VariableRemapping.of(oldVariableMap(), newVariableMap, MissingVariableHandling.REMOVE);
+        assertArrayEquals(
+                new int[] {-3, 4},
+                remapping.apply(new BooleanClause(1, 2, -3)).orElseThrow().get());
+        assertArrayEquals(
+                new int[] {0, 0, 3, 4},
+                remapping.apply(new BooleanSolution(new int[] {1, -2, 3}, false)).orElseThrow().get());
+
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(-1, 2)), 3);
+        assertFalse(remapping.applyInPlace(clauseList, false).isPresent());
+        assertArrayEquals(new int[] {-1, 2}, clauseList.getAll().get(0).get());
+
+        BooleanSolution solution = new BooleanSolution(new int[] {1, 2, -3, 0}, false);
+        assertTrue(remapping.applyInPlace(new BooleanSolutionList(List.of(solution)), false).isPresent());
+        assertArrayEquals(new int[] {0, 0, -3, 4}, solution.get());
+    }
+
+    @Test
+    void translatesInPlace() {
+        VariableMap newVariableMap = new VariableMap();
+        newVariableMap.add(1, "c");
+        newVariableMap.add(3, "a");
+        newVariableMap.add(4, "b");
+        VariableRemapping remapping = VariableRemapping.of(oldVariableMap(), newVariableMap);
+
+        BooleanClause clause = new BooleanClause(1, -2);
+        int[] clauseLiterals = clause.get();
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(clause, new BooleanClause(3)), 3);
+        assertTrue(remapping.applyInPlace(clauseList, true).isPresent());
+        assertSame(clauseLiterals, clauseList.getAll().get(0).get());
+        assertArrayEquals(new int[] {-4, 3}, clauseList.getAll().get(0).get());
+        assertArrayEquals(new int[] {1}, clauseList.getAll().get(1).get());
+        assertEquals(4, clauseList.getVariableCount());
+
+        BooleanSolutionList solutionList =
+                new BooleanSolutionList(List.of(new BooleanSolution(new int[] {1, -2, 3}, false)));
+        assertFalse(remapping.applyInPlace(solutionList, false).isPresent());
+        BooleanSolution solution = new PackedBooleanSolution(new int[] {1, -2, 3, 0}, false);
+        int[] solutionLiterals = solution.get();
+        solutionList = new BooleanSolutionList(List.of(solution));
+        assertTrue(remapping.applyInPlace(solutionList, false).isPresent());
+        assertSame(solutionLiterals, solution.get());
+        assertArrayEquals(new int[] {1, 0, 3, -4}, solution.get());
+        assertTrue(((PackedBooleanSolution) solution).containsAll(1, 3, -4));
+    }
+}
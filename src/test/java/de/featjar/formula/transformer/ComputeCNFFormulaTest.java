@@ -103,4 +103,30 @@ class ComputeCNFFormulaTest extends Common {
             assertEquals(formula.evaluate(assignment), tseitinCNF.evaluate(assignment));
         });
     }
+
+    @Test
+    void parallelIsDeterministic() {
+        IFormula formula = and(
+                or(and(literal("a"), literal("b")), and(literal("c"), literal("d"))),
+                or(and(literal("a"), literal("b")), and(literal("e"), not(literal("f")))),
+                biImplies(literal("a"), or(literal("c"), literal("f"))),
+                or(literal("b"), and(literal("d"), literal("e"))),
+                literal("g"));
+        IFormula sequentialCNF = async(formula)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .set(ComputeCNFFormula.MAXIMUM_NUMBER_OF_LITERALS, 0)
+                .get()
+                .get();
+        for (int i = 0; i < 10; i++) {
+            IFormula parallelCNF = async(formula)
+                    .map(ComputeNNFFormula::new)
+                    .map(ComputeCNFFormula::new)
+                    .set(ComputeCNFFormula.MAXIMUM_NUMBER_OF_LITERALS, 0)
+                    .set(ComputeCNFFormula.IS_PARALLEL, Boolean.TRUE)
+                    .get()
+                    .get();
+            assertEquals(sequentialCNF, parallelCNF);
+        }
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.tree.Trees;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.connective.Reference;
+import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.visitor.AndOrSimplifier;
+import de.featjar.formula.visitor.ConnectiveSimplifier;
+import de.featjar.formula.visitor.DeMorganApplier;
+import de.featjar.formula.visitor.TrueFalseRemover;
+import de.featjar.formula.visitor.TrueFalseSimplifier;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NNFTransformerTest {
+    private static final String[] VARIABLES = {"a", "b", "c", "d"};
+
+    private static IFormula chainedNNF(IFormula formula, Variable variable) {
+        return Reference.mutateClone(formula, reference -> Trees.traverse(reference, new ConnectiveSimplifier())
+                        .flatMap(_void -> Trees.traverse(reference, new DeMorganApplier()))
+                        .flatMap(_void -> Trees.traverse(reference, new TrueFalseSimplifier()))
+                        .flatMap(_void -> Trees.traverse(reference, new TrueFalseRemover(variable)))
+                        .flatMap(_void -> Trees.traverse(reference, new AndOrSimplifier())))
+                .get();
+    }
+
+    private static void assertSameAsChained(IFormula formula) {
+        Variable variable = formula.getVariables().get(0);
+        IFormula clone = (IFormula) formula.cloneTree();
+        IFormula nnf = new NNFTransformer(variable).apply(formula).get();
+        assertEquals(chainedNNF(formula, variable), nnf);
+        assertEquals(clone, formula);
+    }
+
+    /**
+     * Creates a random formula.
+     * Constants are only created in positive contexts, as negated constants are not supported by
+     * {@link DeMorganApplier}.
+     */
+    private static IFormula randomFormula(Random random, int depth, boolean isPositive) {
+        int choice = depth == 0 ? random.nextInt(3) : random.nextInt(10);
+        switch (choice) {
+            case 0:
+            case 1:
+                return literal(random.nextBoolean(), VARIABLES[random.nextInt(VARIABLES.length)]);
+            case 2:
+                return isPositive
+                        ? (random.nextBoolean() ? True : False)
+                        : literal(VARIABLES[random.nextInt(VARIABLES.length)]);
+            case 3:
+                return not(randomFormula(random, depth - 1, false));
+            case 4:
+                return and(randomChildren(random, depth, isPositive));
+            case 5:
+                return or(randomChildren(random, depth, isPositive));
+            case 6:
+                return implies(randomFormula(random, depth - 1, false), randomFormula(random, depth - 1, isPositive));
+            case 7:
+                return biImplies(randomFormula(random, depth - 1, false), randomFormula(random, depth - 1, false));
+            case 8:
+                return isPositive
+                        ? atMost(random.nextInt(3), literal("a"), literal(false, "b"), literal("c"))
+                        : atMost(1, literal("a"), literal(false, "b"), literal("c"));
+            default:
+                return between(1, 2, literal("a"), literal("b"), literal(false, "d"));
+        }
+    }
+
+    private static IFormula[] randomChildren(Random random, int depth, boolean isPositive) {
+        IFormula[] children = new IFormula[random.nextInt(4)];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = randomFormula(random, depth - 1, isPositive);
+        }
+        return children;
+    }
+
+    @Test
+    void transformsLikeChainedVisitors() {
+        assertSameAsChained(and(literal("a"), True));
+        assertSameAsChained(implies(literal("a"), False));
+        assertSameAsChained(not(or(literal("a"), not(and(literal("b"), literal(false, "c"))))));
+        assertSameAsChained(or(and(literal("a"), False), and(True), or(or(literal("b")), literal("c"))));
+        assertSameAsChained(biImplies(literal("a"), and(literal("b"), not(literal("c")))));
+        assertSameAsChained(choose(2, literal("a"), literal("b"), literal("c")));
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            IFormula formula = randomFormula(random, 4, true);
+            if (!formula.getVariables().isEmpty()) {
+                assertSameAsChained(formula);
+            }
+        }
+    }
+
+    @Test
+    void sharesPredicates() {
+        IFormula formula = and(literal("a"), or(literal("b"), literal("c")));
+        IFormula nnf = new NNFTransformer(new Variable("a")).apply(formula).get();
+        assertSame(formula.getChildren().get(0), nnf.getChildren().get(0));
+    }
+
+    @Test
+    void transformsDeeplyNestedFormulas() {
+        int depth = 20000;
+        IFormula formula = literal("x" + depth);
+        for (int i = depth - 1; i >= 0; i--) {
+            formula = implies(literal("x" + i), formula);
+        }
+        IFormula nnf = new NNFTransformer(new Variable("x0")).apply(formula).get();
+        assertInstanceOf(Or.class, nnf);
+        assertEquals(depth + 1, nnf.getChildrenCount());
+        assertEquals(literal(false, "x0"), nnf.getChildren().get(0));
+        assertEquals(literal("x" + depth), nnf.getChildren().get(depth));
+    }
+
+    @Test
+    void failsForQuantifiers() {
+        assertTrue(new NNFTransformer(new Variable("a"))
+                .apply(and(literal("a"), forAll(variable("x"), True)))
+                .isEmpty());
+    }
+}
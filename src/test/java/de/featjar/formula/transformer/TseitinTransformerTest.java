@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.transformer;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.term.value.Variable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class TseitinTransformerTest {
+    private static final List<IFormula> CLAUSES = List.of(
+            or(and(literal("a"), or(literal("b"), literal("c"))), and(literal("d"), literal("e"))),
+            or(literal("f"), and(literal("d"), literal("e"))),
+            or(and(literal("a"), or(literal("b"), literal("c"))), and(literal("g"), or(literal("b"), literal("c")))));
+
+    private static List<IFormula> transform(boolean isPlaistedGreenbaum, Map<IFormula, Variable> auxiliaryVariables) {
+        List<List<TseitinTransformer.Substitution>> partialSubstitutions = new ArrayList<>();
+        for (IFormula clause : CLAUSES) {
+            partialSubstitutions.add(new TseitinTransformer(isPlaistedGreenbaum, auxiliaryVariables)
+                    .apply((IFormula) clause.cloneTree()));
+        }
+        return TseitinTransformer.getClauseFormulas(TseitinTransformer.unify(partialSubstitutions, false));
+    }
+
+    @Test
+    void sharingSubformulasDoesNotChangeResult() {
+        for (boolean isPlaistedGreenbaum : new boolean[] {false, true}) {
+            assertEquals(transform(isPlaistedGreenbaum, null), transform(isPlaistedGreenbaum, new HashMap<>()));
+        }
+    }
+
+    @Test
+    void sharedSubformulasAreSubstitutedOnce() {
+        Map<IFormula, Variable> auxiliaryVariables = new HashMap<>();
+        List<TseitinTransformer.Substitution> first =
+                new ArrayList<>(new TseitinTransformer(false, auxiliaryVariables).apply(CLAUSES.get(0)));
+        List<TseitinTransformer.Substitution> second =
+                new ArrayList<>(new TseitinTransformer(false, auxiliaryVariables).apply(CLAUSES.get(2)));
+        // or(b, c), and(a, or(b, c)), and(d, e), and the clause itself
+        assertEquals(4, first.size());
+        // and(g, or(b, c)) and the clause itself
+        assertEquals(2, second.size());
+        assertEquals(4, auxiliaryVariables.size());
+    }
+
+    @Test
+    void unifyNamesEqualSubformulasEqually() {
+        List<List<TseitinTransformer.Substitution>> partialSubstitutions = new ArrayList<>();
+        List<Variable> variables = new ArrayList<>();
+        for (IFormula clause : CLAUSES) {
+            List<TseitinTransformer.Substitution> substitutions =
+                    new ArrayList<>(new TseitinTransformer().apply((IFormula) clause.cloneTree()));
+            substitutions.stream()
+                    .map(TseitinTransformer.Substitution::getAuxiliaryVariable)
+                    .filter(variable -> variable != null)
+                    .forEach(variables::add);
+            partialSubstitutions.add(substitutions);
+        }
+        List<TseitinTransformer.Substitution> substitutions = TseitinTransformer.unify(partialSubstitutions, false);
+        // three, one, and four substitutions, of which or(b, c), and(a, or(b, c)), and(d, e), and(g, or(b, c)) differ
+        assertEquals(8, variables.size());
+        assertEquals(4 + CLAUSES.size(), substitutions.size());
+        Set<String> names = new TreeSet<>();
+        variables.forEach(variable -> names.add(variable.getName()));
+        assertEquals(Set.of("_aux_1", "_aux_2", "_aux_3", "_aux_4"), names);
+    }
+
+    @Test
+    void deeplySharedSubformulasAreTraversedOnce() {
+        // as a tree, this formula has more than 2^depth nodes, but it only consists of O(depth) distinct objects
+        int depth = 1000;
+        int[] hashCount = {0};
+        Variable variable = new Variable("x") {
+            @Override
+            public int hashCodeNode() {
+                hashCount[0]++;
+                return super.hashCodeNode();
+            }
+        };
+        IFormula formula = literal(variable);
+        for (int i = 1; i <= depth; i++) {
+            formula = or(and(formula, literal("a" + i)), and(formula, literal("b" + i)));
+        }
+        Map<IFormula, Variable> auxiliaryVariables = new HashMap<>();
+        long start = System.nanoTime();
+        List<TseitinTransformer.Substitution> substitutions =
+                new TseitinTransformer(false, auxiliaryVariables).apply(formula);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        // each level but the top one is substituted by three auxiliary variables, the top one by two
+        assertEquals(3 * depth - 1, auxiliaryVariables.size());
+        assertEquals(3 * depth, substitutions.size());
+        // subtree hash codes are computed once, not once per lookup
+        assertEquals(1, hashCount[0]);
+        assertTrue(elapsedMillis < 5000, "took " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.tree.Trees;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Or;
+import de.featjar.formula.structure.formula.connective.Reference;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import de.featjar.formula.structure.term.value.Variable;
+import de.featjar.formula.transformer.NNFTransformer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import org.junit.jupiter.api.Test;
+
+class CardinalityEncoderTest {
+    private static final int N = 10;
+
+    private static IFormula[] children() {
+        IFormula[] children = new IFormula[N];
+        for (int i = 0; i < N; i++) {
+            children[i] = literal(i % 3 != 0, "x" + i);
+        }
+        return children;
+    }
+
+    private static List<List<Literal>> toClauses(IFormula formula) {
+        if (formula instanceof Reference) {
+            formula = ((Reference) formula).getExpression();
+        }
+        List<List<Literal>> clauses = new ArrayList<>();
+        for (IExpression clause : formula instanceof And ? formula.getChildren() : List.of(formula)) {
+            List<Literal> literals = new ArrayList<>();
+            for (IExpression literal : clause instanceof Or ? clause.getChildren() : List.of(clause)) {
+                literals.add((Literal) literal);
+            }
+            clauses.add(literals);
+        }
+        return clauses;
+    }
+
+    private static String getName(Literal literal) {
+        return ((Variable) literal.getExpression()).getName();
+    }
+
+    private static boolean isSatisfiable(List<List<Literal>> clauses, Map<String, Boolean> assignment) {
+        Map<String, Boolean> extendedAssignment = new HashMap<>(assignment);
+        boolean isChanged = true;
+        Literal branchLiteral = null;
+        while (isChanged) {
+            isChanged = false;
+            branchLiteral = null;
+            for (List<Literal> clause : clauses) {
+                Literal unassignedLiteral = null;
+                int unassignedCount = 0;
+                boolean isSatisfied = false;
+                for (Literal literal : clause) {
+                    Boolean value = extendedAssignment.get(getName(literal));
+                    if (value == null) {
+                        unassignedLiteral = literal;
+                        unassignedCount++;
+                    } else if (value == literal.isPositive()) {
+                        isSatisfied = true;
+                        break;
+                    }
+                }
+                if (!isSatisfied) {
+                    if (unassignedCount == 0) {
+                        return false;
+                    } else if (unassignedCount == 1) {
+                        extendedAssignment.put(getName(unassignedLiteral), unassignedLiteral.isPositive());
+                        isChanged = true;
+                    } else {
+                        branchLiteral = unassignedLiteral;
+                    }
+                }
+            }
+        }
+        if (branchLiteral == null) {
+            return true;
+        }
+        extendedAssignment.put(getName(branchLiteral), true);
+        if (isSatisfiable(clauses, extendedAssignment)) {
+            return true;
+        }
+        extendedAssignment.put(getName(branchLiteral), false);
+        return isSatisfiable(clauses, extendedAssignment);
+    }
+
+    private static void assertEquisatisfiable(IFormula encodedFormula, IntPredicate isSatisfied, boolean isNegated) {
+        List<List<Literal>> clauses = toClauses(encodedFormula);
+        for (int bits = 0; bits < 1 << N; bits++) {
+            Map<String, Boolean> assignment = new HashMap<>();
+            int count = 0;
+            for (int i = 0; i < N; i++) {
+                boolean value = (bits & (1 << i)) != 0;
+                assignment.put("x" + i, value);
+                if (value == (i % 3 != 0)) {
+                    count++;
+                }
+            }
+            assertEquals(isSatisfied.test(count) != isNegated, isSatisfiable(clauses, assignment));
+        }
+    }
+
+    private static void assertEncodes(IFormula formula, IntPredicate isSatisfied) {
+        for (CardinalityEncoder.Encoding encoding : List.of(
+                CardinalityEncoder.Encoding.SEQUENTIAL_COUNTER, CardinalityEncoder.Encoding.TOTALIZER)) {
+            Variable variable = new Variable("x0");
+            assertEquisatisfiable(
+                    new NNFTransformer(variable, encoding).apply(formula).get(), isSatisfied, false);
+            assertEquisatisfiable(
+                    new NNFTransformer(variable, encoding).apply(not(formula)).get(), isSatisfied, true);
+            IFormula reference = reference((IFormula) formula.cloneTree());
+            assertTrue(Trees.traverse(reference, new ConnectiveSimplifier(encoding))
+                    .getProblems()
+                    .isEmpty());
+            Trees.traverse(reference, new AndOrSimplifier());
+            assertTrue(reference.getVariableNames().contains(CardinalityEncoder.AUXILIARY_VARIABLE_NAME_PREFIX + 1));
+            assertEquisatisfiable(reference, isSatisfied, false);
+        }
+    }
+
+    @Test
+    void encodesAtMost() {
+        assertEncodes(atMost(1, children()), count -> count <= 1);
+        assertEncodes(atMost(3, children()), count -> count <= 3);
+    }
+
+    @Test
+    void encodesAtLeast() {
+        assertEncodes(atLeast(5, children()), count -> count >= 5);
+    }
+
+    @Test
+    void encodesBetween() {
+        assertEncodes(between(2, 4, children()), count -> count >= 2 && count <= 4);
+    }
+
+    @Test
+    void encodesChoose() {
+        assertEncodes(choose(3, children()), count -> count == 3);
+    }
+
+    @Test
+    void binomialForSmallConstraints() {
+        IFormula formula = atMost(1, literal("a"), literal("b"), literal("c"));
+        CardinalityEncoder encoder = new CardinalityEncoder(CardinalityEncoder.Encoding.SEQUENTIAL_COUNTER);
+        assertEquals(ConnectiveSimplifier.expand(formula), encoder.encode(formula));
+        assertTrue(encoder.getDefinitions().isEmpty());
+    }
+
+    @Test
+    void linearNumberOfClauses() {
+        IFormula[] children = new IFormula[200];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = literal("x" + i);
+        }
+        for (CardinalityEncoder.Encoding encoding : List.of(
+                CardinalityEncoder.Encoding.SEQUENTIAL_COUNTER, CardinalityEncoder.Encoding.TOTALIZER)) {
+            IFormula nnf = new NNFTransformer(new Variable("x0"), encoding)
+                    .apply(choose(1, children))
+                    .get();
+            assertTrue(nnf.getChildrenCount() < 2000);
+        }
+    }
+}
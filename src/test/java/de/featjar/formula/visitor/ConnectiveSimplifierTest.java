@@ -21,7 +21,18 @@
 package de.featjar.formula.visitor;
 
 import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import de.featjar.base.tree.Trees;
+import de.featjar.formula.structure.IExpression;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.connective.And;
+import de.featjar.formula.structure.formula.connective.Not;
+import de.featjar.formula.structure.formula.connective.Reference;
+import java.util.HashSet;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class ConnectiveSimplifierTest {
@@ -45,5 +56,47 @@ class ConnectiveSimplifierTest {
                 and(or(not(literal("x")), not(literal("y")), not(literal("z")))));
     }
 
+    private static IFormula atMostThree() {
+        IFormula[] children = new IFormula[10];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = literal("x" + i);
+        }
+        return atMost(3, children);
+    }
+
+    private static IFormula simplify(IFormula formula) {
+        Reference reference = (Reference) reference(formula);
+        assertTrue(Trees.traverse(reference, new ConnectiveSimplifier(CardinalityEncoder.Encoding.SEQUENTIAL_COUNTER))
+                .getProblems()
+                .isEmpty());
+        return reference.getExpression();
+    }
+
+    @Test
+    void conjoinsDefinitionsOnce() {
+        IFormula formula = simplify(and(atMostThree(), literal("y"), implies(literal("y"), literal("z"))));
+        assertTrue(formula instanceof And);
+        List<? extends IExpression> children = formula.getChildren();
+        assertEquals(children.size(), new HashSet<>(children).size());
+        assertEquals(literal("y"), children.get(1));
+        assertEquals(or(not(literal("y")), literal("z")), children.get(2));
+        assertTrue(children.size() > 3);
+    }
+
+    @Test
+    void conjoinsDefinitionsAboveNegation() {
+        IFormula formula = simplify(not(atMostThree()));
+        assertTrue(formula instanceof And);
+        assertTrue(formula.getChildren().get(0) instanceof Not);
+        assertTrue(formula.getChildrenCount() > 1);
+    }
+
+    @Test
+    void requiresReferenceForDefinitions() {
+        assertFalse(Trees.traverse(not(atMostThree()), new ConnectiveSimplifier(CardinalityEncoder.Encoding.TOTALIZER))
+                .getProblems()
+                .isEmpty());
+    }
+
     // TODO: test other operators
 }
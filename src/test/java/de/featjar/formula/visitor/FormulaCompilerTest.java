@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.formula.analysis.VariableMap;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.transformer.FormulaCreator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class FormulaCompilerTest {
+
+    private static void assertSameEvaluation(IFormula formula, boolean isPartial) {
+        VariableMap variableMap = VariableMap.of(formula);
+        CompiledFormula compiledFormula = formula.traverse(new FormulaCompiler(variableMap)).orElseThrow();
+        int variableCount = variableMap.getVariableCount();
+        int base = isPartial ? 3 : 2;
+        int assignmentCount = (int) Math.pow(base, variableCount);
+        List<BooleanSolution> solutions = new ArrayList<>();
+        for (int i = 0; i < assignmentCount; i++) {
+            int[] literals = new int[variableCount];
+            LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+            for (int j = 0, k = i; j < variableCount; j++, k /= base) {
+                int value = k % base;
+                if (value < 2) {
+                    literals[j] = value == 1 ? j + 1 : -(j + 1);
+                    values.put(variableMap.get(j + 1).get(), value == 1);
+                }
+            }
+            BooleanSolution solution = new BooleanSolution(literals, false);
+            solutions.add(solution);
+            assertEquals(formula.evaluate(new ValueAssignment(values)), compiledFormula.evaluate(solution));
+        }
+        for (boolean isParallel : new boolean[] {false, true}) {
+            long[] bits = compiledFormula.test(solutions, isParallel);
+            for (int i = 0; i < assignmentCount; i++) {
+                assertEquals(
+                        Boolean.TRUE.equals(compiledFormula.evaluate(solutions.get(i))),
+                        (bits[i / Long.SIZE] & (1L << i)) != 0);
+            }
+            assertEquals((assignmentCount + Long.SIZE - 1) / Long.SIZE, bits.length);
+            if (assignmentCount % Long.SIZE != 0) {
+                assertEquals(0L, bits[bits.length - 1] >>> (assignmentCount % Long.SIZE));
+            }
+        }
+    }
+
+    @Test
+    void evaluatesLikeEvaluator() {
+        assertSameEvaluation(FormulaCreator.getFormula01(), false);
+        assertSameEvaluation(FormulaCreator.getFormula02(), false);
+    }
+
+    @Test
+    void evaluatesPartialAssignmentsLikeEvaluator() {
+        assertSameEvaluation(
+                and(
+                        or(literal("a"), literal(false, "b")),
+                        biImplies(literal("c"), not(literal("a"))),
+                        reference(or(literal("d"), False))),
+                true);
+        assertSameEvaluation(
+                or(
+                        atLeast(2, literal("a"), literal("b"), literal(false, "c")),
+                        and(atMost(1, literal("a"), literal("d")), choose(1, literal("b"), literal("c"))),
+                        between(1, 2, literal("a"), literal("b"), literal("c"), literal("d"))),
+                true);
+    }
+
+    @Test
+    void masksSolutionsBeyondLastBlock() {
+        assertSameEvaluation(True, false);
+        assertSameEvaluation(or(literal("a"), not(literal("a"))), true);
+        assertSameEvaluation(atMost(2, literal("a"), literal("b")), true);
+    }
+
+    @Test
+    void evaluatesTransposedSolutions() {
+        IFormula formula = and(atLeast(2, literal("a"), literal("b"), literal("c")), literal(false, "d"));
+        VariableMap variableMap = VariableMap.of(formula);
+        CompiledFormula compiledFormula = formula.traverse(new FormulaCompiler(variableMap)).orElseThrow();
+        // solution 0 selects a and b, solution 1 selects a and d, solution 2 selects only a and leaves b unknown
+        long[] selected = {0L, 0b111L, 0b001L, 0L, 0b010L};
+        long[] deselected = {0L, 0L, 0b010L, 0b111L, 0b101L};
+        long[] result = new long[2];
+        compiledFormula.evaluate(selected, deselected, result);
+        assertEquals(0b001L, result[0] & 0b111L);
+        assertEquals(0b010L, result[1] & 0b111L);
+    }
+
+    @Test
+    void treatsUnmappedVariablesAsUnknown() {
+        IFormula formula = or(literal("a"), literal("b"));
+        VariableMap variableMap = VariableMap.of(literal("a"));
+        CompiledFormula compiledFormula = formula.traverse(new FormulaCompiler(variableMap)).orElseThrow();
+        assertEquals(Boolean.TRUE, compiledFormula.evaluate(new BooleanSolution(new int[] {1}, false)));
+        assertNull(compiledFormula.evaluate(new BooleanSolution(new int[] {-1}, false)));
+    }
+
+    @Test
+    void failsForFirstOrderFormulas() {
+        IFormula formula = greaterThan(constant(1L), variable("x", Long.class));
+        assertTrue(formula.traverse(new FormulaCompiler(VariableMap.of(formula))).isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula.
+ *
+ * formula is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula> for further information.
+ */
+package de.featjar.formula.visitor;
+
+import static de.featjar.formula.structure.Expressions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.featjar.base.tree.Trees;
+import de.featjar.formula.analysis.value.ValueAssignment;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.structure.formula.predicate.Literal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RewriteEngineTest {
+    private static List<IRewriteRule> trueFalseAndOr() {
+        List<IRewriteRule> rules = new ArrayList<>(RewriteRules.trueFalse());
+        rules.addAll(RewriteRules.andOr());
+        return rules;
+    }
+
+    @Test
+    void trueFalseReachesFixpoint() {
+        IFormula formula = reference(and(
+                literal("a"),
+                and(literal("b"), literal("c"), True),
+                and(literal("b"), False),
+                or(literal("x"), False)));
+        assertEquals(reference(False), new RewriteEngine(trueFalseAndOr()).rewrite(formula));
+    }
+
+    @Test
+    void trueFalseMergesChildren() {
+        IFormula formula = reference(and(literal("a"), or(literal("x"), and(literal("b"), False)), and(True)));
+        assertEquals(reference(and(literal("a"), literal("x"))), new RewriteEngine(trueFalseAndOr()).rewrite(formula));
+    }
+
+    @Test
+    void rootIsReplaced() {
+        assertEquals(literal("x"), new RewriteEngine(RewriteRules.andOr()).rewrite(and(or(literal("x")))));
+    }
+
+    @Test
+    void nothingToRewrite() {
+        IFormula formula = reference(or(literal("x"), not(literal("y"))));
+        IFormula oldFormula = (IFormula) formula.cloneTree();
+        assertSame(formula, new RewriteEngine(trueFalseAndOr()).rewrite(formula));
+        assertEquals(oldFormula, formula);
+    }
+
+    @Test
+    void sharedPredicatesAreReplacedEverywhere() {
+        Literal a = literal("a");
+        IFormula formula = reference(and(or(a, literal("x")), or(a, literal("y")), implies(literal("z"), a)));
+        assertEquals(
+                reference(and(literal("x"), literal("y"), not(literal("z")))),
+                new RewriteEngine(RewriteRules.coreDead(new ValueAssignment("a", false))).rewrite(formula));
+    }
+
+    @Test
+    void coreDeadMatchesVisitor() {
+        ValueAssignment coreDead = new ValueAssignment("a", true, "b", false);
+        List<IFormula> formulas = List.of(
+                and(or(literal("a"), literal("x")), or(literal("b"), literal("y")), literal("z")),
+                or(literal("x"), and(literal("y"), not(literal("a")))),
+                implies(literal("a"), or(literal("b"), literal("c"))),
+                biImplies(literal("x"), not(literal("b"))),
+                and(implies(literal("x"), literal("b")), biImplies(literal(false, "a"), literal("y"))));
+        for (IFormula formula : formulas) {
+            IFormula expected = reference((IFormula) formula.cloneTree());
+            assertTrue(Trees.traverse(expected, new CoreDeadSimplifier(coreDead))
+                    .getProblems()
+                    .isEmpty());
+            IFormula actual = new RewriteEngine(RewriteRules.coreDead(coreDead))
+                    .rewrite(reference((IFormula) formula.cloneTree()));
+            assertEquals(expected, actual);
+        }
+    }
+}